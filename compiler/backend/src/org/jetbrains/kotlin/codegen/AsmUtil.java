@@ -20,6 +20,8 @@ import org.jetbrains.kotlin.codegen.binding.CodegenBinding;
 import org.jetbrains.kotlin.codegen.context.CodegenContext;
 import org.jetbrains.kotlin.codegen.intrinsics.HashCode;
 import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods;
+import org.jetbrains.kotlin.codegen.optimization.OptimizationStatistics;
+import org.jetbrains.kotlin.codegen.optimization.nullCheck.NotNullArgumentsAnalysis;
 import org.jetbrains.kotlin.codegen.state.GenerationState;
 import org.jetbrains.kotlin.codegen.state.KotlinTypeMapper;
 import org.jetbrains.kotlin.config.JvmTarget;
@@ -690,23 +692,34 @@ public class AsmUtil {
             @Nullable KotlinType kotlinType,
             @Nullable KotlinTypeMapper typeMapper
     ) {
-        Type appendParameterType;
+        Type appendParameterType = genStringConcatArgument(v, type, kotlinType, typeMapper);
+        v.invokevirtual("java/lang/StringBuilder", "append", "(" + appendParameterType.getDescriptor() + ")Ljava/lang/StringBuilder;", false);
+    }
 
+    /**
+     * Converts the value of the given type on the stack to the value appended to the concatenated string,
+     * and returns the type of the latter: a primitive type, String, one of the other types accepted by StringBuilder.append, or Object
+     */
+    @NotNull
+    public static Type genStringConcatArgument(
+            @NotNull InstructionAdapter v,
+            @NotNull Type type,
+            @Nullable KotlinType kotlinType,
+            @Nullable KotlinTypeMapper typeMapper
+    ) {
         CallableMethod specializedToString = getSpecializedToStringCallableMethodOrNull(kotlinType, typeMapper);
         if (specializedToString != null) {
             specializedToString.genInvokeInstruction(v);
-            appendParameterType = AsmTypes.JAVA_STRING_TYPE;
+            return AsmTypes.JAVA_STRING_TYPE;
         }
         else if (kotlinType != null && InlineClassesUtilsKt.isInlineClassType(kotlinType)) {
-            appendParameterType = OBJECT_TYPE;
             SimpleType nullableAnyType = kotlinType.getConstructor().getBuiltIns().getNullableAnyType();
-            StackValue.coerce(type, kotlinType, appendParameterType, nullableAnyType, v);
+            StackValue.coerce(type, kotlinType, OBJECT_TYPE, nullableAnyType, v);
+            return OBJECT_TYPE;
         }
         else {
-            appendParameterType = stringBuilderAppendType(type);
+            return stringBuilderAppendType(type);
         }
-
-        v.invokevirtual("java/lang/StringBuilder", "append", "(" + appendParameterType.getDescriptor() + ")Ljava/lang/StringBuilder;", false);
     }
 
     public static StackValue genToString(
@@ -932,6 +945,28 @@ public class AsmUtil {
         }
 
         ReceiverParameterDescriptor receiverParameter = descriptor.getExtensionReceiverParameter();
+
+        NotNullArgumentsAnalysis notNullArgumentsAnalysis = state.getNotNullArgumentsAnalysis();
+        if (notNullArgumentsAnalysis != null && notNullArgumentsAnalysis.hasOnlyNotNullArguments(descriptor)) {
+            // All calls of this function in the module are known to pass non-null arguments
+            OptimizationStatistics optimizationStatistics = state.getOptimizationStatistics();
+            if (optimizationStatistics != null) {
+                int removedAssertions = 0;
+                if (receiverParameter != null && isParamAssertionNeeded(state.getTypeMapper(), receiverParameter)) {
+                    removedAssertions++;
+                }
+                for (ValueParameterDescriptor parameter : descriptor.getValueParameters()) {
+                    if (isParamAssertionNeeded(state.getTypeMapper(), parameter)) {
+                        removedAssertions++;
+                    }
+                }
+                optimizationStatistics
+                        .forClass(state.getTypeMapper().mapImplementationOwner(descriptor).getInternalName())
+                        .record(OptimizationStatistics.REMOVED_PARAMETER_NULL_CHECKS, removedAssertions);
+            }
+            return;
+        }
+
         if (receiverParameter != null) {
             genParamAssertion(v, state.getTypeMapper(), frameMap, receiverParameter, CAPTURED_RECEIVER_FIELD, descriptor);
         }
@@ -941,6 +976,14 @@ public class AsmUtil {
         }
     }
 
+    private static boolean isParamAssertionNeeded(@NotNull KotlinTypeMapper typeMapper, @NotNull ParameterDescriptor parameter) {
+        KotlinType type = parameter.getType();
+        if (isNullableType(type) || InlineClassesUtilsKt.isNullableUnderlyingType(type)) return false;
+
+        Type asmType = typeMapper.mapType(type);
+        return asmType.getSort() == Type.OBJECT || asmType.getSort() == Type.ARRAY;
+    }
+
     private static void genParamAssertion(
             @NotNull InstructionAdapter v,
             @NotNull KotlinTypeMapper typeMapper,
@@ -949,11 +992,8 @@ public class AsmUtil {
             @NotNull String name,
             @NotNull FunctionDescriptor containingDeclaration
     ) {
-        KotlinType type = parameter.getType();
-        if (isNullableType(type) || InlineClassesUtilsKt.isNullableUnderlyingType(type)) return;
-
-        Type asmType = typeMapper.mapType(type);
-        if (asmType.getSort() == Type.OBJECT || asmType.getSort() == Type.ARRAY) {
+        if (isParamAssertionNeeded(typeMapper, parameter)) {
+            Type asmType = typeMapper.mapType(parameter.getType());
             StackValue value;
             if (JvmCodegenUtil.isDeclarationOfBigArityFunctionInvoke(containingDeclaration) ||
                 JvmCodegenUtil.isDeclarationOfBigArityCreateCoroutineMethod(containingDeclaration)) {
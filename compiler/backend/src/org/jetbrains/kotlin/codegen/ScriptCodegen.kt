@@ -8,6 +8,8 @@ package org.jetbrains.kotlin.codegen
 import com.intellij.psi.PsiElement
 import org.jetbrains.kotlin.codegen.AsmUtil.writeAnnotationData
 import org.jetbrains.kotlin.codegen.context.CodegenContext
+import org.jetbrains.kotlin.codegen.context.EARLIER_SCRIPTS_ARRAY_TYPE
+import org.jetbrains.kotlin.codegen.context.EARLIER_SCRIPTS_FIELD_NAME
 import org.jetbrains.kotlin.codegen.context.MethodContext
 import org.jetbrains.kotlin.codegen.context.ScriptContext
 import org.jetbrains.kotlin.codegen.serialization.JvmSerializerExtension
@@ -131,9 +133,13 @@ class ScriptCodegen private constructor(
             if (!scriptContext.earlierScripts.isEmpty()) {
                 val scriptsParamIndex = frameMap.enterTemp(AsmUtil.getArrayType(OBJECT_TYPE))
 
-                scriptContext.earlierScripts.forEachIndexed { earlierScriptIndex, earlierScript ->
-                    val name = scriptContext.getScriptFieldName(earlierScript)
-                    genFieldFromArrayElement(earlierScript, scriptsParamIndex, earlierScriptIndex, name)
+                if (scriptContext.earlierScriptsInArray) {
+                    genFieldFromParam(EARLIER_SCRIPTS_ARRAY_TYPE, scriptsParamIndex, EARLIER_SCRIPTS_FIELD_NAME)
+                } else {
+                    scriptContext.earlierScripts.forEachIndexed { earlierScriptIndex, earlierScript ->
+                        val name = scriptContext.getScriptFieldName(earlierScript)
+                        genFieldFromArrayElement(earlierScript, scriptsParamIndex, earlierScriptIndex, name)
+                    }
                 }
             }
 
@@ -189,15 +195,26 @@ class ScriptCodegen private constructor(
     }
 
     private fun genFieldsForParameters(classBuilder: ClassBuilder) {
-        for (earlierScript in scriptContext.earlierScripts) {
+        if (scriptContext.earlierScriptsInArray) {
             classBuilder.newField(
                 NO_ORIGIN,
                 ACC_PUBLIC or ACC_FINAL,
-                scriptContext.getScriptFieldName(earlierScript),
-                typeMapper.mapType(earlierScript).descriptor,
+                EARLIER_SCRIPTS_FIELD_NAME,
+                EARLIER_SCRIPTS_ARRAY_TYPE.descriptor,
                 null,
                 null
             )
+        } else {
+            for (earlierScript in scriptContext.earlierScripts) {
+                classBuilder.newField(
+                    NO_ORIGIN,
+                    ACC_PUBLIC or ACC_FINAL,
+                    scriptContext.getScriptFieldName(earlierScript),
+                    typeMapper.mapType(earlierScript).descriptor,
+                    null,
+                    null
+                )
+            }
         }
         for (receiverIndex in scriptContext.receiverDescriptors.indices) {
             classBuilder.newField(
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen
+
+import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.codegen.state.KotlinTypeMapper
+import org.jetbrains.kotlin.config.JvmStringConcat
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes.JAVA_STRING_TYPE
+import org.jetbrains.kotlin.types.KotlinType
+import org.jetbrains.org.objectweb.asm.Handle
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
+
+/**
+ * Generates string concatenation: either a `StringBuilder` chain, or, in the [JvmStringConcat.INDY_WITH_CONSTANTS] mode,
+ * an `invokedynamic` of `StringConcatFactory.makeConcatWithConstants`, where the constant parts are folded into the recipe and
+ * the other parts are passed as arguments.
+ *
+ * The usage is the same for both modes: [genStringBuilderConstructorIfNeeded], then [invokeAppend] after each value is put on
+ * the stack and [addStringConstant] for constant parts, and finally [genToString].
+ */
+class StringConcatGenerator(val mode: JvmStringConcat, val mv: InstructionAdapter) {
+    private val recipe = StringBuilder()
+    private val argumentTypes = arrayListOf<Type>()
+    private var argumentSlots = 0
+
+    @JvmOverloads
+    fun genStringBuilderConstructorIfNeeded(swap: Boolean = false) {
+        if (mode.isDynamic) return
+
+        AsmUtil.genStringBuilderConstructor(mv)
+        if (swap) {
+            mv.swap()
+        }
+    }
+
+    @JvmOverloads
+    fun invokeAppend(type: Type, kotlinType: KotlinType? = null, typeMapper: KotlinTypeMapper? = null) {
+        if (!mode.isDynamic) {
+            AsmUtil.genInvokeAppendMethod(mv, type, kotlinType, typeMapper)
+            return
+        }
+
+        val argumentType = AsmUtil.genStringConcatArgument(mv, type, kotlinType, typeMapper)
+        recipe.append(ARGUMENT_TAG)
+        argumentTypes.add(argumentType)
+        argumentSlots += argumentType.size
+        // The argument is already on the stack, so the arguments collected so far are concatenated while the next one,
+        // which may be long or double, is still guaranteed to fit
+        if (argumentSlots > MAX_ARGUMENT_SLOTS - 2) {
+            genIntermediateConcat()
+        }
+    }
+
+    fun addStringConstant(value: String) {
+        if (!mode.isDynamic) {
+            if (value.length == 1) {
+                mv.iconst(value[0].toInt())
+                invokeAppend(Type.CHAR_TYPE)
+            } else {
+                mv.aconst(value)
+                invokeAppend(JAVA_STRING_TYPE)
+            }
+            return
+        }
+
+        // Tag characters cannot be a part of the recipe, and the recipe is a constant pool entry of limited size
+        if (value.length > MAX_RECIPE_LENGTH || value.indexOf(ARGUMENT_TAG) >= 0 || value.indexOf(CONSTANT_TAG) >= 0) {
+            mv.aconst(value)
+            invokeAppend(JAVA_STRING_TYPE)
+            return
+        }
+
+        if (recipe.length + value.length > MAX_RECIPE_LENGTH) {
+            genIntermediateConcat()
+        }
+        recipe.append(value)
+    }
+
+    fun genToString() {
+        if (mode.isDynamic) {
+            genInvokeDynamic()
+        } else {
+            mv.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false)
+        }
+    }
+
+    private fun genIntermediateConcat() {
+        genInvokeDynamic()
+        recipe.append(ARGUMENT_TAG)
+        argumentTypes.add(JAVA_STRING_TYPE)
+        argumentSlots = 1
+    }
+
+    private fun genInvokeDynamic() {
+        mv.invokedynamic(
+            "makeConcatWithConstants",
+            Type.getMethodDescriptor(JAVA_STRING_TYPE, *argumentTypes.toTypedArray()),
+            MAKE_CONCAT_WITH_CONSTANTS,
+            arrayOf(recipe.toString())
+        )
+        recipe.setLength(0)
+        argumentTypes.clear()
+        argumentSlots = 0
+    }
+
+    companion object {
+        private const val ARGUMENT_TAG = '\u0001'
+        private const val CONSTANT_TAG = '\u0002'
+
+        // StringConcatFactory accepts at most 200 argument slots
+        private const val MAX_ARGUMENT_SLOTS = 200
+
+        // Keeps the UTF-8 encoded recipe well below the 65535 bytes limit of a constant pool entry
+        private const val MAX_RECIPE_LENGTH = 16384
+
+        private val MAKE_CONCAT_WITH_CONSTANTS = Handle(
+            Opcodes.H_INVOKESTATIC,
+            "java/lang/invoke/StringConcatFactory",
+            "makeConcatWithConstants",
+            "(Ljava/lang/invoke/MethodHandles\$Lookup;Ljava/lang/String;Ljava/lang/invoke/MethodType;Ljava/lang/String;[Ljava/lang/Object;)" +
+                    "Ljava/lang/invoke/CallSite;",
+            false
+        )
+
+        @JvmStatic
+        fun create(state: GenerationState, mv: InstructionAdapter) = StringConcatGenerator(state.runtimeStringConcat, mv)
+    }
+}
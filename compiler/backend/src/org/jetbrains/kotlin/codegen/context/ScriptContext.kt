@@ -16,6 +16,7 @@
 
 package org.jetbrains.kotlin.codegen.context
 
+import org.jetbrains.kotlin.codegen.AsmUtil
 import org.jetbrains.kotlin.codegen.FieldInfo
 import org.jetbrains.kotlin.codegen.OwnerKind
 import org.jetbrains.kotlin.codegen.StackValue
@@ -108,16 +109,48 @@ class ScriptContext(
     val receiverDescriptors: List<ClassDescriptor>
         get() = scriptDescriptor.implicitReceivers
 
+    private val earlierScriptIndices: Map<ScriptDescriptor, Int> by lazy {
+        earlierScripts.withIndex().associate { (index, script) -> script to index }
+    }
+
+    val earlierScriptsInArray: Boolean
+        get() = state.replSpecific.earlierScriptsInArray && earlierScripts.isNotEmpty()
+
     fun getScriptFieldName(scriptDescriptor: ScriptDescriptor): String {
-        val index = earlierScripts.indexOf(scriptDescriptor)
-        return if (index >= 0) "script$" + (index + 1)
+        val index = earlierScriptIndices[scriptDescriptor]
+        return if (index != null) "script$" + (index + 1)
         else "\$\$importedScript${scriptDescriptor.name.identifier}"
     }
 
+    /**
+     * Returns the instance of an earlier REPL line or an imported script, given the instance of this script.
+     *
+     * With [earlierScriptsInArray], the instances of all earlier lines are stored in the single [EARLIER_SCRIPTS_FIELD_NAME] field
+     * as they are passed to the constructor, so neither the number of fields nor the size of the constructor of a REPL line depends
+     * on the length of the history.
+     */
+    fun getEarlierScriptValue(earlierScript: ScriptDescriptor, scriptInstance: StackValue): StackValue {
+        val ownerType = typeMapper.mapType(scriptDescriptor)
+        val classType = typeMapper.mapType(earlierScript)
+        val index = earlierScriptIndices[earlierScript]
+        if (index != null && earlierScriptsInArray) {
+            val array = StackValue.field(EARLIER_SCRIPTS_ARRAY_TYPE, ownerType, EARLIER_SCRIPTS_FIELD_NAME, false, scriptInstance)
+            val element = StackValue.arrayElement(AsmTypes.OBJECT_TYPE, null, array, StackValue.constant(index, Type.INT_TYPE))
+            return StackValue.coercion(element, classType, earlierScript.defaultType)
+        }
+        return StackValue.field(
+            classType, earlierScript.defaultType, ownerType, getScriptFieldName(earlierScript), false, scriptInstance, earlierScript
+        )
+    }
+
     override fun toString(): String {
         return "Script: " + contextDescriptor.name.asString()
     }
 }
 
+const val EARLIER_SCRIPTS_FIELD_NAME = "\$\$earlierScripts"
+
+val EARLIER_SCRIPTS_ARRAY_TYPE: Type = AsmUtil.getArrayType(AsmTypes.OBJECT_TYPE)
+
 private val Class<*>.classId: ClassId
     get() = enclosingClass?.classId?.createNestedClassId(Name.identifier(simpleName)) ?: ClassId.topLevel(FqName(name))
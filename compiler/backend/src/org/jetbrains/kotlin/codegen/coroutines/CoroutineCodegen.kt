@@ -463,7 +463,8 @@ class CoroutineCodegenForLambda private constructor(
                         containingClassInternalName = v.thisName,
                         isForNamedFunction = false,
                         languageVersionSettings = languageVersionSettings,
-                        sourceFile = element.containingFile.name
+                        sourceFile = element.containingFile.name,
+                        optimizeSpilling = state.optimizeCoroutineSpilling
                     )
                 }
 
@@ -70,7 +70,9 @@ class CoroutineTransformerMethodVisitor(
     // May differ from containingClassInternalName in case of DefaultImpls
     private val internalNameForDispatchReceiver: String? = null,
     // For crossinline lambdas we do not generate DebugMetadata annotation, otherwise it will be generated twice
-    private val isCrossinlineLambda: Boolean = false
+    private val isCrossinlineLambda: Boolean = false,
+    // Share continuation fields between int-like variables and clear reference fields that are not used at a suspension point
+    private val optimizeSpilling: Boolean = false
 ) : TransformationMethodVisitor(delegate, access, name, desc, signature, exceptions) {
 
     private val classBuilderForCoroutineState: ClassBuilder by lazy(obtainClassBuilderForCoroutineState)
@@ -497,17 +499,23 @@ class CoroutineTransformerMethodVisitor(
         val frames = performRefinedTypeAnalysis(methodNode, containingClassInternalName)
         fun AbstractInsnNode.index() = instructions.indexOf(this)
 
-        fun Int.isInlinerFakeVariable(index: Int) = methodNode.localVariables.any {
-            (it.name.startsWith(JvmAbi.LOCAL_VARIABLE_NAME_PREFIX_INLINE_ARGUMENT) || it.name.startsWith(JvmAbi.LOCAL_VARIABLE_NAME_PREFIX_INLINE_FUNCTION))
-                    && it.index == this
-                    && it.start.index() <= index && index <= it.end.index()
-        }
+        // Ranges of the fake variables generated by the inliner are collected once, so that the check below does not go through
+        // the whole local variable table for every variable at every suspension point
+        val inlinerFakeVariableRanges = methodNode.localVariables.filter {
+            it.name.startsWith(JvmAbi.LOCAL_VARIABLE_NAME_PREFIX_INLINE_ARGUMENT) ||
+                    it.name.startsWith(JvmAbi.LOCAL_VARIABLE_NAME_PREFIX_INLINE_FUNCTION)
+        }.groupBy({ it.index }, { it.start.index()..it.end.index() })
+
+        fun Int.isInlinerFakeVariable(index: Int) = inlinerFakeVariableRanges[this]?.any { index in it } == true
+
+        val ignoredVariables = setOf(continuationIndex, dataIndex, exceptionIndex)
 
         // We postpone these actions because they change instruction indices that we use when obtaining frames
         val postponedActions = mutableListOf<() -> Unit>()
         val maxVarsCountByType = mutableMapOf<Type, Int>()
         val livenessFrames = analyzeLiveness(methodNode)
         val spilledToVariableMapping = arrayListOf<List<SpilledVariableDescriptor>>()
+        val varsCountByTypeForSuspensionPoints = arrayListOf<Map<Type, Int>>()
 
         for (suspension in suspensionPoints) {
             val suspensionCallBegin = suspension.suspensionCallBegin
@@ -545,7 +553,7 @@ class CoroutineTransformerMethodVisitor(
             val variablesToSpill =
                 (0 until localsCount)
                     .filterNot {
-                        it in setOf(continuationIndex, dataIndex, exceptionIndex) || it.isInlinerFakeVariable(suspensionCallBegin.index())
+                        it in ignoredVariables || it.isInlinerFakeVariable(suspensionCallBegin.index())
                     }.map { Pair(it, frame.getLocal(it)) }
                     .filter { (index, value) ->
                         (index == 0 && needDispatchReceiver && isForNamedFunction) ||
@@ -566,7 +574,7 @@ class CoroutineTransformerMethodVisitor(
                 }
 
                 val type = basicValue.type
-                val normalizedType = type.normalize()
+                val normalizedType = if (optimizeSpilling) type.normalizeIntLike() else type.normalize()
 
                 val indexBySort = varsCountByType[normalizedType]?.plus(1) ?: 0
                 varsCountByType[normalizedType] = indexBySort
@@ -597,12 +605,19 @@ class CoroutineTransformerMethodVisitor(
             }
 
             spilledToVariableMapping.add(spilledToVariable)
+            varsCountByTypeForSuspensionPoints.add(varsCountByType)
 
             varsCountByType.forEach {
                 maxVarsCountByType[it.key] = Math.max(maxVarsCountByType[it.key] ?: 0, it.value)
             }
         }
 
+        if (optimizeSpilling) {
+            clearUnusedReferenceFields(
+                suspensionPoints, varsCountByTypeForSuspensionPoints, maxVarsCountByType, postponedActions, methodNode
+            )
+        }
+
         postponedActions.forEach(Function0<Unit>::invoke)
 
         maxVarsCountByType.forEach { entry ->
@@ -617,6 +632,43 @@ class CoroutineTransformerMethodVisitor(
         return spilledToVariableMapping
     }
 
+    /**
+     * Continuation fields are shared by the variables spilled at different suspension points, so a reference field may still hold
+     * an object stored at an earlier suspension point while the coroutine is suspended at a point where the field is not used,
+     * which keeps the object reachable for as long as the continuation. Such fields are cleared before the suspension call.
+     *
+     * [varsCountByTypeForSuspensionPoints] contains the maximal field indices used at each suspension point,
+     * [maxVarsCountByType] the maximal field indices used in the whole method.
+     */
+    private fun clearUnusedReferenceFields(
+        suspensionPoints: List<SuspensionPoint>,
+        varsCountByTypeForSuspensionPoints: List<Map<Type, Int>>,
+        maxVarsCountByType: Map<Type, Int>,
+        postponedActions: MutableList<() -> Unit>,
+        methodNode: MethodNode
+    ) {
+        val maxIndex = maxVarsCountByType[AsmTypes.OBJECT_TYPE] ?: return
+
+        for ((suspension, varsCountByType) in suspensionPoints.zip(varsCountByTypeForSuspensionPoints)) {
+            val firstUnusedIndex = varsCountByType[AsmTypes.OBJECT_TYPE]?.plus(1) ?: 0
+            if (firstUnusedIndex > maxIndex) continue
+
+            postponedActions.add {
+                methodNode.instructions.insertBefore(suspension.suspensionCallBegin, withInstructionAdapter {
+                    for (index in firstUnusedIndex..maxIndex) {
+                        load(continuationIndex, AsmTypes.OBJECT_TYPE)
+                        aconst(null)
+                        putfield(
+                            classBuilderForCoroutineState.thisName,
+                            AsmTypes.OBJECT_TYPE.fieldNameForVar(index),
+                            AsmTypes.OBJECT_TYPE.descriptor
+                        )
+                    }
+                })
+            }
+        }
+    }
+
     private fun localVariableName(
         methodNode: MethodNode,
         index: Int,
@@ -870,6 +922,13 @@ private fun Type.normalize() =
         else -> this
     }
 
+// Int-like values are ints in the JVM, so variables of all int-like types can share the same fields
+private fun Type.normalizeIntLike() =
+    when (sort) {
+        Type.BOOLEAN, Type.CHAR, Type.BYTE, Type.SHORT -> Type.INT_TYPE
+        else -> normalize()
+    }
+
 /**
  * Suspension call may consists of several instructions:
  * ICONST_0
@@ -72,7 +72,8 @@ open class SuspendFunctionGenerationStrategy(
             needDispatchReceiver = originalSuspendDescriptor.dispatchReceiverParameter != null,
             internalNameForDispatchReceiver = containingClassInternalNameOrNull(),
             languageVersionSettings = languageVersionSettings,
-            sourceFile = declaration.containingFile.name
+            sourceFile = declaration.containingFile.name,
+            optimizeSpilling = state.optimizeCoroutineSpilling
         )
     }
 
@@ -105,7 +105,8 @@ class CoroutineTransformer(
                 containingClassInternalName = classBuilder.thisName,
                 isForNamedFunction = false,
                 sourceFile = sourceFile ?: "",
-                isCrossinlineLambda = inliningContext.isContinuation
+                isCrossinlineLambda = inliningContext.isContinuation,
+                optimizeSpilling = state.optimizeCoroutineSpilling
             )
         }
     }
@@ -133,7 +134,8 @@ class CoroutineTransformer(
                 isForNamedFunction = true,
                 needDispatchReceiver = true,
                 internalNameForDispatchReceiver = classBuilder.thisName,
-                sourceFile = sourceFile ?: ""
+                sourceFile = sourceFile ?: "",
+                optimizeSpilling = state.optimizeCoroutineSpilling
             )
         }
     }
@@ -18,8 +18,6 @@ package org.jetbrains.kotlin.codegen.intrinsics
 
 import com.intellij.psi.PsiElement
 import org.jetbrains.kotlin.codegen.*
-import org.jetbrains.kotlin.codegen.AsmUtil.genInvokeAppendMethod
-import org.jetbrains.kotlin.codegen.AsmUtil.genStringBuilderConstructor
 import org.jetbrains.kotlin.lexer.KtTokens
 import org.jetbrains.kotlin.psi.KtBinaryExpression
 import org.jetbrains.kotlin.psi.KtCallableReferenceExpression
@@ -39,22 +37,22 @@ class Concat : IntrinsicMethod() {
             arguments: List<KtExpression>,
             receiver: StackValue
     ): Type {
+        val generator = StringConcatGenerator.create(codegen.state, v)
         if (element is KtBinaryExpression && element.operationReference.getReferencedNameElementType() == KtTokens.PLUS) {
             // LHS + RHS
-            genStringBuilderConstructor(v)
-            codegen.invokeAppend(v, element.left)
-            codegen.invokeAppend(v, element.right)
+            generator.genStringBuilderConstructorIfNeeded()
+            codegen.invokeAppend(generator, element.left)
+            codegen.invokeAppend(generator, element.right)
         }
         else {
             // Explicit plus call LHS?.plus(RHS) or LHS.plus(RHS)
             receiver.put(AsmTypes.JAVA_STRING_TYPE, v)
-            genStringBuilderConstructor(v)
-            v.swap()
-            genInvokeAppendMethod(v, returnType, null)
-            codegen.invokeAppend(v, arguments[0])
+            generator.genStringBuilderConstructorIfNeeded(swap = true)
+            generator.invokeAppend(returnType)
+            codegen.invokeAppend(generator, arguments[0])
         }
 
-        v.invokevirtual("java/lang/StringBuilder", "toString", "()Ljava/lang/String;", false)
+        generator.genToString()
         return JAVA_STRING_TYPE
     }
 
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import org.jetbrains.kotlin.codegen.ClassBuilder
+import org.jetbrains.kotlin.codegen.optimization.boxing.isInlineClassBoxing
+import org.jetbrains.kotlin.codegen.optimization.boxing.isInlineClassUnboxing
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.codegen.state.KotlinTypeMapper
+import org.jetbrains.kotlin.codegen.state.md5base64
+import org.jetbrains.kotlin.resolve.jvm.diagnostics.JvmDeclarationOrigin
+import org.jetbrains.org.objectweb.asm.MethodVisitor
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
+import org.jetbrains.org.objectweb.asm.tree.analysis.SourceInterpreter
+import org.jetbrains.org.objectweb.asm.tree.analysis.SourceValue
+
+/**
+ * Generates copies of private methods specialized for inline class values, so that values passed through generic helpers
+ * don't need to be boxed:
+ *
+ *     inline class UserId(val id: Int)
+ *     private fun <T> choose(a: T, b: T, first: Boolean): T = if (first) a else b
+ *     fun test(a: UserId, b: UserId) = choose(a, b, true).id
+ *
+ * A call is specialized for the arguments boxed right before the call, and for the result if it's unboxed right after the call.
+ * The copy takes the underlying values, boxes them on entry and unboxes the result on return. It's optimized as usual,
+ * so boxing is removed if the values are not used as objects in the copy.
+ *
+ * Methods are kept in memory until the class is done, because a call may be generated before the called method.
+ */
+class InlineClassHelperSpecializer(
+    private val classBuilder: ClassBuilder,
+    private val generationState: GenerationState,
+    private val statistics: OptimizationStatistics.ClassStatistics?
+) {
+    private class BufferedMethod(val origin: JvmDeclarationOrigin, val node: MethodNode)
+
+    private class Specialization(
+        val method: MethodNode,
+        val name: String,
+        val desc: String,
+        // Inline class types of the specialized parameters, `null` for parameters that are not specialized
+        val parameterTypes: List<Type?>,
+        val returnType: Type?
+    )
+
+    private data class CallRewrite(
+        val call: MethodInsnNode,
+        val boxingInsns: List<MethodInsnNode?>,
+        val checkCast: TypeInsnNode?,
+        val unboxing: MethodInsnNode?
+    )
+
+    private val methods = arrayListOf<BufferedMethod>()
+
+    fun newMethod(
+        origin: JvmDeclarationOrigin,
+        access: Int,
+        name: String,
+        desc: String,
+        signature: String?,
+        exceptions: Array<out String>?
+    ): MethodVisitor =
+        MethodNode(Opcodes.API_VERSION, access, name, desc, signature, exceptions).also { methods.add(BufferedMethod(origin, it)) }
+
+    fun done() {
+        val thisName = classBuilder.thisName
+        val privateMethods = methods.map { it.node }.filter { it.isSpecializable() }.associateBy { it.name + it.desc }
+
+        val specializations = LinkedHashMap<String, Specialization>()
+        if (privateMethods.isNotEmpty()) {
+            for (method in methods) {
+                specializeCalls(method.node, thisName, privateMethods, specializations)
+            }
+        }
+
+        for (method in methods) {
+            val node = method.node
+            node.accept(
+                classBuilder.newMethod(method.origin, node.access, node.name, node.desc, node.signature, node.exceptions.toTypedArray())
+            )
+        }
+
+        for (specialization in specializations.values) {
+            generateSpecializedMethod(specialization)
+        }
+    }
+
+    private fun MethodNode.isSpecializable() =
+        access and Opcodes.ACC_PRIVATE != 0 && instructions.size() > 0 && name != "<init>" && name != "<clinit>"
+
+    private fun specializeCalls(
+        caller: MethodNode,
+        thisName: String,
+        privateMethods: Map<String, MethodNode>,
+        specializations: MutableMap<String, Specialization>
+    ) {
+        val calls = caller.instructions.toArray().filterIsInstance<MethodInsnNode>().filter {
+            (it.opcode == Opcodes.INVOKESTATIC || it.opcode == Opcodes.INVOKESPECIAL) && it.owner == thisName &&
+                    (it.name + it.desc) in privateMethods
+        }
+        if (calls.isEmpty() || !OptimizationMethodVisitor.canBeOptimizedUsingSourceInterpreter(caller)) return
+
+        // All calls are matched against the frames of the original instructions before any of them is rewritten
+        val frames = MethodTransformer.analyze(thisName, caller, SourceInterpreter())
+        val rewrites = calls.mapNotNull { call ->
+            val callIndex = caller.instructions.indexOf(call)
+            val frame = frames[callIndex] ?: return@mapNotNull null
+
+            val argumentTypes = Type.getArgumentTypes(call.desc)
+            val boxingInsns = argumentTypes.mapIndexed { i, type ->
+                if (type.sort != Type.OBJECT) return@mapIndexed null
+                val stackIndex = frame.stackSize - argumentTypes.size + i
+                val source = frame.getStack(stackIndex).insns.singleOrNull()
+                source?.takeIf {
+                    it.isInlineClassBoxing(generationState) && isUsedOnlyByCall(caller, frames, it, callIndex, stackIndex)
+                } as MethodInsnNode?
+            }
+
+            val checkCast = call.next?.takeIf { it.opcode == Opcodes.CHECKCAST } as TypeInsnNode?
+            val unboxing = (checkCast?.next ?: call.next)?.takeIf {
+                it.isInlineClassUnboxing(generationState) && (checkCast == null || checkCast.desc == (it as MethodInsnNode).owner)
+            } as MethodInsnNode?
+
+            if (boxingInsns.all { it == null } && unboxing == null) null
+            else CallRewrite(call, boxingInsns, checkCast, unboxing)
+        }
+
+        for ((call, boxingInsns, checkCast, unboxing) in rewrites) {
+            val specialization = getOrCreateSpecialization(privateMethods[call.name + call.desc]!!, boxingInsns, unboxing, specializations)
+
+            for (boxing in boxingInsns) {
+                if (boxing != null) caller.instructions.remove(boxing)
+            }
+            if (unboxing != null) {
+                checkCast?.let { caller.instructions.remove(it) }
+                caller.instructions.remove(unboxing)
+            }
+            call.name = specialization.name
+            call.desc = specialization.desc
+        }
+    }
+
+    // The boxed value at [stackIndex] should only be read by the call: there are no jumps between the boxing and the call, and the value
+    // is never duplicated or swapped, e.g. to be stored in a local variable. Other instructions can only read it by popping it,
+    // which is ruled out by the value being on the stack of the call.
+    private fun isUsedOnlyByCall(
+        method: MethodNode,
+        frames: Array<out Frame<SourceValue>?>,
+        boxing: AbstractInsnNode,
+        callIndex: Int,
+        stackIndex: Int
+    ): Boolean {
+        for (index in method.instructions.indexOf(boxing) + 1 until callIndex) {
+            val insn = method.instructions[index]
+            if (insn is JumpInsnNode || insn is TableSwitchInsnNode || insn is LookupSwitchInsnNode ||
+                insn.opcode in Opcodes.IRETURN..Opcodes.RETURN || insn.opcode == Opcodes.ATHROW
+            ) return false
+
+            // Stack manipulation instructions read at most 4 values from the top of the stack
+            val frame = frames[index] ?: return false
+            if (insn.opcode in Opcodes.DUP..Opcodes.SWAP && frame.stackSize - stackIndex <= 4) return false
+        }
+        return true
+    }
+
+    private fun getOrCreateSpecialization(
+        method: MethodNode,
+        boxingInsns: List<MethodInsnNode?>,
+        unboxing: MethodInsnNode?,
+        specializations: MutableMap<String, Specialization>
+    ): Specialization {
+        val parameterTypes = boxingInsns.map { boxing -> boxing?.let { Type.getObjectType(it.owner) } }
+        val returnType = unboxing?.let { Type.getObjectType(it.owner) }
+
+        val key = method.name + method.desc + parameterTypes.joinToString { it?.descriptor ?: "_" } + ":" + returnType?.descriptor
+        return specializations.getOrPut(key) {
+            val argumentTypes = Type.getArgumentTypes(method.desc).mapIndexed { i, type ->
+                boxingInsns[i]?.let { Type.getArgumentTypes(it.desc).single() } ?: type
+            }
+            val specializedReturnType = unboxing?.let { Type.getReturnType(it.desc) } ?: Type.getReturnType(method.desc)
+            Specialization(
+                method, method.name + "-" + md5base64(key),
+                Type.getMethodDescriptor(specializedReturnType, *argumentTypes.toTypedArray()),
+                parameterTypes, returnType
+            )
+        }
+    }
+
+    private fun generateSpecializedMethod(specialization: Specialization) {
+        val method = specialization.method
+        val isStatic = method.access and Opcodes.ACC_STATIC != 0
+        val access = Opcodes.ACC_PRIVATE or Opcodes.ACC_FINAL or Opcodes.ACC_SYNTHETIC or
+                (method.access and (Opcodes.ACC_STATIC or Opcodes.ACC_SYNCHRONIZED or Opcodes.ACC_STRICT))
+        val exceptions = method.exceptions.toTypedArray()
+        val copy = MethodNode(Opcodes.API_VERSION, access, specialization.name, specialization.desc, null, exceptions)
+
+        // The copy of the original body uses the locals after the parameters of the specialized method
+        val shift = (Type.getArgumentsAndReturnSizes(specialization.desc) shr 2) - (if (isStatic) 1 else 0)
+
+        val iv = InstructionAdapter(copy)
+        var index = 0
+        if (!isStatic) {
+            iv.load(0, OBJECT_TYPE)
+            iv.store(shift, OBJECT_TYPE)
+            index++
+        }
+        var originalIndex = index
+        val originalArgumentTypes = Type.getArgumentTypes(method.desc)
+        for ((i, type) in Type.getArgumentTypes(specialization.desc).withIndex()) {
+            iv.load(index, type)
+            specialization.parameterTypes[i]?.let { boxedType ->
+                iv.invokestatic(
+                    boxedType.internalName, KotlinTypeMapper.BOX_JVM_METHOD_NAME, Type.getMethodDescriptor(boxedType, type), false
+                )
+            }
+            iv.store(originalIndex + shift, originalArgumentTypes[i])
+            index += type.size
+            originalIndex += originalArgumentTypes[i].size
+        }
+
+        val labels = method.instructions.toArray().filterIsInstance<LabelNode>().associate { it to LabelNode() }
+        for (insn in method.instructions.toArray()) {
+            val clone = insn.clone(labels)
+            when (clone) {
+                is VarInsnNode -> clone.`var` += shift
+                is IincInsnNode -> clone.`var` += shift
+            }
+
+            val returnType = specialization.returnType
+            if (returnType != null && clone.opcode == Opcodes.ARETURN) {
+                val unboxedType = Type.getReturnType(specialization.desc)
+                iv.checkcast(returnType)
+                iv.invokevirtual(
+                    returnType.internalName, KotlinTypeMapper.UNBOX_JVM_METHOD_NAME, Type.getMethodDescriptor(unboxedType), false
+                )
+                iv.areturn(unboxedType)
+            } else {
+                copy.instructions.add(clone)
+            }
+        }
+
+        for (block in method.tryCatchBlocks) {
+            copy.tryCatchBlocks.add(TryCatchBlockNode(labels[block.start], labels[block.end], labels[block.handler], block.type))
+        }
+        for (variable in method.localVariables.orEmpty()) {
+            copy.localVariables.add(
+                LocalVariableNode(
+                    variable.name, variable.desc, variable.signature, labels[variable.start], labels[variable.end], variable.index + shift
+                )
+            )
+        }
+        copy.maxLocals = method.maxLocals + shift
+        copy.maxStack = method.maxStack + 2
+
+        copy.accept(
+            OptimizationMethodVisitor(
+                classBuilder.newMethod(JvmDeclarationOrigin.NO_ORIGIN, access, copy.name, copy.desc, null, exceptions),
+                generationState, statistics, access, copy.name, copy.desc, null, exceptions
+            )
+        )
+    }
+
+    companion object {
+        private val OBJECT_TYPE = Type.getObjectType("java/lang/Object")
+    }
+}
@@ -0,0 +1,530 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import org.jetbrains.kotlin.codegen.ClassFileFactory
+import org.jetbrains.kotlin.codegen.optimization.common.*
+import org.jetbrains.kotlin.codegen.optimization.fixStack.peek
+import org.jetbrains.kotlin.codegen.optimization.fixStack.top
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.kotlin.utils.addToStdlib.safeAs
+import org.jetbrains.org.objectweb.asm.ClassReader
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
+import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
+import org.jetbrains.org.objectweb.asm.tree.analysis.SourceInterpreter
+
+class NonEscapingClosuresMethodTransformer(private val generationState: GenerationState) : MethodTransformer() {
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        if (!generationState.scalarizeClosures) return
+
+        Transformer(internalClassName, methodNode, generationState.factory).run()
+    }
+
+    // Tracks usages of closures (lambdas, callable references and anonymous objects) created in the current method.
+    //
+    // A closure instance can be replaced with local variables holding its captured values,
+    // if all of the following conditions are satisfied:
+    //  * Its class is a final class compiled in the current module, named like a lambda or an anonymous object ('...$<number>'),
+    //      without a static initializer.
+    //  * Its constructor only stores parameters to fields and calls the super constructor with constant arguments.
+    //  * The only permitted operations on it are:
+    //      - ALOAD, ASTORE
+    //      - DUP, POP, SWAP
+    //      - CHECKCAST to its class or one of its supertypes
+    //      - INVOKESPECIAL <init>
+    //      - calls of methods declared in its class with the closure as a receiver
+    //  * The called methods use 'this' only to read the fields initialized in the constructor
+    //      and to call other methods declared in the class, and don't refer to the class otherwise.
+    //
+    // Each call is then replaced with a copy of the called method body, where the fields are read from the local variables.
+    // The copied body runs on the operand stack of the call site, and entering an exception handler clears that stack,
+    // so bodies with exception handlers are only copied to calls which have nothing on the stack below the receiver and arguments.
+    // Note that closures passed to non-inline functions escape, so only closures that are invoked locally are affected.
+    //
+    private class ClosureDescriptor(val newInsn: TypeInsnNode, val closureClass: ClosureClass) : ReferenceValueDescriptor {
+        var hazard = false
+
+        var initCallInsn: MethodInsnNode? = null
+        val astoreInsns: MutableCollection<VarInsnNode> = LinkedHashSet()
+        val aloadInsns: MutableCollection<VarInsnNode> = LinkedHashSet()
+        val stackInsns: MutableCollection<AbstractInsnNode> = LinkedHashSet()
+        val callInsns: MutableCollection<MethodInsnNode> = LinkedHashSet()
+        val callInsnsWithValuesBelow: MutableCollection<MethodInsnNode> = HashSet()
+        val localVariables: MutableCollection<LocalVariableNode> = LinkedHashSet()
+
+        fun canRewrite(): Boolean =
+            !hazard && initCallInsn != null
+
+        override fun onUseAsTainted() {
+            hazard = true
+        }
+    }
+
+    private class ClosureClass(val classNode: ClassNode, val constructor: MethodNode, val fieldsByParameter: List<FieldNode?>) {
+        val internalName: String
+            get() = classNode.name
+
+        // Source lines of classes with SMAP (e.g. regenerated during inlining) are only valid together with their SMAP
+        val hasOwnSourceMapping: Boolean
+            get() = classNode.sourceDebug != null
+
+        fun findMethod(name: String, desc: String): MethodNode? =
+            classNode.methods.find { it.name == name && it.desc == desc && it.name != INIT_METHOD_NAME }
+
+        fun isSubtypeOf(internalName: String): Boolean =
+            internalName == classNode.name || internalName == classNode.superName ||
+                    internalName in classNode.interfaces || internalName == AsmTypes.OBJECT_TYPE.internalName
+    }
+
+    private class InlinedBody(
+        val instructions: InsnList,
+        val tryCatchBlocks: List<TryCatchBlockNode>,
+        val localVariables: List<LocalVariableNode>,
+        val size: Int
+    )
+
+    private class Transformer(
+        private val internalClassName: String,
+        private val methodNode: MethodNode,
+        private val classFileFactory: ClassFileFactory
+    ) {
+        private val closures = ArrayList<ClosureDescriptor>()
+        private val closuresByNewInsn = LinkedHashMap<TypeInsnNode, ClosureDescriptor>()
+        private val closureClasses = HashMap<String, ClosureClass?>()
+        private val insns = methodNode.instructions.toArray()
+        private lateinit var frames: Array<out Frame<BasicValue>?>
+
+        fun run() {
+            createClosureValues()
+            if (closures.isEmpty()) return
+
+            analyze()
+            if (closures.isEmpty()) return
+
+            rewrite()
+        }
+
+        private fun AbstractInsnNode.getIndex() = methodNode.instructions.indexOf(this)
+
+        private fun createClosureValues() {
+            for (insn in insns) {
+                if (insn.opcode == Opcodes.NEW && insn is TypeInsnNode) {
+                    if (insn.desc !in closureClasses) {
+                        closureClasses[insn.desc] = loadClosureClass(insn.desc)
+                    }
+                    val closureClass = closureClasses[insn.desc] ?: continue
+                    val descriptor = ClosureDescriptor(insn, closureClass)
+                    closures.add(descriptor)
+                    closuresByNewInsn[insn] = descriptor
+                }
+            }
+        }
+
+        private fun loadClosureClass(internalName: String): ClosureClass? {
+            // Only classes which are generated completely before the method that creates them (and never by the class itself)
+            val suffix = internalName.substringAfterLast('$', "")
+            if (suffix.isEmpty() || !suffix.all(Char::isDigit)) return null
+
+            val bytes = classFileFactory.get("$internalName.class")?.asByteArray() ?: return null
+            val classNode = ClassNode().also { ClassReader(bytes).accept(it, ClassReader.SKIP_FRAMES) }
+
+            if (classNode.access and Opcodes.ACC_FINAL == 0) return null
+            if (classNode.methods.any { it.name == CLASS_INIT_METHOD_NAME }) return null
+
+            val constructor = classNode.methods.singleOrNull { it.name == INIT_METHOD_NAME } ?: return null
+            val fieldsByParameter = mapConstructorParameters(classNode, constructor) ?: return null
+
+            return ClosureClass(classNode, constructor, fieldsByParameter)
+        }
+
+        // Returns fields initialized from the constructor parameters, or null if the constructor does anything else
+        private fun mapConstructorParameters(classNode: ClassNode, constructor: MethodNode): List<FieldNode?>? {
+            val parameterTypes = Type.getArgumentTypes(constructor.desc)
+            val parameterBySlot = HashMap<Int, Int>()
+            var slot = 1
+            parameterTypes.forEachIndexed { index, type ->
+                parameterBySlot[slot] = index
+                slot += type.size
+            }
+
+            val fieldsByParameter = arrayOfNulls<FieldNode>(parameterTypes.size)
+            var isSuperConstructorCalled = false
+
+            val constructorInsns = constructor.instructions.asSequence().filter { it.isMeaningful }.toList()
+            var i = 0
+            while (i < constructorInsns.size) {
+                val insn = constructorInsns[i]
+                if (insn.opcode == Opcodes.RETURN && i == constructorInsns.lastIndex) {
+                    return if (isSuperConstructorCalled) fieldsByParameter.asList() else null
+                }
+                if (insn.opcode != Opcodes.ALOAD || (insn as VarInsnNode).`var` != 0) return null
+
+                val load = constructorInsns.getOrNull(i + 1)
+                val putField = constructorInsns.getOrNull(i + 2)
+                if (load is VarInsnNode && load.isLoadOperation() &&
+                    putField is FieldInsnNode && putField.opcode == Opcodes.PUTFIELD && putField.owner == classNode.name
+                ) {
+                    val parameter = parameterBySlot[load.`var`] ?: return null
+                    val field = classNode.fields.find { it.name == putField.name && it.desc == putField.desc } ?: return null
+                    if (fieldsByParameter[parameter] != null || field in fieldsByParameter) return null
+                    fieldsByParameter[parameter] = field
+                    i += 3
+                    continue
+                }
+
+                var callIndex = i + 1
+                while (callIndex < constructorInsns.size && constructorInsns[callIndex].opcode in Opcodes.ACONST_NULL..Opcodes.LDC) {
+                    callIndex++
+                }
+                val call = constructorInsns.getOrNull(callIndex) as? MethodInsnNode ?: return null
+                if (isSuperConstructorCalled || call.opcode != Opcodes.INVOKESPECIAL ||
+                    call.owner != classNode.superName || call.owner !in CLOSURE_SUPER_CLASSES || call.name != INIT_METHOD_NAME
+                ) return null
+                isSuperConstructorCalled = true
+                i = callIndex + 1
+            }
+
+            return null
+        }
+
+        private inner class Interpreter : ReferenceTrackingInterpreter() {
+            override fun newOperation(insn: AbstractInsnNode): BasicValue =
+                closuresByNewInsn[insn]?.let { descriptor ->
+                    ProperTrackedReferenceValue(Type.getObjectType(descriptor.newInsn.desc), descriptor)
+                }
+                        ?: super.newOperation(insn)
+
+            override fun unaryOperation(insn: AbstractInsnNode, value: BasicValue): BasicValue? =
+                if (insn.opcode == Opcodes.CHECKCAST && value is ProperTrackedReferenceValue) {
+                    checkRefValuesUsages(insn, listOf(value))
+                    value
+                } else {
+                    super.unaryOperation(insn, value)
+                }
+
+            override fun processRefValueUsage(value: TrackedReferenceValue, insn: AbstractInsnNode, position: Int) {
+                for (descriptor in value.descriptors) {
+                    if (descriptor !is ClosureDescriptor) throw AssertionError("Unexpected descriptor: $descriptor")
+                    val closureClass = descriptor.closureClass
+                    when {
+                        insn.opcode == Opcodes.ALOAD ->
+                            descriptor.aloadInsns.add(insn as VarInsnNode)
+                        insn.opcode == Opcodes.ASTORE ->
+                            descriptor.astoreInsns.add(insn as VarInsnNode)
+                        insn.opcode == Opcodes.DUP || insn.opcode == Opcodes.SWAP ->
+                            descriptor.stackInsns.add(insn)
+                        insn.opcode == Opcodes.CHECKCAST && closureClass.isSubtypeOf((insn as TypeInsnNode).desc) ->
+                            descriptor.stackInsns.add(insn)
+                        insn.opcode == Opcodes.INVOKESPECIAL && insn is MethodInsnNode && insn.name == INIT_METHOD_NAME && position == 0 ->
+                            if (insn.owner != closureClass.internalName || insn.desc != closureClass.constructor.desc ||
+                                descriptor.initCallInsn != null && descriptor.initCallInsn != insn
+                            )
+                                descriptor.hazard = true
+                            else
+                                descriptor.initCallInsn = insn
+                        (insn.opcode == Opcodes.INVOKEVIRTUAL || insn.opcode == Opcodes.INVOKEINTERFACE) &&
+                                insn is MethodInsnNode && position == 0 && closureClass.findMethod(insn.name, insn.desc) != null ->
+                            descriptor.callInsns.add(insn)
+                        else ->
+                            descriptor.hazard = true
+                    }
+                }
+            }
+        }
+
+        private fun analyze() {
+            frames = MethodTransformer.analyze(internalClassName, methodNode, Interpreter())
+            trackPops()
+            trackSwaps()
+            findCallsWithValuesBelow()
+            assignLocalVars()
+
+            closures.removeAll { !it.canRewrite() }
+        }
+
+        private fun trackPops() {
+            for (i in insns.indices) {
+                val frame = frames[i] ?: continue
+                val insn = insns[i]
+
+                when (insn.opcode) {
+                    Opcodes.POP -> {
+                        frame.top()?.getClosureOrNull()?.run { stackInsns.add(insn) }
+                    }
+                    Opcodes.POP2 -> {
+                        val top = frame.top()
+                        if (top?.size == 1) {
+                            top.getClosureOrNull()?.hazard = true
+                            frame.peek(1)?.getClosureOrNull()?.hazard = true
+                        }
+                    }
+                }
+            }
+        }
+
+        // SWAP of two closures can't be removed together with one of them
+        private fun trackSwaps() {
+            for (i in insns.indices) {
+                val frame = frames[i] ?: continue
+                if (insns[i].opcode != Opcodes.SWAP) continue
+
+                val first = frame.top()?.getClosureOrNull() ?: continue
+                val second = frame.peek(1)?.getClosureOrNull() ?: continue
+                first.hazard = true
+                second.hazard = true
+            }
+        }
+
+        private fun findCallsWithValuesBelow() {
+            for (closure in closures) {
+                for (callInsn in closure.callInsns) {
+                    val frame = frames[callInsn.getIndex()] ?: continue
+                    if (frame.stackSize > Type.getArgumentTypes(callInsn.desc).size + 1) {
+                        closure.callInsnsWithValuesBelow.add(callInsn)
+                    }
+                }
+            }
+        }
+
+        private fun BasicValue.getClosureOrNull() =
+            safeAs<ProperTrackedReferenceValue>()?.descriptor?.safeAs<ClosureDescriptor>()
+
+        private fun assignLocalVars() {
+            for (localVar in methodNode.localVariables) {
+                val startFrame = frames[localVar.start.getIndex()] ?: continue
+                val descriptor = startFrame.getLocal(localVar.index).getClosureOrNull() ?: continue
+                descriptor.localVariables.add(localVar)
+            }
+        }
+
+        private fun rewrite() {
+            var changed = false
+            for (closure in closures) {
+                if (rewriteClosure(closure)) {
+                    changed = true
+                }
+            }
+
+            if (changed) {
+                methodNode.removeEmptyCatchBlocks()
+                methodNode.removeUnusedLocalVariables()
+            }
+        }
+
+        private fun rewriteClosure(closure: ClosureDescriptor): Boolean {
+            val closureClass = closure.closureClass
+            val maxLocalsBefore = methodNode.maxLocals
+
+            val fieldLocals = HashMap<String, Int>()
+            for (field in closureClass.fieldsByParameter.filterNotNull()) {
+                fieldLocals[field.name] = methodNode.maxLocals
+                methodNode.maxLocals += Type.getType(field.desc).size
+            }
+
+            val inlinedCalls = LinkedHashMap<MethodInsnNode, InlinedBody>()
+            var inlinedSize = 0
+            for (callInsn in closure.callInsns) {
+                val method = closureClass.findMethod(callInsn.name, callInsn.desc)!!
+                val body = inlineMethodBody(closureClass, method, fieldLocals, 0)
+                inlinedSize += body?.size ?: 0
+                if (body == null || inlinedSize > MAX_INLINED_CLOSURE_SIZE ||
+                    body.tryCatchBlocks.isNotEmpty() && callInsn in closure.callInsnsWithValuesBelow
+                ) {
+                    methodNode.maxLocals = maxLocalsBefore
+                    return false
+                }
+                inlinedCalls[callInsn] = body
+            }
+
+            methodNode.instructions.run {
+                remove(closure.newInsn)
+                closure.stackInsns.forEach { remove(it) }
+                closure.aloadInsns.forEach { remove(it) }
+                closure.astoreInsns.forEach { remove(it) }
+
+                val initCallInsn = closure.initCallInsn!!
+                val parameterTypes = Type.getArgumentTypes(initCallInsn.desc)
+                for (index in parameterTypes.indices.reversed()) {
+                    val field = closureClass.fieldsByParameter[index]
+                    insertBefore(
+                        initCallInsn,
+                        if (field != null)
+                            VarInsnNode(parameterTypes[index].getOpcode(Opcodes.ISTORE), fieldLocals[field.name]!!)
+                        else
+                            InsnNode(if (parameterTypes[index].size == 2) Opcodes.POP2 else Opcodes.POP)
+                    )
+                }
+                remove(initCallInsn)
+
+                for ((callInsn, body) in inlinedCalls) {
+                    val callLineNumber = callInsn.findPreviousOrNull { it is LineNumberNode } as LineNumberNode?
+                    insertBefore(callInsn, body.instructions)
+                    // Code after the call belongs to the line of the call, not to the last line of the inlined body
+                    if (callLineNumber != null && !closureClass.hasOwnSourceMapping) {
+                        val label = LabelNode()
+                        insertBefore(callInsn, label)
+                        insertBefore(callInsn, LineNumberNode(callLineNumber.line, label))
+                    }
+                    remove(callInsn)
+                }
+            }
+
+            methodNode.tryCatchBlocks.addAll(0, inlinedCalls.values.flatMap { it.tryCatchBlocks })
+            methodNode.localVariables.removeAll(closure.localVariables)
+            methodNode.localVariables.addAll(inlinedCalls.values.flatMap { it.localVariables })
+
+            return true
+        }
+
+        // Returns a copy of the body of [method] which takes the arguments of the call from the stack and leaves the result on it
+        private fun inlineMethodBody(
+            closureClass: ClosureClass,
+            method: MethodNode,
+            fieldLocals: Map<String, Int>,
+            depth: Int
+        ): InlinedBody? {
+            if (depth > MAX_INLINING_DEPTH) return null
+            if (method.access and NOT_INLINABLE_METHOD_FLAGS != 0) return null
+
+            val closureClassName = closureClass.internalName
+            val methodInsns = method.instructions.toArray()
+            val methodFrames = MethodTransformer.analyze(closureClassName, method, SourceInterpreter())
+
+            val thisFieldReads = HashSet<FieldInsnNode>()
+            val thisCalls = HashMap<MethodInsnNode, MethodNode>()
+            val thisReceivers = HashSet<AbstractInsnNode>()
+
+            fun AbstractInsnNode?.isThisLoad() = this is VarInsnNode && this.opcode == Opcodes.ALOAD && this.`var` == 0
+
+            for ((index, insn) in methodInsns.withIndex()) {
+                val frame = methodFrames[index] ?: continue
+                when {
+                    insn is VarInsnNode && insn.`var` == 0 ->
+                        if (insn.opcode != Opcodes.ALOAD) return null
+                    insn is IincInsnNode && insn.`var` == 0 ->
+                        return null
+                    insn is FieldInsnNode && insn.owner == closureClassName -> {
+                        if (insn.opcode != Opcodes.GETFIELD || insn.name !in fieldLocals) return null
+                        val receiver = frame.top()!!.insns.singleOrNull()
+                        if (!receiver.isThisLoad()) return null
+                        thisFieldReads.add(insn)
+                        thisReceivers.add(receiver!!)
+                    }
+                    insn is MethodInsnNode && insn.owner == closureClassName -> {
+                        if (insn.opcode != Opcodes.INVOKEVIRTUAL && insn.opcode != Opcodes.INVOKESPECIAL) return null
+                        val callee = closureClass.findMethod(insn.name, insn.desc) ?: return null
+                        val receiver = frame.peek(Type.getArgumentTypes(insn.desc).size)!!.insns.singleOrNull()
+                        if (!receiver.isThisLoad()) return null
+                        thisCalls[insn] = callee
+                        thisReceivers.add(receiver!!)
+                    }
+                    insn is TypeInsnNode && insn.desc == closureClassName ->
+                        return null
+                    insn is LdcInsnNode && (insn.cst as? Type)?.internalName == closureClassName ->
+                        return null
+                    insn.opcode in Opcodes.IRETURN..Opcodes.ARETURN ->
+                        if (frame.stackSize != 1) return null
+                    insn.opcode == Opcodes.RETURN ->
+                        if (frame.stackSize != 0) return null
+                }
+            }
+
+            // Any other use of 'this' means that the closure instance is needed
+            val hasOtherThisUsages = methodInsns.withIndex().any { (index, insn) ->
+                methodFrames[index] != null && insn.isThisLoad() && insn !in thisReceivers
+            }
+            if (hasOtherThisUsages) return null
+
+            val localsBase = methodNode.maxLocals
+            methodNode.maxLocals += method.maxLocals
+
+            val labels = HashMap<LabelNode, LabelNode>()
+            methodInsns.filterIsInstance<LabelNode>().forEach { labels[it] = LabelNode() }
+            val endLabel = LabelNode()
+
+            val instructions = InsnList()
+            val tryCatchBlocks = arrayListOf<TryCatchBlockNode>()
+            val localVariables = arrayListOf<LocalVariableNode>()
+            var size = 0
+
+            val argumentTypes = Type.getArgumentTypes(method.desc)
+            var argumentSlot = 1 + argumentTypes.sumBy { it.size }
+            for (type in argumentTypes.reversed()) {
+                argumentSlot -= type.size
+                instructions.add(VarInsnNode(type.getOpcode(Opcodes.ISTORE), localsBase + argumentSlot))
+            }
+
+            for ((index, insn) in methodInsns.withIndex()) {
+                if (insn.isMeaningful) {
+                    // Unreachable code is dropped, it may use 'this' in any way
+                    if (methodFrames[index] == null) continue
+                    size++
+                }
+
+                when {
+                    insn in thisReceivers -> {
+                    }
+                    insn is FieldInsnNode && insn in thisFieldReads ->
+                        instructions.add(VarInsnNode(Type.getType(insn.desc).getOpcode(Opcodes.ILOAD), fieldLocals[insn.name]!!))
+                    insn is MethodInsnNode && insn in thisCalls -> {
+                        val callee = inlineMethodBody(closureClass, thisCalls[insn]!!, fieldLocals, depth + 1) ?: return null
+                        instructions.add(callee.instructions)
+                        tryCatchBlocks.addAll(callee.tryCatchBlocks)
+                        localVariables.addAll(callee.localVariables)
+                        size += callee.size
+                    }
+                    insn is VarInsnNode ->
+                        instructions.add(VarInsnNode(insn.opcode, localsBase + insn.`var`))
+                    insn is IincInsnNode ->
+                        instructions.add(IincInsnNode(localsBase + insn.`var`, insn.incr))
+                    insn.opcode in Opcodes.IRETURN..Opcodes.RETURN ->
+                        instructions.add(JumpInsnNode(Opcodes.GOTO, endLabel))
+                    insn is LineNumberNode ->
+                        if (!closureClass.hasOwnSourceMapping) instructions.add(insn.clone(labels))
+                    insn is FrameNode -> {
+                    }
+                    else ->
+                        instructions.add(insn.clone(labels))
+                }
+            }
+            instructions.add(endLabel)
+
+            // Handlers of the inlined callees are more specific, so they go first
+            method.tryCatchBlocks.mapTo(tryCatchBlocks) {
+                TryCatchBlockNode(labels[it.start], labels[it.end], labels[it.handler], it.type)
+            }
+            method.localVariables?.filter { it.index != 0 }?.mapTo(localVariables) {
+                LocalVariableNode(it.name, it.desc, it.signature, labels[it.start], labels[it.end], localsBase + it.index)
+            }
+
+            return InlinedBody(instructions, tryCatchBlocks, localVariables, size)
+        }
+    }
+
+    companion object {
+        // Calls are replaced with copies of the closure code, so big closures are kept as is
+        private const val MAX_INLINED_CLOSURE_SIZE = 100
+
+        // Enough for a bridge calling the actual 'invoke'
+        private const val MAX_INLINING_DEPTH = 2
+
+        private const val CLASS_INIT_METHOD_NAME = "<clinit>"
+
+        private const val NOT_INLINABLE_METHOD_FLAGS =
+            Opcodes.ACC_STATIC or Opcodes.ACC_ABSTRACT or Opcodes.ACC_NATIVE or Opcodes.ACC_SYNCHRONIZED
+
+        private val CLOSURE_SUPER_CLASSES = setOf(
+            AsmTypes.LAMBDA.internalName,
+            AsmTypes.FUNCTION_REFERENCE.internalName,
+            AsmTypes.OBJECT_TYPE.internalName
+        )
+    }
+}
@@ -27,6 +27,7 @@ import org.jetbrains.org.objectweb.asm.MethodVisitor;
 public class OptimizationClassBuilder extends DelegatingClassBuilder {
     private final ClassBuilder delegate;
     private final GenerationState generationState;
+    private InlineClassHelperSpecializer inlineClassHelperSpecializer;
 
     public OptimizationClassBuilder(@NotNull ClassBuilder delegate, @NotNull GenerationState generationState) {
         this.delegate = delegate;
@@ -49,9 +50,31 @@ public class OptimizationClassBuilder extends DelegatingClassBuilder {
             @Nullable String signature,
             @Nullable String[] exceptions
     ) {
+        OptimizationStatistics optimizationStatistics = generationState.getOptimizationStatistics();
+        OptimizationStatistics.ClassStatistics statistics =
+                optimizationStatistics != null ? optimizationStatistics.forClass(getThisName()) : null;
+
+        MethodVisitor methodVisitor;
+        if (generationState.getSpecializeForInlineClasses() && !generationState.getDisableOptimization()) {
+            if (inlineClassHelperSpecializer == null) {
+                inlineClassHelperSpecializer = new InlineClassHelperSpecializer(delegate, generationState, statistics);
+            }
+            methodVisitor = inlineClassHelperSpecializer.newMethod(origin, access, name, desc, signature, exceptions);
+        }
+        else {
+            methodVisitor = super.newMethod(origin, access, name, desc, signature, exceptions);
+        }
+
         return new OptimizationMethodVisitor(
-                super.newMethod(origin, access, name, desc, signature, exceptions),
-                generationState, access, name, desc, signature, exceptions
+                methodVisitor, generationState, statistics, access, name, desc, signature, exceptions
         );
     }
+
+    @Override
+    public void done() {
+        if (inlineClassHelperSpecializer != null) {
+            inlineClassHelperSpecializer.done();
+        }
+        super.done();
+    }
 }
@@ -17,6 +17,7 @@
 package org.jetbrains.kotlin.codegen.optimization
 
 import org.jetbrains.kotlin.codegen.TransformationMethodVisitor
+import org.jetbrains.kotlin.codegen.optimization.boxing.NullableBoxedLocalsMethodTransformer
 import org.jetbrains.kotlin.codegen.optimization.boxing.PopBackwardPropagationTransformer
 import org.jetbrains.kotlin.codegen.optimization.boxing.RedundantBoxingMethodTransformer
 import org.jetbrains.kotlin.codegen.optimization.boxing.StackPeepholeOptimizationsTransformer
@@ -30,6 +31,7 @@ import org.jetbrains.org.objectweb.asm.tree.MethodNode
 class OptimizationMethodVisitor(
     delegate: MethodVisitor,
     private val generationState: GenerationState,
+    statistics: OptimizationStatistics.ClassStatistics?,
     access: Int,
     name: String,
     desc: String,
@@ -45,11 +47,13 @@ class OptimizationMethodVisitor(
     )
 
     val optimizationTransformer = CompositeMethodTransformer(
+        NonEscapingClosuresMethodTransformer(generationState),
         CapturedVarsOptimizationMethodTransformer(),
         RedundantNullCheckMethodTransformer(generationState),
         RedundantCheckCastEliminationMethodTransformer(),
         ConstantConditionEliminationMethodTransformer(),
-        RedundantBoxingMethodTransformer(generationState),
+        NullableBoxedLocalsMethodTransformer(generationState, statistics),
+        RedundantBoxingMethodTransformer(generationState, statistics),
         StackPeepholeOptimizationsTransformer(),
         PopBackwardPropagationTransformer(),
         DeadCodeEliminationMethodTransformer(),
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Counts instructions removed by bytecode optimizations in each class, so that their impact on the generated code can be measured.
+ * Collected with -Xreport-optimization-statistics and reported after code generation.
+ */
+class OptimizationStatistics {
+    // Optimization -> internal class name -> count
+    private val counters = ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicInteger>>()
+
+    fun forClass(internalClassName: String) = ClassStatistics(internalClassName)
+
+    inner class ClassStatistics(private val internalClassName: String) {
+        fun record(optimization: String, count: Int) {
+            if (count == 0) return
+            counters.getOrPut(optimization) { ConcurrentHashMap() }.getOrPut(internalClassName) { AtomicInteger() }.addAndGet(count)
+        }
+    }
+
+    fun render(): String = buildString {
+        for (optimization in counters.keys.sorted()) {
+            val countsByClass = counters[optimization]!!.entries.sortedBy { it.key }
+            appendln("$optimization: ${countsByClass.sumBy { it.value.get() }} in ${countsByClass.size} class(es)")
+            for ((internalClassName, count) in countsByClass) {
+                appendln("  $internalClassName: ${count.get()}")
+            }
+        }
+    }.trimEnd()
+
+    companion object {
+        const val REMOVED_BOXING = "Removed boxing operations"
+        const val REMOVED_PARAMETER_NULL_CHECKS = "Removed parameter null checks"
+    }
+}
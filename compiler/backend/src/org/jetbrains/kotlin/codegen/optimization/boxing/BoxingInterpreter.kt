@@ -223,12 +223,12 @@ fun AbstractInsnNode.isJavaLangClassBoxing() =
                 desc == JLCLASS_TO_KCLASS
     }
 
-private fun AbstractInsnNode.isInlineClassBoxing(state: GenerationState) =
+fun AbstractInsnNode.isInlineClassBoxing(state: GenerationState) =
     isMethodInsnWith(Opcodes.INVOKESTATIC) {
         isInlineClassBoxingMethodDescriptor(state)
     }
 
-private fun AbstractInsnNode.isInlineClassUnboxing(state: GenerationState) =
+fun AbstractInsnNode.isInlineClassUnboxing(state: GenerationState) =
     isMethodInsnWith(Opcodes.INVOKEVIRTUAL) {
         isInlineClassUnboxingMethodDescriptor(state)
     }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.boxing
+
+import org.jetbrains.kotlin.codegen.AsmUtil
+import org.jetbrains.kotlin.codegen.optimization.OptimizationStatistics
+import org.jetbrains.kotlin.codegen.optimization.transformer.MethodTransformer
+import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Opcodes
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.tree.*
+
+/**
+ * Stores local variables of nullable primitive types, e.g. `var max: Int? = null`, as a primitive value and an `is null` flag
+ * when the variable is only assigned `null` or a just boxed value, and its value is only checked for `null` or unboxed.
+ * [RedundantBoxingMethodTransformer] can't handle such variables, because a boxed value merges with `null` in them.
+ *
+ * A variable that is `null` has the default primitive value in the debugger.
+ */
+class NullableBoxedLocalsMethodTransformer(
+    private val generationState: GenerationState,
+    private val statistics: OptimizationStatistics.ClassStatistics?
+) : MethodTransformer() {
+    private class Candidate(val boxedType: Type, val stores: List<VarInsnNode>, val loads: List<VarInsnNode>) {
+        val unboxedType: Type = AsmUtil.unboxType(boxedType)
+    }
+
+    override fun transform(internalClassName: String, methodNode: MethodNode) {
+        if (!generationState.optimizeNullablePrimitiveLocals) return
+
+        val candidates = findCandidates(methodNode)
+        val removedBoxingCount = candidates.values.sumBy { candidate ->
+            candidate.stores.count { it.previous.opcode != Opcodes.ACONST_NULL }
+        }
+
+        for ((index, candidate) in candidates) {
+            rewriteVariable(methodNode, index, candidate)
+        }
+
+        statistics?.record(OptimizationStatistics.REMOVED_BOXING, removedBoxingCount)
+    }
+
+    private fun findCandidates(methodNode: MethodNode): Map<Int, Candidate> {
+        val isStatic = methodNode.access and Opcodes.ACC_STATIC != 0
+        val firstLocalIndex = (Type.getArgumentsAndReturnSizes(methodNode.desc) shr 2) - (if (isStatic) 1 else 0)
+
+        val stores = HashMap<Int, MutableList<VarInsnNode>>()
+        val loads = HashMap<Int, MutableList<VarInsnNode>>()
+        for (insn in methodNode.instructions.toArray()) {
+            if (insn !is VarInsnNode || insn.`var` < firstLocalIndex) continue
+            when (insn.opcode) {
+                Opcodes.ASTORE -> stores.getOrPut(insn.`var`) { arrayListOf() }.add(insn)
+                Opcodes.ALOAD -> loads.getOrPut(insn.`var`) { arrayListOf() }.add(insn)
+            }
+        }
+
+        val candidates = LinkedHashMap<Int, Candidate>()
+        for ((index, variableStores) in stores) {
+            // Variables that are never `null` are handled by RedundantBoxingMethodTransformer
+            if (variableStores.none { it.previous?.opcode == Opcodes.ACONST_NULL }) continue
+
+            val boxingInsns = variableStores.map { it.previous }.filter { it?.opcode != Opcodes.ACONST_NULL }
+            if (boxingInsns.isEmpty() || boxingInsns.any { it == null || !it.isPrimitiveBoxing() }) continue
+
+            val boxedType = Type.getObjectType((boxingInsns.first() as MethodInsnNode).owner)
+            if (boxingInsns.any { (it as MethodInsnNode).owner != boxedType.internalName }) continue
+
+            val candidate = Candidate(boxedType, variableStores, loads[index].orEmpty())
+            if (candidate.loads.all { isSupportedLoad(it, candidate) }) {
+                candidates[index] = candidate
+            }
+        }
+        return candidates
+    }
+
+    // The loaded value should only be checked for `null` or unboxed
+    private fun isSupportedLoad(load: VarInsnNode, candidate: Candidate): Boolean {
+        val use = load.next?.skipCheckCast(candidate) ?: return false
+        return use.opcode == Opcodes.IFNULL || use.opcode == Opcodes.IFNONNULL || use.isUnboxingTo(candidate.unboxedType)
+    }
+
+    private fun AbstractInsnNode.skipCheckCast(candidate: Candidate): AbstractInsnNode? {
+        if (opcode != Opcodes.CHECKCAST) return this
+        val castType = Type.getObjectType((this as TypeInsnNode).desc)
+        val isCastToSupertype = castType == candidate.boxedType || castType == AsmTypes.OBJECT_TYPE ||
+                castType == NUMBER_TYPE && candidate.unboxedType.sort != Type.BOOLEAN && candidate.unboxedType.sort != Type.CHAR
+        return if (isCastToSupertype) next else null
+    }
+
+    private fun AbstractInsnNode.isUnboxingTo(unboxedType: Type) =
+        isPrimitiveUnboxing() && Type.getReturnType((this as MethodInsnNode).desc) == unboxedType
+
+    private fun rewriteVariable(methodNode: MethodNode, index: Int, candidate: Candidate) {
+        val unboxedType = candidate.unboxedType
+        val valueIndex = methodNode.maxLocals
+        val isNullIndex = valueIndex + unboxedType.size
+        methodNode.maxLocals = isNullIndex + 1
+
+        val instructions = methodNode.instructions
+        for (store in candidate.stores) {
+            val previous = store.previous
+            val isNull = previous.opcode == Opcodes.ACONST_NULL
+            if (isNull) {
+                instructions.set(previous, InsnNode(zeroOpcode(unboxedType)))
+            } else {
+                instructions.remove(previous)
+            }
+            instructions.insert(store, VarInsnNode(Opcodes.ISTORE, isNullIndex))
+            instructions.insert(store, InsnNode(if (isNull) Opcodes.ICONST_1 else Opcodes.ICONST_0))
+            instructions.set(store, VarInsnNode(unboxedType.getOpcode(Opcodes.ISTORE), valueIndex))
+        }
+
+        for (load in candidate.loads) {
+            if (load.next.opcode == Opcodes.CHECKCAST) {
+                instructions.remove(load.next)
+            }
+            val use = load.next
+            when (use.opcode) {
+                Opcodes.IFNULL, Opcodes.IFNONNULL -> {
+                    val label = (use as JumpInsnNode).label
+                    instructions.set(use, JumpInsnNode(if (use.opcode == Opcodes.IFNULL) Opcodes.IFNE else Opcodes.IFEQ, label))
+                    instructions.set(load, VarInsnNode(Opcodes.ILOAD, isNullIndex))
+                }
+                else -> {
+                    instructions.remove(use)
+                    instructions.set(load, VarInsnNode(unboxedType.getOpcode(Opcodes.ILOAD), valueIndex))
+                }
+            }
+        }
+
+        for (localVariable in methodNode.localVariables.orEmpty()) {
+            if (localVariable.index == index && Type.getType(localVariable.desc).sort == Type.OBJECT) {
+                localVariable.index = valueIndex
+                localVariable.desc = unboxedType.descriptor
+            }
+        }
+    }
+
+    private fun zeroOpcode(type: Type): Int =
+        when (type.sort) {
+            Type.LONG -> Opcodes.LCONST_0
+            Type.FLOAT -> Opcodes.FCONST_0
+            Type.DOUBLE -> Opcodes.DCONST_0
+            else -> Opcodes.ICONST_0
+        }
+
+    companion object {
+        private val NUMBER_TYPE = Type.getObjectType("java/lang/Number")
+    }
+}
@@ -20,6 +20,7 @@ import com.intellij.openapi.util.Pair
 import org.jetbrains.kotlin.codegen.inline.insnOpcodeText
 import org.jetbrains.kotlin.codegen.inline.insnText
 import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods
+import org.jetbrains.kotlin.codegen.optimization.OptimizationStatistics
 import org.jetbrains.kotlin.codegen.optimization.common.StrictBasicValue
 import org.jetbrains.kotlin.codegen.optimization.common.remapLocalVariables
 import org.jetbrains.kotlin.codegen.optimization.fixStack.peek
@@ -35,7 +36,10 @@ import org.jetbrains.org.objectweb.asm.tree.analysis.BasicValue
 import org.jetbrains.org.objectweb.asm.tree.analysis.Frame
 import java.util.*
 
-class RedundantBoxingMethodTransformer(private val generationState: GenerationState) : MethodTransformer() {
+class RedundantBoxingMethodTransformer(
+    private val generationState: GenerationState,
+    private val statistics: OptimizationStatistics.ClassStatistics?
+) : MethodTransformer() {
 
     override fun transform(internalClassName: String, node: MethodNode) {
         val interpreter = RedundantBoxingInterpreter(node.instructions, generationState)
@@ -54,6 +58,8 @@ class RedundantBoxingMethodTransformer(private val generationState: GenerationSt
             node.remapLocalVariables(buildVariablesRemapping(valuesToOptimize, node))
 
             adaptInstructionsForBoxedValues(node, valuesToOptimize)
+
+            statistics?.record(OptimizationStatistics.REMOVED_BOXING, valuesToOptimize.count { !it.isFromProgressionIterator() })
         }
     }
 
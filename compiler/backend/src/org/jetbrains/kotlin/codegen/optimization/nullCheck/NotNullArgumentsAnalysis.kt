@@ -0,0 +1,123 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.optimization.nullCheck
+
+import org.jetbrains.kotlin.descriptors.*
+import org.jetbrains.kotlin.psi.*
+import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.calls.callUtil.getResolvedCall
+import org.jetbrains.kotlin.resolve.calls.model.DefaultValueArgument
+import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall
+import org.jetbrains.kotlin.resolve.calls.model.VarargValueArgument
+import org.jetbrains.kotlin.resolve.descriptorUtil.isPublishedApi
+import org.jetbrains.kotlin.resolve.scopes.receivers.ExpressionReceiver
+import org.jetbrains.kotlin.types.KotlinType
+import org.jetbrains.kotlin.types.TypeUtils
+import org.jetbrains.kotlin.types.isFlexible
+
+/**
+ * Finds internal functions of the module which are only called with non-null arguments for their non-null parameters,
+ * so that parameter assertions can be omitted in them (see -Xeliminate-internal-parameter-checks).
+ *
+ * Only calls in Kotlin sources of the module are analyzed: calls from Java sources, friend modules and reflection are not checked
+ * and would fail later than at the function entry if they pass `null`.
+ * Overridable, operator and `@PublishedApi` functions, functions with default arguments and functions used in callable references
+ * are never affected.
+ */
+class NotNullArgumentsAnalysis(private val bindingContext: BindingContext, files: Collection<KtFile>) {
+    // Functions with at least one call which can pass `null` to a non-null parameter
+    private val functionsWithNullableArguments = HashSet<FunctionDescriptor>()
+
+    init {
+        val visitedCalls = HashSet<ResolvedCall<*>>()
+        for (file in files) {
+            file.accept(object : KtTreeVisitorVoid() {
+                override fun visitExpression(expression: KtExpression) {
+                    super.visitExpression(expression)
+
+                    val resolvedCall = expression.getResolvedCall(bindingContext) ?: return
+                    if (visitedCalls.add(resolvedCall)) {
+                        analyzeCall(resolvedCall)
+                    }
+                }
+            })
+        }
+    }
+
+    fun hasOnlyNotNullArguments(descriptor: FunctionDescriptor): Boolean =
+        isCandidate(descriptor) && descriptor.original !in functionsWithNullableArguments
+
+    private fun isCandidate(descriptor: FunctionDescriptor): Boolean {
+        if (descriptor !is SimpleFunctionDescriptor || descriptor.kind != CallableMemberDescriptor.Kind.DECLARATION) return false
+        if (descriptor.isOperator || descriptor.isSuspend || descriptor.isExpect) return false
+        if (descriptor.modality != Modality.FINAL || descriptor.overriddenDescriptors.isNotEmpty()) return false
+        if (descriptor.valueParameters.any { it.declaresDefaultValue() } || descriptor.isPublishedApi()) return false
+
+        // Members of internal and private classes are effectively internal even if they are public
+        val containingClass = descriptor.containingDeclaration as? ClassDescriptor
+        return !effectiveVisibility(descriptor.visibility, descriptor, checkPublishedApi = true).publicApi ||
+                containingClass != null && !containingClass.effectiveVisibility(checkPublishedApi = true).publicApi
+    }
+
+    private fun analyzeCall(resolvedCall: ResolvedCall<*>) {
+        val function = resolvedCall.resultingDescriptor.original as? FunctionDescriptor ?: return
+        if (!isCandidate(function)) return
+
+        if (!hasOnlyNotNullArguments(resolvedCall, function)) {
+            functionsWithNullableArguments.add(function)
+        }
+    }
+
+    private fun hasOnlyNotNullArguments(resolvedCall: ResolvedCall<*>, function: FunctionDescriptor): Boolean {
+        val call = resolvedCall.call
+        // Callable references can be invoked with any arguments
+        if (call.callElement is KtCallableReferenceExpression || call.callElement.parent is KtCallableReferenceExpression) return false
+
+        val receiverParameter = function.extensionReceiverParameter
+        if (receiverParameter != null && !TypeUtils.isNullableType(receiverParameter.type) && !call.isSafeCall()) {
+            val receiver = resolvedCall.extensionReceiver
+            // Implicit receivers, e.g. of lambdas passed to `with` or `apply`, can also have platform types
+            val isReceiverNotNull = when (receiver) {
+                null -> true
+                is ExpressionReceiver -> isNotNull(receiver.expression)
+                else -> isNotNullType(receiver.type)
+            }
+            if (!isReceiverNotNull) return false
+        }
+
+        val valueArguments = resolvedCall.valueArguments
+        if (valueArguments.size != function.valueParameters.size) return false
+
+        for ((parameter, argument) in valueArguments) {
+            if (TypeUtils.isNullableType(function.valueParameters[parameter.index].type)) continue
+
+            when (argument) {
+                is DefaultValueArgument -> return false
+                // A new array is created for the arguments unless they are spread
+                is VarargValueArgument -> if (argument.arguments.any { it.getSpreadElement() != null && !isNotNull(it) }) return false
+                else -> if (argument.arguments.any { !isNotNull(it) }) return false
+            }
+        }
+
+        return true
+    }
+
+    private fun isNotNull(argument: ValueArgument): Boolean {
+        val expression = argument.getArgumentExpression() ?: return false
+        return isNotNull(expression)
+    }
+
+    // Platform types are not checked by the compiler, so their values can be `null`
+    private fun isNotNull(expression: KtExpression): Boolean {
+        if (isNotNullType(bindingContext.getType(expression))) return true
+
+        val smartCast = bindingContext[BindingContext.SMARTCAST, KtPsiUtil.deparenthesize(expression) ?: expression]
+        return isNotNullType(smartCast?.defaultType)
+    }
+
+    private fun isNotNullType(type: KotlinType?) =
+        type != null && !type.isFlexible() && !TypeUtils.isNullableType(type)
+}
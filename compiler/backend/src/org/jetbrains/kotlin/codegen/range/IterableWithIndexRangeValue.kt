@@ -8,6 +8,7 @@ package org.jetbrains.kotlin.codegen.range
 import org.jetbrains.kotlin.codegen.ExpressionCodegen
 import org.jetbrains.kotlin.codegen.range.forLoop.ForLoopGenerator
 import org.jetbrains.kotlin.codegen.range.forLoop.IteratorWithIndexForLoopGenerator
+import org.jetbrains.kotlin.codegen.range.forLoop.ListWithIndexForLoopGenerator
 import org.jetbrains.kotlin.descriptors.CallableDescriptor
 import org.jetbrains.kotlin.psi.KtDestructuringDeclaration
 import org.jetbrains.kotlin.psi.KtForExpression
@@ -21,10 +22,16 @@ class IterableWithIndexRangeValue(rangeCall: ResolvedCall<out CallableDescriptor
         forExpression: KtForExpression,
         loopParameter: KtDestructuringDeclaration,
         rangeCall: ResolvedCall<out CallableDescriptor>
-    ): ForLoopGenerator =
-        IteratorWithIndexForLoopGenerator(
+    ): ForLoopGenerator {
+        val receiverType = rangeCall.extensionReceiver?.type
+        if (codegen.state.indexedListLoops && receiverType != null && isSubtypeOfList(receiverType, codegen.state.module.builtIns)) {
+            return ListWithIndexForLoopGenerator(codegen, forExpression, loopParameter, rangeCall)
+        }
+
+        return IteratorWithIndexForLoopGenerator(
             codegen, forExpression, loopParameter, rangeCall,
             iteratorOwnerType = Type.getType(java.lang.Iterable::class.java)
         )
+    }
 
 }
\ No newline at end of file
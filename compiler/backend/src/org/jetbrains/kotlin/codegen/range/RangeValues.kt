@@ -31,6 +31,7 @@ import org.jetbrains.kotlin.resolve.jvm.AsmTypes
 import org.jetbrains.kotlin.resolve.scopes.receivers.ExpressionReceiver
 import org.jetbrains.kotlin.types.KotlinType
 import org.jetbrains.kotlin.types.checker.KotlinTypeChecker
+import org.jetbrains.kotlin.types.typeUtil.replaceArgumentsWithStarProjections
 import org.jetbrains.org.objectweb.asm.Type
 
 fun ExpressionCodegen.createRangeValueForExpression(rangeExpression: KtExpression): RangeValue {
@@ -70,6 +71,8 @@ fun ExpressionCodegen.createRangeValueForExpression(rangeExpression: KtExpressio
             CharSequenceRangeValue(true, AsmTypes.JAVA_STRING_TYPE)
         isSubtypeOfCharSequence(rangeType, builtIns) && isCharSequenceIteratorCall(loopRangeIteratorResolvedCall) ->
             CharSequenceRangeValue(false, null)
+        state.indexedListLoops && isSubtypeOfList(rangeType, builtIns) && isMemberIteratorCall(loopRangeIteratorResolvedCall) ->
+            ListRangeValue()
         else ->
             IterableRangeValue()
     }
@@ -91,6 +94,9 @@ private fun isSubtypeOfString(type: KotlinType, builtIns: KotlinBuiltIns) =
 private fun isSubtypeOfCharSequence(type: KotlinType, builtIns: KotlinBuiltIns) =
     KotlinTypeChecker.DEFAULT.isSubtypeOf(type, builtIns.getBuiltInClassByName(Name.identifier("CharSequence")).defaultType)
 
+fun isSubtypeOfList(type: KotlinType, builtIns: KotlinBuiltIns) =
+    KotlinTypeChecker.DEFAULT.isSubtypeOf(type, builtIns.list.defaultType.replaceArgumentsWithStarProjections())
+
 private fun getResolvedCallForRangeExpression(
     bindingContext: BindingContext,
     rangeExpression: KtExpression
@@ -155,4 +161,7 @@ private fun ExpressionCodegen.createReversedRangeValueOrNull(rangeCall: Resolved
 }
 
 private fun isCharSequenceIteratorCall(iteratorCall: ResolvedCall<*>?) =
-    iteratorCall?.resultingDescriptor?.let { isCharSequenceIterator(it) } ?: false
\ No newline at end of file
+    iteratorCall?.resultingDescriptor?.let { isCharSequenceIterator(it) } ?: false
+
+private fun isMemberIteratorCall(iteratorCall: ResolvedCall<*>?) =
+    iteratorCall?.resultingDescriptor?.let { it.extensionReceiverParameter == null && it.dispatchReceiverParameter != null } ?: false
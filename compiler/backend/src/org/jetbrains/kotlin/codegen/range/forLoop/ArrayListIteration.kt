@@ -0,0 +1,120 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.range.forLoop
+
+import org.jetbrains.org.objectweb.asm.Label
+import org.jetbrains.org.objectweb.asm.Type
+import org.jetbrains.org.objectweb.asm.commons.InstructionAdapter
+
+/**
+ * Iterates a list by index if its class is exactly [java.util.ArrayList], and with its iterator otherwise.
+ * The loop body is generated once: the iterator variable is `null` when the list is iterated by index.
+ *
+ * Other lists, even those implementing [java.util.RandomAccess], keep using their iterators: subclasses may override `iterator()`,
+ * and lists such as `CopyOnWriteArrayList` or synchronized wrappers rely on their iterators for snapshots or locking.
+ * (`Arrays$ArrayList` would also qualify, but it's private, so its class can't be referenced from the generated code.)
+ *
+ * The size of the list is read once before the loop and checked on each iteration: if it changes, [ConcurrentModificationException]
+ * is thrown, as the iterator of `ArrayList` does. Unlike the iterator, modifications that don't change the size, e.g. an element
+ * added and another one removed in the same iteration, are not detected.
+ */
+internal class ArrayListIteration(
+    private val v: InstructionAdapter,
+    private val listVar: Int,
+    private val iteratorVar: Int,
+    private val indexVar: Int,
+    private val sizeVar: Int
+) {
+    // Expects the list to be stored in listVar
+    fun initialize() {
+        val useIterator = Label()
+        val initialized = Label()
+
+        v.load(listVar, LIST_TYPE)
+        v.invokevirtual(OBJECT_TYPE.internalName, "getClass", "()Ljava/lang/Class;", false)
+        v.aconst(ARRAY_LIST_TYPE)
+        v.ifacmpne(useIterator)
+        v.aconst(null)
+        v.store(iteratorVar, ITERATOR_TYPE)
+        v.load(listVar, LIST_TYPE)
+        v.invokeinterface(LIST_TYPE.internalName, "size", "()I")
+        v.store(sizeVar, Type.INT_TYPE)
+        v.goTo(initialized)
+
+        v.visitLabel(useIterator)
+        v.load(listVar, LIST_TYPE)
+        v.invokeinterface(LIST_TYPE.internalName, "iterator", "()Ljava/util/Iterator;")
+        v.store(iteratorVar, ITERATOR_TYPE)
+        // Not read when iterating with the iterator, but the variable must be initialized on both paths for the verifier
+        v.iconst(0)
+        v.store(sizeVar, Type.INT_TYPE)
+
+        v.visitLabel(initialized)
+        v.iconst(0)
+        v.store(indexVar, Type.INT_TYPE)
+    }
+
+    fun checkHasNext(loopExit: Label) {
+        val checkIterator = Label()
+        val sizeUnchanged = Label()
+        val checked = Label()
+
+        v.load(iteratorVar, ITERATOR_TYPE)
+        v.ifnonnull(checkIterator)
+        v.load(listVar, LIST_TYPE)
+        v.invokeinterface(LIST_TYPE.internalName, "size", "()I")
+        v.load(sizeVar, Type.INT_TYPE)
+        v.ificmpeq(sizeUnchanged)
+        v.anew(CONCURRENT_MODIFICATION_EXCEPTION_TYPE)
+        v.dup()
+        v.invokespecial(CONCURRENT_MODIFICATION_EXCEPTION_TYPE.internalName, "<init>", "()V", false)
+        v.athrow()
+
+        v.visitLabel(sizeUnchanged)
+        v.load(indexVar, Type.INT_TYPE)
+        v.load(sizeVar, Type.INT_TYPE)
+        v.ificmpge(loopExit)
+        v.goTo(checked)
+
+        v.visitLabel(checkIterator)
+        v.load(iteratorVar, ITERATOR_TYPE)
+        v.invokeinterface(ITERATOR_TYPE.internalName, "hasNext", "()Z")
+        v.ifeq(loopExit)
+
+        v.visitLabel(checked)
+    }
+
+    // Puts the next element on the stack as an Object
+    fun putNext() {
+        val nextFromIterator = Label()
+        val done = Label()
+
+        v.load(iteratorVar, ITERATOR_TYPE)
+        v.ifnonnull(nextFromIterator)
+        v.load(listVar, LIST_TYPE)
+        v.load(indexVar, Type.INT_TYPE)
+        v.invokeinterface(LIST_TYPE.internalName, "get", "(I)Ljava/lang/Object;")
+        v.goTo(done)
+
+        v.visitLabel(nextFromIterator)
+        v.load(iteratorVar, ITERATOR_TYPE)
+        v.invokeinterface(ITERATOR_TYPE.internalName, "next", "()Ljava/lang/Object;")
+
+        v.visitLabel(done)
+    }
+
+    fun increment() {
+        v.iinc(indexVar, 1)
+    }
+
+    companion object {
+        val LIST_TYPE: Type = Type.getObjectType("java/util/List")
+        val ITERATOR_TYPE: Type = Type.getObjectType("java/util/Iterator")
+        private val OBJECT_TYPE: Type = Type.getObjectType("java/lang/Object")
+        private val ARRAY_LIST_TYPE: Type = Type.getObjectType("java/util/ArrayList")
+        private val CONCURRENT_MODIFICATION_EXCEPTION_TYPE: Type = Type.getObjectType("java/util/ConcurrentModificationException")
+    }
+}
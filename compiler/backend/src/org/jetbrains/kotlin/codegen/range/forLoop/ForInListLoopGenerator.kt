@@ -0,0 +1,51 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.range.forLoop
+
+import org.jetbrains.kotlin.codegen.ExpressionCodegen
+import org.jetbrains.kotlin.codegen.StackValue
+import org.jetbrains.kotlin.codegen.range.forLoop.ArrayListIteration.Companion.ITERATOR_TYPE
+import org.jetbrains.kotlin.codegen.range.forLoop.ArrayListIteration.Companion.LIST_TYPE
+import org.jetbrains.kotlin.psi.KtForExpression
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Label
+import org.jetbrains.org.objectweb.asm.Type
+
+class ForInListLoopGenerator(codegen: ExpressionCodegen, forExpression: KtForExpression) :
+    AbstractForLoopGenerator(codegen, forExpression) {
+    private lateinit var iteration: ArrayListIteration
+
+    override fun beforeLoop() {
+        super.beforeLoop()
+
+        val listVar = createLoopTempVariable(LIST_TYPE)
+        val iteratorVar = createLoopTempVariable(ITERATOR_TYPE)
+        val indexVar = createLoopTempVariable(Type.INT_TYPE)
+        val sizeVar = createLoopTempVariable(Type.INT_TYPE)
+
+        // The list is stored to a new variable even if the loop range is a local variable, since it might be modified in the loop body
+        codegen.gen(forExpression.loopRange).put(LIST_TYPE, v)
+        v.store(listVar, LIST_TYPE)
+
+        iteration = ArrayListIteration(v, listVar, iteratorVar, indexVar, sizeVar)
+        iteration.initialize()
+    }
+
+    override fun checkEmptyLoop(loopExit: Label) {}
+
+    override fun checkPreCondition(loopExit: Label) {
+        iteration.checkHasNext(loopExit)
+    }
+
+    override fun assignToLoopParameter() {
+        iteration.putNext()
+        StackValue.local(loopParameterVar, loopParameterType, loopParameterKotlinType).store(StackValue.onStack(AsmTypes.OBJECT_TYPE), v)
+    }
+
+    override fun checkPostConditionAndIncrement(loopExit: Label) {
+        iteration.increment()
+    }
+}
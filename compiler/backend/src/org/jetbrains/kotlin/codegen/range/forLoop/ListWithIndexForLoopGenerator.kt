@@ -0,0 +1,67 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.range.forLoop
+
+import org.jetbrains.kotlin.codegen.ExpressionCodegen
+import org.jetbrains.kotlin.codegen.StackValue
+import org.jetbrains.kotlin.codegen.generateCallReceiver
+import org.jetbrains.kotlin.codegen.range.forLoop.ArrayListIteration.Companion.ITERATOR_TYPE
+import org.jetbrains.kotlin.codegen.range.forLoop.ArrayListIteration.Companion.LIST_TYPE
+import org.jetbrains.kotlin.descriptors.CallableDescriptor
+import org.jetbrains.kotlin.psi.KtDestructuringDeclaration
+import org.jetbrains.kotlin.psi.KtForExpression
+import org.jetbrains.kotlin.resolve.calls.model.ResolvedCall
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Label
+import org.jetbrains.org.objectweb.asm.Type
+
+class ListWithIndexForLoopGenerator(
+    codegen: ExpressionCodegen,
+    forExpression: KtForExpression,
+    loopParameter: KtDestructuringDeclaration,
+    rangeCall: ResolvedCall<out CallableDescriptor>
+) : AbstractWithIndexForLoopGenerator(codegen, forExpression, loopParameter, rangeCall) {
+    private lateinit var iteration: ArrayListIteration
+    private var indexVar = -1
+
+    override fun beforeLoop() {
+        // The index variable is used to get elements of array lists, unless it's declared with a type other than Int
+        indexVar = indexLoopComponent?.takeIf { it.parameterType == Type.INT_TYPE }?.parameterVar ?: createLoopTempVariable(Type.INT_TYPE)
+
+        val listVar = createLoopTempVariable(LIST_TYPE)
+        val iteratorVar = createLoopTempVariable(ITERATOR_TYPE)
+        val sizeVar = createLoopTempVariable(Type.INT_TYPE)
+
+        codegen.generateCallReceiver(rangeCall).put(LIST_TYPE, v)
+        v.store(listVar, LIST_TYPE)
+
+        iteration = ArrayListIteration(v, listVar, iteratorVar, indexVar, sizeVar)
+        iteration.initialize()
+    }
+
+    override fun checkPreCondition(loopExit: Label) {
+        iteration.checkHasNext(loopExit)
+    }
+
+    override fun assignLoopParametersNextValues() {
+        if (indexLoopComponent != null && indexLoopComponent.parameterVar != indexVar) {
+            StackValue.local(indexLoopComponent.parameterVar, indexLoopComponent.parameterType)
+                .store(StackValue.local(indexVar, Type.INT_TYPE), v)
+        }
+
+        iteration.putNext()
+        if (elementLoopComponent != null) {
+            StackValue.local(elementLoopComponent.parameterVar, elementLoopComponent.parameterType)
+                .store(StackValue.onStack(AsmTypes.OBJECT_TYPE), v)
+        } else {
+            v.pop()
+        }
+    }
+
+    override fun incrementAndCheckPostCondition(loopExit: Label) {
+        iteration.increment()
+    }
+}
@@ -18,6 +18,8 @@ import org.jetbrains.kotlin.codegen.inline.GlobalInlineContext
 import org.jetbrains.kotlin.codegen.inline.InlineCache
 import org.jetbrains.kotlin.codegen.intrinsics.IntrinsicMethods
 import org.jetbrains.kotlin.codegen.optimization.OptimizationClassBuilderFactory
+import org.jetbrains.kotlin.codegen.optimization.OptimizationStatistics
+import org.jetbrains.kotlin.codegen.optimization.nullCheck.NotNullArgumentsAnalysis
 import org.jetbrains.kotlin.config.*
 import org.jetbrains.kotlin.descriptors.ModuleDescriptor
 import org.jetbrains.kotlin.descriptors.ScriptDescriptor
@@ -213,6 +215,8 @@ class GenerationState private constructor(
     //TODO: should be refactored out
     class ForRepl {
         var earlierScriptsForReplInterpreter: List<ScriptDescriptor>? = null
+        // Keep the instances of earlier lines in one array field instead of a field per line, see ScriptContext.getEarlierScriptValue
+        var earlierScriptsInArray: Boolean = false
         var scriptResultFieldName: String? = null
         val shouldGenerateScriptResultValue: Boolean get() = scriptResultFieldName != null
         var resultType: KotlinType? = null
@@ -245,10 +249,36 @@ class GenerationState private constructor(
                 JVMConstructorCallNormalizationMode.DISABLE
         }
 
+    val runtimeStringConcat =
+        if (target >= JvmTarget.JVM_1_8) configuration.get(JVMConfigurationKeys.STRING_CONCAT) ?: JvmStringConcat.INLINE
+        else JvmStringConcat.INLINE
+
     val jvmDefaultMode = languageVersionSettings.getFlag(JvmAnalysisFlags.jvmDefaultMode)
 
     val disableOptimization = configuration.get(JVMConfigurationKeys.DISABLE_OPTIMIZATION, false)
 
+    val optimizeCoroutineSpilling = configuration.get(JVMConfigurationKeys.OPTIMIZE_COROUTINE_SPILLING, false)
+
+    val scalarizeClosures = configuration.get(JVMConfigurationKeys.SCALARIZE_CLOSURES, false)
+
+    val sealedClassWhenSwitch = configuration.get(JVMConfigurationKeys.SEALED_CLASS_WHEN_SWITCH, false)
+
+    val indexedListLoops = configuration.get(JVMConfigurationKeys.INDEXED_LIST_LOOPS, false)
+
+    val optimizeNullablePrimitiveLocals = configuration.get(JVMConfigurationKeys.OPTIMIZE_NULLABLE_PRIMITIVE_LOCALS, false)
+
+    val specializeForInlineClasses = configuration.get(JVMConfigurationKeys.SPECIALIZE_FOR_INLINE_CLASSES, false)
+
+    val optimizationStatistics =
+        if (configuration.get(JVMConfigurationKeys.REPORT_OPTIMIZATION_STATISTICS, false)) OptimizationStatistics() else null
+
+    // Incremental compilation doesn't see calls in unchanged files, so all calls of a function can't be analyzed
+    val notNullArgumentsAnalysis: NotNullArgumentsAnalysis? by lazy {
+        if (configuration.get(JVMConfigurationKeys.ELIMINATE_INTERNAL_PARAMETER_CHECKS, false) && !isIrBackend &&
+            configuration.get(JVMConfigurationKeys.INCREMENTAL_COMPILATION_COMPONENTS) == null
+        ) NotNullArgumentsAnalysis(bindingContext, files) else null
+    }
+
     val metadataVersion = configuration.get(CommonConfigurationKeys.METADATA_VERSION) ?: JvmMetadataVersion.INSTANCE
 
     init {
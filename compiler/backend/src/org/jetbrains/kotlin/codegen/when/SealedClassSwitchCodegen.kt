@@ -0,0 +1,124 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.codegen.`when`
+
+import org.jetbrains.kotlin.codegen.ExpressionCodegen
+import org.jetbrains.kotlin.descriptors.ClassDescriptor
+import org.jetbrains.kotlin.descriptors.Modality
+import org.jetbrains.kotlin.psi.KtWhenConditionIsPattern
+import org.jetbrains.kotlin.psi.KtWhenEntry
+import org.jetbrains.kotlin.psi.KtWhenExpression
+import org.jetbrains.kotlin.resolve.DescriptorUtils
+import org.jetbrains.kotlin.resolve.constants.ConstantValue
+import org.jetbrains.kotlin.resolve.jvm.AsmTypes
+import org.jetbrains.org.objectweb.asm.Label
+import org.jetbrains.org.objectweb.asm.Type
+
+/**
+ * Generates `when` over a sealed class subject with type checks against its subclasses as a switch by the hash code
+ * of the name of the subject's class. Then the class itself is compared with the checked classes having this hash code, in the same way
+ * as [StringSwitchCodegen] compares strings having the same hash code.
+ *
+ * Subjects of other classes, e.g. of unchecked subclasses of the checked classes, or of classes renamed after compilation by a shrinker,
+ * are matched by the `instanceof` checks of the original `when`.
+ */
+class SealedClassSwitchCodegen(
+    expression: KtWhenExpression,
+    isStatement: Boolean,
+    isExhaustive: Boolean,
+    codegen: ExpressionCodegen,
+    private val sealedClass: ClassDescriptor
+) : SwitchCodegen(expression, isStatement, isExhaustive, codegen, null) {
+    // The first branch checking each class, in the order of the conditions
+    private val typeChecks = LinkedHashMap<ClassDescriptor, Label>()
+    private val hashCodesToClassAndEntryLabel = LinkedHashMap<Int, MutableList<Pair<Type, Label>>>()
+    private val instanceOfChecksLabel = Label()
+    private var subjectVarIndex = -1
+    private var classVarIndex = -1
+
+    override val switchDefaultLabel: Label
+        get() = instanceOfChecksLabel
+
+    override fun processEntry(entry: KtWhenEntry, entryLabel: Label) {
+        for (condition in entry.conditions) {
+            if (condition !is KtWhenConditionIsPattern) continue
+            val subclass = switchCodegenProvider.getSealedSubclassFromTypeCheck(condition, sealedClass)
+                    ?: throw AssertionError("guaranteed by usage contract")
+            typeChecks.getOrPut(subclass) { entryLabel }
+        }
+    }
+
+    override fun processConstant(constant: ConstantValue<*>, entryLabel: Label) {
+        throw AssertionError("guaranteed by usage contract")
+    }
+
+    private fun fillTransitionsTable() {
+        for (subclass in typeChecks.keys) {
+            if (subclass.modality == Modality.ABSTRACT || subclass.modality == Modality.SEALED) continue
+
+            // Instances of exactly this class take the first branch checking it or one of its superclasses
+            val entryLabel = typeChecks.entries.first { (checkedClass, _) -> DescriptorUtils.isSubclass(subclass, checkedClass) }.value
+            val classType = codegen.state.typeMapper.mapClass(subclass)
+            val hashCode = classType.className.hashCode()
+            val items = hashCodesToClassAndEntryLabel.getOrPut(hashCode) {
+                transitionsTable[hashCode] = Label()
+                arrayListOf()
+            }
+            items.add(classType to entryLabel)
+        }
+    }
+
+    override fun generateSubjectValueToIndex() {
+        fillTransitionsTable()
+        generateNullCheckIfNeeded()
+
+        subjectVarIndex = codegen.frameMap.enterTemp(subjectType)
+        v.store(subjectVarIndex, subjectType)
+        v.load(subjectVarIndex, subjectType)
+
+        classVarIndex = codegen.frameMap.enterTemp(AsmTypes.JAVA_CLASS_TYPE)
+        v.invokevirtual(AsmTypes.OBJECT_TYPE.internalName, "getClass", GET_CLASS_METHOD_DESC, false)
+        v.store(classVarIndex, AsmTypes.JAVA_CLASS_TYPE)
+        v.load(classVarIndex, AsmTypes.JAVA_CLASS_TYPE)
+
+        // Both the name of the class and its hash code are cached, so the index is cheap to compute
+        v.invokevirtual(AsmTypes.JAVA_CLASS_TYPE.internalName, "getName", GET_NAME_METHOD_DESC, false)
+        v.invokevirtual(AsmTypes.JAVA_STRING_TYPE.internalName, "hashCode", HASH_CODE_METHOD_DESC, false)
+    }
+
+    override fun generateEntries() {
+        for ((hashCode, items) in hashCodesToClassAndEntryLabel) {
+            v.visitLabel(transitionsTable[hashCode])
+
+            for ((classType, entryLabel) in items) {
+                v.load(classVarIndex, AsmTypes.JAVA_CLASS_TYPE)
+                v.aconst(classType)
+                v.ifacmpeq(entryLabel)
+            }
+            v.goTo(instanceOfChecksLabel)
+        }
+
+        v.visitLabel(instanceOfChecksLabel)
+        for ((subclass, entryLabel) in typeChecks) {
+            v.load(subjectVarIndex, subjectType)
+            v.instanceOf(codegen.state.typeMapper.mapClass(subclass))
+            v.ifne(entryLabel)
+        }
+        v.goTo(defaultLabel)
+
+        // The temporaries are not used by the branches, and must be left before the subject variable, if any
+        codegen.frameMap.leaveTemp(AsmTypes.JAVA_CLASS_TYPE)
+        codegen.frameMap.leaveTemp(subjectType)
+
+        super.generateEntries()
+    }
+
+    companion object {
+        private val GET_CLASS_METHOD_DESC = Type.getMethodDescriptor(AsmTypes.JAVA_CLASS_TYPE)
+        private val GET_NAME_METHOD_DESC = Type.getMethodDescriptor(AsmTypes.JAVA_STRING_TYPE)
+        private val HASH_CODE_METHOD_DESC = Type.getMethodDescriptor(Type.INT_TYPE)
+    }
+}
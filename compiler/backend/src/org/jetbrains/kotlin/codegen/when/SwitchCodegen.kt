@@ -10,6 +10,7 @@ import org.jetbrains.kotlin.cfg.WhenChecker
 import org.jetbrains.kotlin.codegen.ExpressionCodegen
 import org.jetbrains.kotlin.codegen.StackValue
 import org.jetbrains.kotlin.descriptors.VariableDescriptor
+import org.jetbrains.kotlin.psi.KtWhenEntry
 import org.jetbrains.kotlin.psi.KtWhenExpression
 import org.jetbrains.kotlin.resolve.BindingContext
 import org.jetbrains.kotlin.resolve.constants.ConstantValue
@@ -58,7 +59,11 @@ abstract class SwitchCodegen(
     private var endLabel = Label()
     protected lateinit var defaultLabel: Label
 
-    private val switchCodegenProvider = SwitchCodegenProvider(codegen)
+    // The target of the switch instruction for values without transitions
+    protected open val switchDefaultLabel: Label
+        get() = defaultLabel
+
+    protected val switchCodegenProvider = SwitchCodegenProvider(codegen)
 
     /**
      * Generates bytecode for entire when expression
@@ -107,10 +112,7 @@ abstract class SwitchCodegen(
         for (entry in expression.entries) {
             val entryLabel = Label()
 
-            for (constant in switchCodegenProvider.getConstantsFromEntry(entry)) {
-                if (constant is NullValue || constant == null) continue
-                processConstant(constant, entryLabel)
-            }
+            processEntry(entry, entryLabel)
 
             if (entry.isElse) {
                 elseLabel = entryLabel
@@ -120,6 +122,13 @@ abstract class SwitchCodegen(
         }
     }
 
+    protected open fun processEntry(entry: KtWhenEntry, entryLabel: Label) {
+        for (constant in switchCodegenProvider.getConstantsFromEntry(entry)) {
+            if (constant is NullValue || constant == null) continue
+            processConstant(constant, entryLabel)
+        }
+    }
+
     protected abstract fun processConstant(
         constant: ConstantValue<*>,
         entryLabel: Label
@@ -193,15 +202,15 @@ abstract class SwitchCodegen(
         // - tableswitch: ~ rangeLength
         if (rangeLength > 2L * labelsNumber || rangeLength > Int.MAX_VALUE) {
             val labels = transitionsTable.values.toTypedArray()
-            v.lookupswitch(defaultLabel, keys, labels)
+            v.lookupswitch(switchDefaultLabel, keys, labels)
             return
         }
 
         val sparseLabels = Array(rangeLength.toInt()) { index ->
-            transitionsTable[index + minValue] ?: defaultLabel
+            transitionsTable[index + minValue] ?: switchDefaultLabel
         }
 
-        v.tableswitch(minValue, maxValue, defaultLabel, *sparseLabels)
+        v.tableswitch(minValue, maxValue, switchDefaultLabel, *sparseLabels)
     }
 
     protected open fun generateEntries() {
@@ -16,12 +16,17 @@
 
 package org.jetbrains.kotlin.codegen.`when`
 
+import org.jetbrains.kotlin.cfg.WhenChecker
 import org.jetbrains.kotlin.codegen.AsmUtil
 import org.jetbrains.kotlin.codegen.ExpressionCodegen
 import org.jetbrains.kotlin.codegen.binding.CodegenBinding
 import org.jetbrains.kotlin.codegen.state.GenerationState
+import org.jetbrains.kotlin.descriptors.ClassDescriptor
+import org.jetbrains.kotlin.descriptors.ClassKind
+import org.jetbrains.kotlin.descriptors.Modality
 import org.jetbrains.kotlin.psi.*
 import org.jetbrains.kotlin.resolve.BindingContext
+import org.jetbrains.kotlin.resolve.DescriptorUtils
 import org.jetbrains.kotlin.resolve.constants.ConstantValue
 import org.jetbrains.kotlin.resolve.constants.IntegerValueConstant
 import org.jetbrains.kotlin.resolve.constants.NullValue
@@ -77,6 +82,11 @@ private constructor(
     ): SwitchCodegen? {
         val codegen = codegen ?: throw AssertionError("Can't create SwitchCodegen in this context")
 
+        val sealedClass = if (codegen.state.sealedClassWhenSwitch) getSealedSubjectClassIfTypeChecksSwitch(expression) else null
+        if (sealedClass != null) {
+            return SealedClassSwitchCodegen(expression, isStatement, isExhaustive, codegen, sealedClass)
+        }
+
         if (!isThereConstantEntriesButNulls(expression)) {
             return null
         }
@@ -97,6 +107,52 @@ private constructor(
 
     }
 
+    /**
+     * Returns the subject class if [expression] is a `when` over a sealed class subject where each condition is either `null` or
+     * a type check against a subclass of the sealed class. For subjects of the checked classes, the branch is decided by the exact
+     * class, so it can be found with a switch by the hash code of the class name instead of a chain of `instanceof` checks.
+     */
+    private fun getSealedSubjectClassIfTypeChecksSwitch(expression: KtWhenExpression): ClassDescriptor? {
+        val subjectType = WhenChecker.whenSubjectTypeWithoutSmartCasts(expression, bindingContext) ?: return null
+        val subjectClass = subjectType.constructor.declarationDescriptor as? ClassDescriptor ?: return null
+        if (subjectClass.modality != Modality.SEALED) return null
+
+        var typeChecks = 0
+        for (entry in expression.entries) {
+            for (condition in entry.conditions) {
+                when (condition) {
+                    is KtWhenConditionIsPattern -> {
+                        val subclass = getSealedSubclassFromTypeCheck(condition, subjectClass) ?: return null
+                        // Abstract classes are never the exact class of the subject, they are only checked with instanceof
+                        if (subclass.modality != Modality.ABSTRACT && subclass.modality != Modality.SEALED) {
+                            typeChecks++
+                        }
+                    }
+                    is KtWhenConditionWithExpression -> {
+                        val patternExpression = condition.expression ?: return null
+                        val constant = ExpressionCodegen.getCompileTimeConstant(patternExpression, bindingContext, shouldInlineConstVals)
+                        if (constant !is NullValue) return null
+                    }
+                    else -> return null
+                }
+            }
+        }
+
+        // A few instanceof checks are cheaper than getting the class name of the subject
+        return if (typeChecks >= MIN_TYPE_CHECKS_FOR_SEALED_CLASS_SWITCH) subjectClass else null
+    }
+
+    fun getSealedSubclassFromTypeCheck(condition: KtWhenConditionIsPattern, sealedClass: ClassDescriptor): ClassDescriptor? {
+        if (condition.isNegated) return null
+        val type = bindingContext[BindingContext.TYPE, condition.typeReference] ?: return null
+        if (type.isMarkedNullable) return null
+
+        val classDescriptor = type.constructor.declarationDescriptor as? ClassDescriptor ?: return null
+        if (classDescriptor.kind != ClassKind.CLASS && classDescriptor.kind != ClassKind.OBJECT) return null
+        if (classDescriptor.isInline) return null
+        return if (DescriptorUtils.isSubclass(classDescriptor, sealedClass)) classDescriptor else null
+    }
+
     private fun isThereConstantEntriesButNulls(expression: KtWhenExpression): Boolean =
         getAllConstants(expression).any { it != null && it !is NullValue }
 
@@ -107,4 +163,8 @@ private constructor(
     private fun isStringConstantsSwitch(expression: KtWhenExpression, subjectType: Type): Boolean =
         subjectType.className == String::class.java.name &&
                 checkAllItemsAreConstantsSatisfying(expression) { it is StringValue || it is NullValue }
+
+    companion object {
+        private const val MIN_TYPE_CHECKS_FOR_SEALED_CLASS_SWITCH = 8
+    }
 }
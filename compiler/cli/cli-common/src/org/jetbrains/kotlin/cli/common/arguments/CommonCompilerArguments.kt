@@ -238,6 +238,13 @@ abstract class CommonCompilerArguments : CommonToolArguments() {
     )
     var profilePhases: Boolean by FreezableVar(false)
 
+    @Argument(
+        value = "-Xprofile-phases-output",
+        valueDescription = "<path>",
+        description = "Write aggregated backend phase profiling results to the file (JSON for .json files, CSV otherwise), implies -Xprofile-phases"
+    )
+    var profilePhasesOutput: String? by NullableStringFreezableVar(null)
+
     open fun configureAnalysisFlags(collector: MessageCollector): MutableMap<AnalysisFlag<*>, Any> {
         return HashMap<AnalysisFlag<*>, Any>().apply {
             put(AnalysisFlags.skipMetadataVersionCheck, skipMetadataVersionCheck)
@@ -75,6 +75,13 @@ class K2JVMCompilerArguments : CommonCompilerArguments() {
     @Argument(value = "-Xuse-ir", description = "Use the IR backend")
     var useIR: Boolean by FreezableVar(false)
 
+    @Argument(
+        value = "-Xparsing-threads",
+        valueDescription = "<N>",
+        description = "Number of threads used to parse all source files before analysis (experimental), default is 1 (parse lazily)"
+    )
+    var parsingThreads: String? by NullableStringFreezableVar(null)
+
     @Argument(value = "-Xmodule-path", valueDescription = "<path>", description = "Paths where to find Java 9+ modules")
     var javaModulePath: String? by NullableStringFreezableVar(null)
 
@@ -107,6 +114,61 @@ class K2JVMCompilerArguments : CommonCompilerArguments() {
     @Argument(value = "-Xno-optimize", description = "Disable optimizations")
     var noOptimize: Boolean by FreezableVar(false)
 
+    @Argument(
+        value = "-Xoptimize-coroutine-spilling",
+        description = "Reduce the number of continuation fields for spilled variables in coroutines\n" +
+                "and don't keep objects referenced from them alive while they are not used"
+    )
+    var optimizeCoroutineSpilling: Boolean by FreezableVar(false)
+
+    @Argument(
+        value = "-Xscalarize-closures",
+        description = "Don't allocate lambdas and anonymous objects which are only invoked in the function that creates them,\n" +
+                "copy their code to the call sites instead"
+    )
+    var scalarizeClosures: Boolean by FreezableVar(false)
+
+    @Argument(
+        value = "-Xsealed-class-when-switch",
+        description = "Generate 'when' over a sealed class with many type checks as a switch by the name of the subject class,\n" +
+                "with the 'instanceof' checks kept for subjects of other classes"
+    )
+    var sealedClassWhenSwitch: Boolean by FreezableVar(false)
+
+    @Argument(
+        value = "-Xindexed-list-loops",
+        description = "Iterate java.util.ArrayList instances (not subclasses) by index in 'for' loops, without allocating an iterator.\n" +
+                "Changing the size of the list in the loop throws ConcurrentModificationException, other modifications are not detected"
+    )
+    var indexedListLoops: Boolean by FreezableVar(false)
+
+    @Argument(
+        value = "-Xoptimize-nullable-primitive-locals",
+        description = "Store local variables of nullable primitive types, which are only assigned 'null' or a value and checked for 'null',\n" +
+                "as a primitive value and a null flag without boxing"
+    )
+    var optimizeNullablePrimitiveLocals: Boolean by FreezableVar(false)
+
+    @Argument(
+        value = "-Xreport-optimization-statistics",
+        description = "Report the number of instructions removed by bytecode optimizations in each class"
+    )
+    var reportOptimizationStatistics: Boolean by FreezableVar(false)
+
+    @Argument(
+        value = "-Xspecialize-for-inline-classes",
+        description = "Generate copies of private functions specialized for inline class arguments and results,\n" +
+                "so that inline class values passed through generic helpers are not boxed"
+    )
+    var specializeForInlineClasses: Boolean by FreezableVar(false)
+
+    @Argument(
+        value = "-Xeliminate-internal-parameter-checks",
+        description = "Don't generate parameter null checks in internal functions if all their calls in the module pass non-null values.\n" +
+                "Calls from Java sources and via reflection are not checked"
+    )
+    var eliminateInternalParameterChecks: Boolean by FreezableVar(false)
+
     @Argument(
         value = "-Xnormalize-constructor-calls",
         valueDescription = "{disable|enable}",
@@ -116,6 +178,17 @@ class K2JVMCompilerArguments : CommonCompilerArguments() {
     )
     var constructorCallNormalizationMode: String? by NullableStringFreezableVar(null)
 
+    @Argument(
+        value = "-Xstring-concat",
+        valueDescription = "{indy-with-constants|inline}",
+        description = "Select code generation scheme for string concatenation and templates\n" +
+                "-Xstring-concat=indy-with-constants: use 'invokedynamic' of 'StringConcatFactory.makeConcatWithConstants',\n" +
+                "                                     requires JVM target 1.8 and JDK 9+ at runtime;\n" +
+                "-Xstring-concat=inline:              use 'StringBuilder';\n" +
+                "default: inline"
+    )
+    var stringConcat: String? by NullableStringFreezableVar(null)
+
     @Argument(
         value = "-Xassertions", valueDescription = "{always-enable|always-disable|jvm|legacy}",
         description = "Assert calls behaviour\n" +
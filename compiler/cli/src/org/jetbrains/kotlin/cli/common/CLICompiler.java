@@ -36,6 +36,7 @@ import org.jetbrains.kotlin.metadata.deserialization.BinaryVersion;
 import org.jetbrains.kotlin.progress.CompilationCanceledException;
 import org.jetbrains.kotlin.progress.CompilationCanceledStatus;
 import org.jetbrains.kotlin.progress.ProgressIndicatorAndCompilationCanceledStatus;
+import org.jetbrains.kotlin.util.PhaseProfiler;
 import org.jetbrains.kotlin.utils.KotlinPaths;
 import org.jetbrains.kotlin.utils.KotlinPathsFromHomeDir;
 import org.jetbrains.kotlin.utils.PathUtil;
@@ -95,6 +96,14 @@ public abstract class CLICompiler<A extends CommonCompilerArguments> extends CLI
                 setIdeaIoUseFallback();
                 ExitCode code = doExecute(arguments, configuration, rootDisposable, paths);
 
+                PhaseProfiler phaseProfiler = configuration.get(CommonConfigurationKeys.PHASE_PROFILER);
+                if (phaseProfiler != null) {
+                    performanceManager.notifyPhasesProfiled(phaseProfiler);
+                    if (arguments.getProfilePhasesOutput() != null) {
+                        performanceManager.dumpPhaseProfile(phaseProfiler, new File(arguments.getProfilePhasesOutput()));
+                    }
+                }
+
                 performanceManager.notifyCompilationFinished();
                 if (arguments.getReportPerf()) {
                     performanceManager.getMeasurementResults().forEach(
@@ -178,7 +187,12 @@ public abstract class CLICompiler<A extends CommonCompilerArguments> extends CLI
         if (arguments.getPhasesToDump() != null) {
             configuration.put(CommonConfigurationKeys.PHASES_TO_DUMP_STATE, SetsKt.setOf(arguments.getPhasesToDump()));
         }
-        configuration.put(CommonConfigurationKeys.PROFILE_PHASES, arguments.getProfilePhases());
+        // Writing the profiling results makes no sense without profiling, so -Xprofile-phases-output implies -Xprofile-phases
+        boolean profilePhases = arguments.getProfilePhases() || arguments.getProfilePhasesOutput() != null;
+        configuration.put(CommonConfigurationKeys.PROFILE_PHASES, profilePhases);
+        if (profilePhases) {
+            configuration.put(CommonConfigurationKeys.PHASE_PROFILER, new PhaseProfiler());
+        }
     }
 
     @NotNull
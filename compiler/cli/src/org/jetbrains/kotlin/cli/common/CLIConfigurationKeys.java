@@ -34,6 +34,8 @@ public class CLIConfigurationKeys {
             CompilerConfigurationKey.create("allow kotlin package");
     public static final CompilerConfigurationKey<CommonCompilerPerformanceManager> PERF_MANAGER =
             CompilerConfigurationKey.create("performance manager");
+    public static final CompilerConfigurationKey<Integer> PARSING_THREADS =
+            CompilerConfigurationKey.create("number of threads used to parse source files eagerly");
 
     // Used in Eclipse plugin (see KotlinCLICompiler)
     public static final CompilerConfigurationKey<String> INTELLIJ_PLUGIN_ROOT =
@@ -6,6 +6,7 @@
 package org.jetbrains.kotlin.cli.common
 
 import org.jetbrains.kotlin.util.PerformanceCounter
+import org.jetbrains.kotlin.util.PhaseProfiler
 import java.io.File
 import java.lang.management.ManagementFactory
 import java.util.concurrent.TimeUnit
@@ -37,6 +38,10 @@ abstract class CommonCompilerPerformanceManager(private val presentableName: Str
         recordPerfCountersMeasurements()
     }
 
+    open fun notifySourceFilesParsed(files: Int, threads: Int, timeNanos: Long) {
+        measurements += SourceParsingMeasurement(files, threads, TimeUnit.NANOSECONDS.toMillis(timeNanos))
+    }
+
     open fun notifyAnalysisStarted() {
         analysisStart = PerformanceCounter.currentTime()
     }
@@ -55,6 +60,16 @@ abstract class CommonCompilerPerformanceManager(private val presentableName: Str
         measurements += CodeGenerationMeasurement(lines, files, TimeUnit.NANOSECONDS.toMillis(time), additionalDescription)
     }
 
+    open fun notifyPhasesProfiled(profiler: PhaseProfiler) {
+        profiler.getStatistics().forEach {
+            measurements += PhaseMeasurement(it.name, it.invocations, it.wallTimeNanos, it.cpuTimeNanos, it.allocatedBytes)
+        }
+    }
+
+    fun dumpPhaseProfile(profiler: PhaseProfiler, destination: File) {
+        destination.writeText(if (destination.extension == "json") profiler.renderJson() else profiler.renderCsv())
+    }
+
     fun dumpPerformanceReport(destination: File) {
         destination.writeBytes(createPerformanceReport())
     }
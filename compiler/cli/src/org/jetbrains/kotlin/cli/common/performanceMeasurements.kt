@@ -5,6 +5,8 @@
 
 package org.jetbrains.kotlin.cli.common
 
+import java.util.concurrent.TimeUnit
+
 interface PerformanceMeasurement {
     fun render(): String
 }
@@ -40,6 +42,11 @@ class CodeGenerationMeasurement(private val files: Int, val lines: Int, private
 }
 
 
+class SourceParsingMeasurement(private val files: Int, private val threads: Int, private val milliseconds: Long) : PerformanceMeasurement {
+    override fun render(): String = "PARSE: $files files on $threads threads in $milliseconds ms"
+}
+
+
 class GarbageCollectionMeasurement(private val garbageCollectionKind: String, private val milliseconds: Long) : PerformanceMeasurement {
     override fun render(): String = "GC time for $garbageCollectionKind is $milliseconds ms"
 }
@@ -48,3 +55,19 @@ class GarbageCollectionMeasurement(private val garbageCollectionKind: String, pr
 class PerformanceCounterMeasurement(private val counterReport: String) : PerformanceMeasurement {
     override fun render(): String = counterReport
 }
+
+
+class PhaseMeasurement(
+    private val phaseName: String,
+    private val invocations: Int,
+    private val wallTimeNanos: Long,
+    private val cpuTimeNanos: Long,
+    private val allocatedBytes: Long
+) : PerformanceMeasurement {
+    override fun render(): String {
+        val cpuTime = if (cpuTimeNanos < 0) "n/a" else "${TimeUnit.NANOSECONDS.toMillis(cpuTimeNanos)} ms"
+        val allocated = if (allocatedBytes < 0) "n/a" else "${allocatedBytes / 1024} KB"
+        return "PHASE: $phaseName ($invocations runs) in ${TimeUnit.NANOSECONDS.toMillis(wallTimeNanos)} ms, " +
+                "CPU time $cpuTime, allocated $allocated"
+    }
+}
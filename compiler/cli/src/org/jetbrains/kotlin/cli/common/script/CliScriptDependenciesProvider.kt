@@ -59,6 +59,13 @@ class CliScriptDependenciesProvider(private val project: Project) : ScriptDepend
             } else null
         }
     }
+
+    /**
+     * Forgets the dependencies calculated so far, e.g. before the project is reused for other scripts that may have the same paths
+     */
+    fun clearCache() = cacheLock.write {
+        cache.clear()
+    }
 }
 
 private val log = Logger.getInstance(ScriptDependenciesProvider::class.java)
@@ -348,8 +348,29 @@ class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
             CLITool.doMain(K2JVMCompiler(), args)
         }
 
+        private fun putThreadCount(
+            configuration: CompilerConfiguration,
+            key: CompilerConfigurationKey<Int>,
+            value: String?,
+            description: String
+        ) {
+            if (value == null) return
+
+            val threads = value.toIntOrNull()
+            if (threads == null || threads < 1) {
+                configuration.getNotNull(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY).report(
+                    ERROR, "Invalid number of $description: $value, should be a positive integer"
+                )
+            } else {
+                configuration.put(key, threads)
+            }
+        }
+
         private fun putAdvancedOptions(configuration: CompilerConfiguration, arguments: K2JVMCompilerArguments) {
             configuration.put(JVMConfigurationKeys.IR, arguments.useIR)
+
+            putThreadCount(configuration, CLIConfigurationKeys.PARSING_THREADS, arguments.parsingThreads, "parsing threads")
+
             configuration.put(JVMConfigurationKeys.DISABLE_CALL_ASSERTIONS, arguments.noCallAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_RECEIVER_ASSERTIONS, arguments.noReceiverAssertions)
             configuration.put(JVMConfigurationKeys.DISABLE_PARAM_ASSERTIONS, arguments.noParamAssertions)
@@ -358,6 +379,14 @@ class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
                 arguments.noExceptionOnExplicitEqualsForBoxedNull
             )
             configuration.put(JVMConfigurationKeys.DISABLE_OPTIMIZATION, arguments.noOptimize)
+            configuration.put(JVMConfigurationKeys.OPTIMIZE_COROUTINE_SPILLING, arguments.optimizeCoroutineSpilling)
+            configuration.put(JVMConfigurationKeys.SCALARIZE_CLOSURES, arguments.scalarizeClosures)
+            configuration.put(JVMConfigurationKeys.SEALED_CLASS_WHEN_SWITCH, arguments.sealedClassWhenSwitch)
+            configuration.put(JVMConfigurationKeys.INDEXED_LIST_LOOPS, arguments.indexedListLoops)
+            configuration.put(JVMConfigurationKeys.OPTIMIZE_NULLABLE_PRIMITIVE_LOCALS, arguments.optimizeNullablePrimitiveLocals)
+            configuration.put(JVMConfigurationKeys.REPORT_OPTIMIZATION_STATISTICS, arguments.reportOptimizationStatistics)
+            configuration.put(JVMConfigurationKeys.SPECIALIZE_FOR_INLINE_CLASSES, arguments.specializeForInlineClasses)
+            configuration.put(JVMConfigurationKeys.ELIMINATE_INTERNAL_PARAMETER_CHECKS, arguments.eliminateInternalParameterChecks)
 
             if (!JVMConstructorCallNormalizationMode.isSupportedValue(arguments.constructorCallNormalizationMode)) {
                 configuration.getNotNull(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY).report(
@@ -376,6 +405,28 @@ class K2JVMCompiler : CLICompiler<K2JVMCompilerArguments>() {
                 )
             }
 
+            if (!JvmStringConcat.isSupportedValue(arguments.stringConcat)) {
+                configuration.getNotNull(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY).report(
+                    ERROR,
+                    "Unknown string concatenation mode: ${arguments.stringConcat}, " +
+                            "supported modes: ${JvmStringConcat.values().map { it.description }}"
+                )
+            }
+
+            val stringConcat = JvmStringConcat.fromStringOrNull(arguments.stringConcat)
+            if (stringConcat != null) {
+                val jvmTarget = configuration.get(JVMConfigurationKeys.JVM_TARGET) ?: JvmTarget.DEFAULT
+                if (stringConcat.isDynamic && jvmTarget < JvmTarget.JVM_1_8) {
+                    configuration.getNotNull(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY).report(
+                        STRONG_WARNING,
+                        "String concatenation mode '${stringConcat.description}' requires JVM target 1.8, " +
+                                "'${JvmStringConcat.INLINE.description}' is used instead"
+                    )
+                } else {
+                    configuration.put(JVMConfigurationKeys.STRING_CONCAT, stringConcat)
+                }
+            }
+
             val assertionsMode =
                 JVMAssertionsMode.fromStringOrNull(arguments.assertionsMode)
             if (assertionsMode == null) {
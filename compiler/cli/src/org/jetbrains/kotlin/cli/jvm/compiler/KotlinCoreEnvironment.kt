@@ -114,6 +114,7 @@ import org.jetbrains.kotlin.script.ScriptDefinitionProvider
 import org.jetbrains.kotlin.script.ScriptDependenciesProvider
 import org.jetbrains.kotlin.script.ScriptReportSink
 import org.jetbrains.kotlin.script.StandardScriptDefinition
+import org.jetbrains.kotlin.util.PerformanceCounter
 import org.jetbrains.kotlin.utils.PathUtil
 import java.io.File
 import java.util.zip.ZipFile
@@ -163,6 +164,7 @@ class KotlinCoreEnvironment private constructor(
     private val sourceFiles = mutableListOf<KtFile>()
     private val rootsIndex: JvmDependenciesDynamicCompoundIndex
     private val packagePartProviders = mutableListOf<JvmPackagePartProvider>()
+    private val packagePartProvidersByRoots = hashMapOf<List<VirtualFile>, JvmPackagePartProvider>()
 
     private val classpathRootsResolver: ClasspathRootsResolver
     private val initialRoots: List<JavaRoot>
@@ -249,6 +251,14 @@ class KotlinCoreEnvironment private constructor(
         }
         sourceFiles.sortBy { it.virtualFile.path }
 
+        val parsingThreads = configuration.get(CLIConfigurationKeys.PARSING_THREADS, 1)
+        if (parsingThreads > 1) {
+            val start = PerformanceCounter.currentTime()
+            SourceFilesParser(parsingThreads).parse(sourceFiles)
+            configuration.get(CLIConfigurationKeys.PERF_MANAGER)
+                ?.notifySourceFilesParsed(sourceFiles.size, parsingThreads, PerformanceCounter.currentTime() - start)
+        }
+
         val jdkHome = configuration.get(JVMConfigurationKeys.JDK_HOME)
         val jrtFileSystem = VirtualFileManager.getInstance().getFileSystem(StandardFileSystems.JRT_PROTOCOL)
         val javaModuleFinder = CliJavaModuleFinder(jdkHome?.path?.let { path ->
@@ -319,6 +329,17 @@ class KotlinCoreEnvironment private constructor(
         }
     }
 
+    /**
+     * Same as [createPackagePartProvider], but returns the provider created earlier by this method if [scope] contains the same binary
+     * roots, so that module mappings are loaded only once when the environment is used for many analyses
+     */
+    fun getOrCreatePackagePartProvider(scope: GlobalSearchScope): JvmPackagePartProvider {
+        val roots = initialRoots.mapNotNull { (file, type) -> if (type == JavaRoot.RootType.BINARY && file in scope) file else null }
+        return synchronized(packagePartProvidersByRoots) {
+            packagePartProvidersByRoots.getOrPut(roots) { createPackagePartProvider(scope) }
+        }
+    }
+
     private val VirtualFile.javaFiles: List<VirtualFile>
         get() = mutableListOf<VirtualFile>().apply {
             VfsUtilCore.processFilesRecursively(this@javaFiles) { file ->
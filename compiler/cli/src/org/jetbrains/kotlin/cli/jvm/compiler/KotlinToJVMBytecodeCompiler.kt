@@ -37,6 +37,7 @@ import org.jetbrains.kotlin.cli.common.ExitCode
 import org.jetbrains.kotlin.cli.common.checkKotlinPackageUsage
 import org.jetbrains.kotlin.cli.common.config.addKotlinSourceRoot
 import org.jetbrains.kotlin.cli.common.messages.AnalyzerWithCompilerReport
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity.INFO
 import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity.OUTPUT
 import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity.WARNING
 import org.jetbrains.kotlin.cli.common.messages.MessageCollector
@@ -474,6 +475,10 @@ object KotlinToJVMBytecodeCompiler {
             generationState.extraJvmDiagnosticsTrace.bindingContext, environment.messageCollector
         )
 
+        generationState.optimizationStatistics?.let { statistics ->
+            environment.messageCollector.report(INFO, "Bytecode optimization statistics:\n" + statistics.render())
+        }
+
         ProgressIndicatorAndCompilationCanceledStatus.checkCanceled()
         return generationState
     }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.cli.jvm.compiler
+
+import com.intellij.lang.ASTNode
+import org.jetbrains.kotlin.psi.KtFile
+import java.util.*
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+/**
+ * Eagerly builds the syntax trees of [KtFile]s on a pool of [threadCount] worker threads.
+ *
+ * Normally a file is lexed and parsed lazily, when the analysis first touches its PSI, and lazy-parseable blocks such as function
+ * bodies and lambdas are only parsed when they are resolved. Every file (and every chameleon inside it) has its own tree and its own
+ * lock, so the files can be parsed independently before the analysis starts, and the analysis then only reads the already built trees.
+ */
+internal class SourceFilesParser(private val threadCount: Int) {
+    fun parse(files: List<KtFile>) {
+        if (threadCount <= 1 || files.size <= 1) return
+
+        val executor = Executors.newFixedThreadPool(minOf(threadCount, files.size))
+        try {
+            val futures: List<Future<*>> = files.map { file ->
+                executor.submit(Callable { parseFully(file.node) })
+            }
+            for (future in futures) {
+                try {
+                    future.get()
+                } catch (e: ExecutionException) {
+                    throw e.cause ?: e
+                }
+            }
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    // Iterating over the AST nodes (unlike PSI children) forces lazy-parseable elements without creating PSI for them
+    private fun parseFully(root: ASTNode) {
+        val stack = ArrayDeque<ASTNode>()
+        stack.push(root)
+        while (stack.isNotEmpty()) {
+            var child = stack.pop().firstChildNode
+            while (child != null) {
+                stack.push(child)
+                child = child.treeNext
+            }
+        }
+    }
+}
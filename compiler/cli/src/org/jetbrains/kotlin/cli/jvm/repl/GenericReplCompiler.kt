@@ -28,6 +28,7 @@ import org.jetbrains.kotlin.codegen.CompilationErrorHandler
 import org.jetbrains.kotlin.codegen.KotlinCodegenFacade
 import org.jetbrains.kotlin.codegen.state.GenerationState
 import org.jetbrains.kotlin.config.CompilerConfiguration
+import org.jetbrains.kotlin.config.JVMConfigurationKeys
 import org.jetbrains.kotlin.renderer.DescriptorRenderer
 import org.jetbrains.kotlin.resolve.lazy.descriptors.LazyScriptDescriptor
 import org.jetbrains.kotlin.script.KotlinScriptDefinition
@@ -103,6 +104,8 @@ open class GenericReplCompiler(
             generationState.replSpecific.resultType = type
             generationState.replSpecific.scriptResultFieldName = scriptResultFieldName(codeLine.no)
             generationState.replSpecific.earlierScriptsForReplInterpreter = compilerState.history.map { it.item }
+            generationState.replSpecific.earlierScriptsInArray =
+                compilerConfiguration.getBoolean(JVMConfigurationKeys.REPL_EARLIER_LINES_IN_ARRAY)
             generationState.beforeCompile()
             KotlinCodegenFacade.generatePackage(
                 generationState,
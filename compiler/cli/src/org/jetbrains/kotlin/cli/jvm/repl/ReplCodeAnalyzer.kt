@@ -170,15 +170,20 @@ class ReplCodeAnalyzer(environment: KotlinCoreEnvironment) {
     class ResettableAnalyzerState {
         private val successfulLines = ReplHistory<LineInfo.SuccessfulLine>()
         private val submittedLines = hashMapOf<KtFile, LineInfo>()
+        private val importingScopes = hashMapOf<KtFile, ImportingScope>()
 
         fun resetToLine(lineId: ILineId): List<ReplCodeLine> {
             val removed = successfulLines.resetToLine(lineId.no)
-            removed.forEach { submittedLines.remove(it.second.linePsi) }
+            removed.forEach {
+                submittedLines.remove(it.second.linePsi)
+                importingScopes.remove(it.second.linePsi)
+            }
             return removed.map { it.first }
         }
 
         fun reset(): List<ReplCodeLine> {
             submittedLines.clear()
+            importingScopes.clear()
             return successfulLines.reset().map { it.first }
         }
 
@@ -187,7 +192,10 @@ class ReplCodeAnalyzer(environment: KotlinCoreEnvironment) {
             submittedLines[ktFile] = line
             ktFile.fileScopesCustomizer = object : FileScopesCustomizer {
                 override fun createFileScopes(fileScopeFactory: FileScopeFactory): FileScopes {
-                    return lineInfo(ktFile)?.let { computeFileScopes(it, fileScopeFactory) } ?: fileScopeFactory.createScopesForFile(ktFile)
+                    val fileScopes =
+                        lineInfo(ktFile)?.let { computeFileScopes(it, fileScopeFactory) } ?: fileScopeFactory.createScopesForFile(ktFile)
+                    importingScopes[ktFile] = fileScopes.importingScope
+                    return fileScopes
                 }
             }
         }
@@ -221,8 +229,12 @@ class ReplCodeAnalyzer(environment: KotlinCoreEnvironment) {
 
         private fun computeFileScopes(lineInfo: LineInfo, fileScopeFactory: FileScopeFactory): FileScopes? {
             // create scope that wraps previous line lexical scope and adds imports from this line
-            val lexicalScopeAfterLastLine = lineInfo.parentLine?.lineDescriptor?.scopeForInitializerResolution ?: return null
-            val lastLineImports = lexicalScopeAfterLastLine.parentsWithSelf.first { it is ImportingScope } as ImportingScope
+            val parentLine = lineInfo.parentLine ?: return null
+            val lexicalScopeAfterLastLine = parentLine.lineDescriptor.scopeForInitializerResolution
+            // The importing scope is at the bottom of the lexical scope chain, which has a level per each earlier line,
+            // so it is remembered for every line instead of being looked up in the chain
+            val lastLineImports = importingScopes[parentLine.linePsi]
+                ?: lexicalScopeAfterLastLine.parentsWithSelf.first { it is ImportingScope } as ImportingScope
             val scopesForThisLine = fileScopeFactory.createScopesForFile(lineInfo.linePsi, lastLineImports)
             val combinedLexicalScopes = lexicalScopeAfterLastLine.replaceImportingScopes(scopesForThisLine.importingScope)
             return FileScopes(combinedLexicalScopes, scopesForThisLine.importingScope, scopesForThisLine.importForceResolver)
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.fir.java
+
+import org.jetbrains.kotlin.fir.FirSession
+import org.jetbrains.kotlin.fir.deserialization.FirTypeDeserializer
+import org.jetbrains.kotlin.fir.resolve.AbstractFirSymbolProvider
+import org.jetbrains.kotlin.fir.resolve.FirSymbolProvider
+import org.jetbrains.kotlin.fir.symbols.ConeSymbol
+import org.jetbrains.kotlin.fir.symbols.LibraryClassSymbol
+import org.jetbrains.kotlin.load.kotlin.FileBasedKotlinClass
+import org.jetbrains.kotlin.load.kotlin.header.KotlinClassHeader
+import org.jetbrains.kotlin.metadata.deserialization.TypeTable
+import org.jetbrains.kotlin.metadata.jvm.deserialization.JvmProtoBufUtil
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.name.FqName
+import java.io.Closeable
+import java.io.File
+import java.util.zip.ZipFile
+
+/**
+ * Provides symbols of Kotlin classes compiled to the given classpath [roots] (jars or directories), without creating descriptors.
+ *
+ * On the first request the provider builds an index of packages to class files. For jars only the central directory is read
+ * for that, class files are read and deserialized lazily when their symbol is requested for the first time.
+ * Opened jars are closed by [close], which is called when the owning [FirLibrarySession] is closed.
+ */
+class FirClasspathSymbolProvider(
+    val session: FirSession,
+    private val roots: List<File>
+) : AbstractFirSymbolProvider(), Closeable {
+
+    private abstract class ClasspathRoot : Closeable {
+        // package -> names of class files in that package without the ".class" extension
+        abstract val index: Map<FqName, Set<String>>
+
+        abstract fun readClassFile(packageFqName: FqName, className: String): ByteArray?
+    }
+
+    private class JarRoot(file: File) : ClasspathRoot() {
+        private val zipFile = ZipFile(file)
+
+        override val index: Map<FqName, Set<String>> by lazy {
+            val result = HashMap<FqName, MutableSet<String>>()
+            for (entry in zipFile.entries()) {
+                if (!entry.isDirectory && entry.name.endsWith(CLASS_FILE_SUFFIX)) {
+                    val path = entry.name.removeSuffix(CLASS_FILE_SUFFIX)
+                    val packageFqName = FqName(path.substringBeforeLast('/', "").replace('/', '.'))
+                    result.getOrPut(packageFqName) { HashSet() } += path.substringAfterLast('/')
+                }
+            }
+            result
+        }
+
+        override fun readClassFile(packageFqName: FqName, className: String): ByteArray? {
+            val entry = zipFile.getEntry(classFilePath(packageFqName, className)) ?: return null
+            return zipFile.getInputStream(entry).use { it.readBytes() }
+        }
+
+        override fun close() {
+            zipFile.close()
+        }
+    }
+
+    private class DirectoryRoot(private val directory: File) : ClasspathRoot() {
+        override val index: Map<FqName, Set<String>> by lazy {
+            val result = HashMap<FqName, MutableSet<String>>()
+            for (file in directory.walkTopDown()) {
+                if (file.isFile && file.name.endsWith(CLASS_FILE_SUFFIX)) {
+                    val packagePath = file.parentFile.toRelativeString(directory)
+                    val packageFqName = FqName(packagePath.replace(File.separatorChar, '.'))
+                    result.getOrPut(packageFqName) { HashSet() } += file.name.removeSuffix(CLASS_FILE_SUFFIX)
+                }
+            }
+            result
+        }
+
+        override fun readClassFile(packageFqName: FqName, className: String): ByteArray? {
+            val file = File(directory, classFilePath(packageFqName, className))
+            return if (file.isFile) file.readBytes() else null
+        }
+
+        override fun close() {}
+    }
+
+    private val classpathRoots: List<ClasspathRoot> by lazy {
+        roots.mapNotNull { root ->
+            when {
+                root.isDirectory -> DirectoryRoot(root)
+                root.isFile && root.extension == "jar" -> JarRoot(root)
+                else -> null
+            }
+        }
+    }
+
+    private val symbolProvider: FirSymbolProvider by lazy { FirSymbolProvider.getInstance(session) }
+
+    override fun getPackage(fqName: FqName): FqName? {
+        return packageCache.lookupCacheOrCalculate(fqName) {
+            fqName.takeIf { classpathRoots.any { root -> fqName in root.index } }
+        }
+    }
+
+    override fun getSymbolByFqName(classId: ClassId): ConeSymbol? {
+        return classCache.lookupCacheOrCalculate(classId) {
+            if (classId.isLocal) return@lookupCacheOrCalculate null
+            val packageFqName = classId.packageFqName
+            val className = classId.relativeClassName.asString().replace('.', '$')
+
+            classpathRoots.asSequence().filter { root ->
+                root.index[packageFqName]?.contains(className) == true
+            }.mapNotNull { root ->
+                root.readClassFile(packageFqName, className)?.let(::deserializeClass)
+            }.firstOrNull()
+        }
+    }
+
+    private fun deserializeClass(classFileContent: ByteArray): ConeSymbol? {
+        val header = FileBasedKotlinClass.create(classFileContent) { _, _, header, _ -> header } ?: return null
+        // Metadata of incompatible versions can't be read by this compiler, such classes are skipped like non-Kotlin ones
+        if (header.kind != KotlinClassHeader.Kind.CLASS || !header.metadataVersion.isCompatible()) return null
+        val data = header.data ?: return null
+        val strings = header.strings ?: return null
+
+        val (nameResolver, classProto) = JvmProtoBufUtil.readClassDataFrom(data, strings)
+        return LibraryClassSymbol(
+            classProto, nameResolver,
+            FirTypeDeserializer(
+                nameResolver,
+                TypeTable(classProto.typeTable),
+                symbolProvider,
+                classProto.typeParameterList,
+                null
+            )
+        )
+    }
+
+    override fun close() {
+        classpathRoots.forEach(ClasspathRoot::close)
+    }
+
+    private companion object {
+        const val CLASS_FILE_SUFFIX = ".class"
+
+        fun classFilePath(packageFqName: FqName, className: String): String =
+            if (packageFqName.isRoot) "$className$CLASS_FILE_SUFFIX"
+            else "${packageFqName.asString().replace('.', '/')}/$className$CLASS_FILE_SUFFIX"
+    }
+}
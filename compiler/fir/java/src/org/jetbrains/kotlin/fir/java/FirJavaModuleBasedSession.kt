@@ -14,6 +14,8 @@ import org.jetbrains.kotlin.fir.resolve.FirSymbolProvider
 import org.jetbrains.kotlin.fir.resolve.impl.FirCompositeSymbolProvider
 import org.jetbrains.kotlin.fir.resolve.impl.FirDependenciesSymbolProviderImpl
 import org.jetbrains.kotlin.fir.resolve.impl.FirLibrarySymbolProviderImpl
+import java.io.Closeable
+import java.io.File
 
 class FirJavaModuleBasedSession(
     moduleInfo: ModuleInfo,
@@ -38,21 +40,29 @@ class FirJavaModuleBasedSession(
 class FirLibrarySession(
     moduleInfo: ModuleInfo,
     override val sessionProvider: FirProjectSessionProvider,
-    scope: GlobalSearchScope
-) : FirSessionBase() {
+    scope: GlobalSearchScope,
+    classpath: List<File> = emptyList()
+) : FirSessionBase(), Closeable {
+    private val classpathSymbolProvider = if (classpath.isNotEmpty()) FirClasspathSymbolProvider(this, classpath) else null
+
     init {
         sessionProvider.sessionCache[moduleInfo] = this
         registerComponent(
             FirSymbolProvider::class,
             FirCompositeSymbolProvider(
-                listOf(
+                listOfNotNull(
                     FirLibrarySymbolProviderImpl(this),
+                    classpathSymbolProvider,
                     JavaSymbolProvider(sessionProvider.project, scope),
                     FirDependenciesSymbolProviderImpl(this)
                 )
             )
         )
     }
+
+    override fun close() {
+        classpathSymbolProvider?.close()
+    }
 }
 
 class FirProjectSessionProvider(val project: Project) : FirSessionProvider {
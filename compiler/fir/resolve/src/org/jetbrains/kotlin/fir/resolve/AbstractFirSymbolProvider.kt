@@ -8,18 +8,23 @@ package org.jetbrains.kotlin.fir.resolve
 import org.jetbrains.kotlin.fir.symbols.ConeSymbol
 import org.jetbrains.kotlin.name.ClassId
 import org.jetbrains.kotlin.name.FqName
+import java.util.concurrent.ConcurrentHashMap
 
 abstract class AbstractFirSymbolProvider : FirSymbolProvider {
-    protected val classCache = mutableMapOf<ClassId, ConeSymbol?>()
-    protected val packageCache = mutableMapOf<FqName, FqName?>()
+    protected val classCache = ConcurrentHashMap<ClassId, Any>()
+    protected val packageCache = ConcurrentHashMap<FqName, Any>()
 
-    protected inline fun <K, V : Any?> MutableMap<K, V>.lookupCacheOrCalculate(key: K, crossinline l: (K) -> V): V? {
-        return if (key in this.keys) {
-            this[key]
-        } else {
-            val calculated = l(key)
-            this[key] = calculated
-            calculated
+    // Values are calculated outside of the map, so concurrent lookups may calculate the same value twice,
+    // but all of them observe the one which was cached first
+    protected inline fun <K, V : Any?> ConcurrentHashMap<K, Any>.lookupCacheOrCalculate(key: K, crossinline l: (K) -> V): V? {
+        val value = this[key] ?: run {
+            val calculated: Any = l(key) ?: NULL_VALUE
+            putIfAbsent(key, calculated) ?: calculated
         }
+        @Suppress("UNCHECKED_CAST")
+        return if (value === NULL_VALUE) null else value as V
     }
-}
\ No newline at end of file
+}
+
+@PublishedApi
+internal val NULL_VALUE = Any()
@@ -25,6 +25,7 @@ import org.jetbrains.kotlin.serialization.deserialization.ProtoBasedClassDataFin
 import org.jetbrains.kotlin.serialization.deserialization.builtins.BuiltInSerializerProtocol
 import org.jetbrains.kotlin.utils.addToStdlib.firstNotNullResult
 import java.io.InputStream
+import java.util.concurrent.ConcurrentHashMap
 
 class FirLibrarySymbolProviderImpl(val session: FirSession) : FirSymbolProvider {
 
@@ -52,7 +53,7 @@ class FirLibrarySymbolProviderImpl(val session: FirSession) : FirSymbolProvider
         val classDataFinder = ProtoBasedClassDataFinder(packageProto, nameResolver, version) { SourceElement.NO_SOURCE }
 
 
-        val lookup = mutableMapOf<ClassId, ConeSymbol>()
+        val lookup = ConcurrentHashMap<ClassId, ConeSymbol>()
 
         fun getSymbolByFqName(classId: ClassId, provider: FirSymbolProvider): ConeSymbol? {
 
@@ -92,7 +93,7 @@ class FirLibrarySymbolProviderImpl(val session: FirSession) : FirSymbolProvider
 
     private val allPackageFragments = loadBuiltIns().groupBy { it.fqName }
 
-    private val fictitiousFunctionSymbols = mutableMapOf<Int, ConeSymbol>()
+    private val fictitiousFunctionSymbols = ConcurrentHashMap<Int, ConeSymbol>()
 
     override fun getSymbolByFqName(classId: ClassId): ConeSymbol? {
         return allPackageFragments[classId.packageFqName]?.firstNotNullResult {
@@ -16,6 +16,7 @@ import org.jetbrains.kotlin.fir.symbols.FirSymbolOwner
 import org.jetbrains.kotlin.fir.visitors.FirVisitorVoid
 import org.jetbrains.kotlin.name.ClassId
 import org.jetbrains.kotlin.name.FqName
+import java.util.concurrent.ConcurrentHashMap
 
 class FirProviderImpl(val session: FirSession) : FirProvider {
 
@@ -64,9 +65,9 @@ class FirProviderImpl(val session: FirSession) : FirProvider {
         })
     }
 
-    private val fileMap = mutableMapOf<FqName, List<FirFile>>()
-    private val classifierMap = mutableMapOf<ClassId, FirMemberDeclaration>()
-    private val classifierContainerFileMap = mutableMapOf<ClassId, FirFile>()
+    private val fileMap = ConcurrentHashMap<FqName, List<FirFile>>()
+    private val classifierMap = ConcurrentHashMap<ClassId, FirMemberDeclaration>()
+    private val classifierContainerFileMap = ConcurrentHashMap<ClassId, FirFile>()
 
     override fun getFirFilesByPackage(fqName: FqName): List<FirFile> {
         return fileMap[fqName].orEmpty()
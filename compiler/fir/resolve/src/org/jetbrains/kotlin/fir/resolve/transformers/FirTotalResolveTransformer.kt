@@ -7,15 +7,23 @@ package org.jetbrains.kotlin.fir.resolve.transformers
 
 import org.jetbrains.kotlin.fir.declarations.FirFile
 import org.jetbrains.kotlin.fir.visitors.FirTransformer
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
 
 class FirTotalResolveTransformer {
 
-    private val transformers: List<FirTransformer<Nothing?>> = listOf(
-        FirImportResolveTransformer(),
-        FirTypeResolveTransformer(),
-        FirStatusResolveTransformer()
+    private class Phase(val isFileLocal: Boolean, val createTransformer: () -> FirTransformer<Nothing?>)
+
+    private val phases: List<Phase> = listOf(
+        Phase(isFileLocal = true) { FirImportResolveTransformer() },
+        // Supertype resolution may transform classes of other files, see FirTypeResolveTransformer.SuperTypeResolver
+        Phase(isFileLocal = false) { FirTypeResolveTransformer() },
+        Phase(isFileLocal = true) { FirStatusResolveTransformer() }
     )
 
+    private val transformers: List<FirTransformer<Nothing?>> = phases.map { it.createTransformer() }
+
     fun processFile(firFile: FirFile) {
         for (transformer in transformers) {
             firFile.transform<FirFile, Nothing?>(transformer, null)
@@ -29,4 +37,31 @@ class FirTotalResolveTransformer {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Same as [processFiles], but files are processed concurrently on [executor], each with its own transformer instance.
+     * A phase is started only when the previous one is finished for all files.
+     * Phases which may modify declarations outside of the processed file are still run sequentially.
+     */
+    fun processFilesInParallel(files: List<FirFile>, executor: ExecutorService) {
+        for ((phase, transformer) in phases.zip(transformers)) {
+            if (!phase.isFileLocal) {
+                for (firFile in files) {
+                    firFile.transform<FirFile, Nothing?>(transformer, null)
+                }
+                continue
+            }
+
+            val futures = files.map { firFile ->
+                executor.submit(Callable { firFile.transform<FirFile, Nothing?>(phase.createTransformer(), null) })
+            }
+            for (future in futures) {
+                try {
+                    future.get()
+                } catch (e: ExecutionException) {
+                    throw e.cause ?: e
+                }
+            }
+        }
+    }
+}
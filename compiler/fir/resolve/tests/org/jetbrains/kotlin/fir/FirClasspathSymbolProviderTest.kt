@@ -0,0 +1,77 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.fir
+
+import com.intellij.psi.search.GlobalSearchScope
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.codegen.forTestCompile.ForTestCompileRuntime
+import org.jetbrains.kotlin.fir.java.FirClasspathSymbolProvider
+import org.jetbrains.kotlin.fir.java.FirLibrarySession
+import org.jetbrains.kotlin.fir.java.FirProjectSessionProvider
+import org.jetbrains.kotlin.fir.resolve.FirSymbolProvider
+import org.jetbrains.kotlin.fir.symbols.LibraryClassSymbol
+import org.jetbrains.kotlin.name.ClassId
+import org.jetbrains.kotlin.name.FqName
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.test.KotlinTestWithEnvironment
+import org.jetbrains.org.objectweb.asm.ClassWriter
+import org.jetbrains.org.objectweb.asm.Opcodes
+import java.io.File
+
+class FirClasspathSymbolProviderTest : KotlinTestWithEnvironment() {
+    override fun createEnvironment(): KotlinCoreEnvironment {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_NO_RUNTIME)
+    }
+
+    private fun createLibrarySession(classpath: List<File>): FirLibrarySession =
+        FirLibrarySession(FirTestModuleInfo(), FirProjectSessionProvider(project), GlobalSearchScope.EMPTY_SCOPE, classpath)
+
+    fun testClassesFromJar() {
+        createLibrarySession(listOf(ForTestCompileRuntime.runtimeJarForTests())).use { session ->
+            val symbolProvider = session.service<FirSymbolProvider>()
+
+            val pair = symbolProvider.getSymbolByFqName(ClassId.fromString("kotlin/Pair"))
+            assertTrue(pair.toString(), pair is LibraryClassSymbol)
+            assertEquals(ClassId.fromString("kotlin/Pair"), (pair as LibraryClassSymbol).classId)
+
+            assertNotNull(symbolProvider.getPackage(FqName("kotlin.text")))
+            assertNull(symbolProvider.getSymbolByFqName(ClassId.fromString("kotlin/NoSuchClass")))
+        }
+    }
+
+    fun testFacadesAreSkipped() {
+        val session = createLibrarySession(emptyList())
+        FirClasspathSymbolProvider(session, listOf(ForTestCompileRuntime.runtimeJarForTests())).use { provider ->
+            assertNull(provider.getSymbolByFqName(ClassId.fromString("kotlin/collections/CollectionsKt")))
+        }
+    }
+
+    fun testIncompatibleMetadataIsSkipped() {
+        val classesDir = KotlinTestUtils.tmpDirForTest(this)
+        File(classesDir, "test/Old.class").apply { parentFile.mkdirs() }.writeBytes(createClassWithMetadataVersion(1, 0, 0))
+
+        createLibrarySession(listOf(classesDir)).use { session ->
+            assertNotNull(session.service<FirSymbolProvider>().getPackage(FqName("test")))
+            assertNull(session.service<FirSymbolProvider>().getSymbolByFqName(ClassId.fromString("test/Old")))
+        }
+    }
+
+    private fun createClassWithMetadataVersion(vararg version: Int): ByteArray {
+        val writer = ClassWriter(0)
+        writer.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, "test/Old", null, "java/lang/Object", null)
+        writer.visitAnnotation("Lkotlin/Metadata;", true).apply {
+            visit("mv", version)
+            visit("bv", intArrayOf(1, 0, 0))
+            visit("k", 1)
+            visitArray("d1").apply { visit(null, "broken"); visitEnd() }
+            visitArray("d2").visitEnd()
+            visitEnd()
+        }
+        writer.visitEnd()
+        return writer.toByteArray()
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.fir
+
+import com.intellij.psi.search.GlobalSearchScope
+import com.intellij.testFramework.TestDataPath
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.fir.builder.RawFirBuilder
+import org.jetbrains.kotlin.fir.declarations.FirFile
+import org.jetbrains.kotlin.fir.resolve.FirProvider
+import org.jetbrains.kotlin.fir.resolve.impl.FirProviderImpl
+import org.jetbrains.kotlin.fir.resolve.transformers.FirTotalResolveTransformer
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.JUnit3RunnerWithInners
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.junit.runner.RunWith
+import java.io.File
+import java.util.concurrent.Executors
+import kotlin.system.measureNanoTime
+
+@TestDataPath("\$PROJECT_ROOT")
+@RunWith(JUnit3RunnerWithInners::class)
+class FirResolveTotalKotlinTestCase : AbstractFirResolveWithSessionTestCase() {
+    override fun createEnvironment(): KotlinCoreEnvironment {
+        return createEnvironmentWithMockJdk(ConfigurationKind.JDK_NO_RUNTIME)
+    }
+
+    private fun buildFir(root: File, filter: (File) -> Boolean): List<FirFile> {
+        val ktFiles = root.walkTopDown().filter { file ->
+            !file.isDirectory && file.extension == "kt" && filter(file)
+        }.map { file ->
+            KotlinTestUtils.createFile(file.toRelativeString(root), KotlinTestUtils.doLoadFile(file), project)
+        }.toList()
+
+        val session = createSession(GlobalSearchScope.filesScope(project, ktFiles.mapNotNull { it.virtualFile }))
+        val builder = RawFirBuilder(session)
+        val firProvider = session.service<FirProvider>() as FirProviderImpl
+        return ktFiles.map { ktFile ->
+            builder.buildFirFile(ktFile).also { firProvider.recordFile(it) }
+        }
+    }
+
+    private fun buildTotalKotlinFir(): List<FirFile> =
+        buildFir(File(KotlinTestUtils.getHomeDirectory())) { file ->
+            !file.path.contains("testData") && !file.path.contains("resources")
+        }
+
+    fun testParallelResolveGivesSameResult() {
+        // Files of the resolve tests, which don't need the standard library, resolved together in one session
+        fun buildTestDataFir() = buildFir(File("compiler/fir/resolve/testData/resolve")) { file -> !file.path.contains("stdlib") }
+
+        val sequentialFiles = buildTestDataFir()
+        FirTotalResolveTransformer().processFiles(sequentialFiles)
+
+        val parallelFiles = buildTestDataFir()
+        val executor = Executors.newFixedThreadPool(4)
+        try {
+            FirTotalResolveTransformer().processFilesInParallel(parallelFiles, executor)
+        } finally {
+            executor.shutdown()
+        }
+
+        assertTrue(sequentialFiles.isNotEmpty())
+        assertEquals(sequentialFiles.map { it.name }, parallelFiles.map { it.name })
+        for ((sequential, parallel) in sequentialFiles.zip(parallelFiles)) {
+            assertEquals(sequential.name, sequential.render(), parallel.render())
+        }
+    }
+
+    fun testParallelResolveScaling() {
+        val availableProcessors = Runtime.getRuntime().availableProcessors()
+        for (threads in generateSequence(1) { it * 2 }.takeWhile { it <= availableProcessors }) {
+            val firFiles = buildTotalKotlinFir()
+            val executor = Executors.newFixedThreadPool(threads)
+            try {
+                val time = measureNanoTime {
+                    FirTotalResolveTransformer().processFilesInParallel(firFiles, executor)
+                }
+                println("THREADS: $threads, TIME: ${time * 1e-6} ms, TIME PER FILE: ${(time / firFiles.size) * 1e-6} ms, COUNTER: ${firFiles.size}")
+            } finally {
+                executor.shutdown()
+            }
+        }
+    }
+}
@@ -65,10 +65,28 @@ public class JVMConfigurationKeys {
             CompilerConfigurationKey.create("assertions mode");
     public static final CompilerConfigurationKey<JVMConstructorCallNormalizationMode> CONSTRUCTOR_CALL_NORMALIZATION_MODE =
             CompilerConfigurationKey.create("constructor call normalization mode");
+    public static final CompilerConfigurationKey<JvmStringConcat> STRING_CONCAT =
+            CompilerConfigurationKey.create("string concatenation and templates code generation scheme");
     public static final CompilerConfigurationKey<Boolean> NO_EXCEPTION_ON_EXPLICIT_EQUALS_FOR_BOXED_NULL =
             CompilerConfigurationKey.create("do not throw NPE on explicit 'equals' call for null receiver of platform boxed primitive type");
     public static final CompilerConfigurationKey<Boolean> DISABLE_OPTIMIZATION =
             CompilerConfigurationKey.create("disable optimization");
+    public static final CompilerConfigurationKey<Boolean> OPTIMIZE_COROUTINE_SPILLING =
+            CompilerConfigurationKey.create("optimize spilling of variables to continuation fields in coroutines");
+    public static final CompilerConfigurationKey<Boolean> SCALARIZE_CLOSURES =
+            CompilerConfigurationKey.create("replace closures which don't escape the method with local variables");
+    public static final CompilerConfigurationKey<Boolean> SEALED_CLASS_WHEN_SWITCH =
+            CompilerConfigurationKey.create("generate 'when' over sealed classes as a switch by the subject class name");
+    public static final CompilerConfigurationKey<Boolean> INDEXED_LIST_LOOPS =
+            CompilerConfigurationKey.create("iterate java.util.ArrayList instances by index in 'for' loops");
+    public static final CompilerConfigurationKey<Boolean> OPTIMIZE_NULLABLE_PRIMITIVE_LOCALS =
+            CompilerConfigurationKey.create("store local variables of nullable primitive types without boxing");
+    public static final CompilerConfigurationKey<Boolean> REPORT_OPTIMIZATION_STATISTICS =
+            CompilerConfigurationKey.create("report the number of instructions removed by bytecode optimizations");
+    public static final CompilerConfigurationKey<Boolean> SPECIALIZE_FOR_INLINE_CLASSES =
+            CompilerConfigurationKey.create("generate copies of private functions specialized for inline class values");
+    public static final CompilerConfigurationKey<Boolean> ELIMINATE_INTERNAL_PARAMETER_CHECKS =
+            CompilerConfigurationKey.create("don't generate parameter assertions in internal functions only called with non-null arguments");
     public static final CompilerConfigurationKey<Boolean> INHERIT_MULTIFILE_PARTS =
             CompilerConfigurationKey.create("compile multifile classes to a hierarchy of parts and facade");
     public static final CompilerConfigurationKey<Boolean> USE_TYPE_TABLE =
@@ -137,4 +155,7 @@ public class JVMConfigurationKeys {
 
     public static final CompilerConfigurationKey<Boolean> ENABLE_JVM_DEFAULT =
             CompilerConfigurationKey.create("Allow to use '@JvmDefault'");
+
+    public static final CompilerConfigurationKey<Boolean> REPL_EARLIER_LINES_IN_ARRAY =
+            CompilerConfigurationKey.create("keep instances of earlier REPL lines in a single array field of each line");
 }
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.config
+
+enum class JvmStringConcat(val description: String) {
+    INLINE("inline"),
+    INDY_WITH_CONSTANTS("indy-with-constants")
+    ;
+
+    val isDynamic: Boolean
+        get() = this != INLINE
+
+    companion object {
+        @JvmStatic
+        fun isSupportedValue(string: String?) =
+            string == null || values().any { it.description == string }
+
+        @JvmStatic
+        fun fromStringOrNull(string: String?) =
+            values().find { it.description == string }
+    }
+}
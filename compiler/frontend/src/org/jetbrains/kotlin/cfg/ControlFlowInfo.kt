@@ -19,38 +19,133 @@ package org.jetbrains.kotlin.cfg
 import org.jetbrains.kotlin.descriptors.VariableDescriptor
 import org.jetbrains.kotlin.util.javaslang.ImmutableHashMap
 import org.jetbrains.kotlin.util.javaslang.ImmutableMap
-import org.jetbrains.kotlin.util.javaslang.component1
-import org.jetbrains.kotlin.util.javaslang.component2
+import java.util.Arrays
 
+/**
+ * Numbers the variables tracked by a dataflow analysis of one pseudocode,
+ * so that [ControlFlowInfo] can keep the state of each variable in a primitive array
+ */
+class ControlFlowVariables(variables: Collection<VariableDescriptor>) {
+    private val variables = variables.toTypedArray()
+    private val indices = HashMap<VariableDescriptor, Int>(variables.size * 2).apply {
+        this@ControlFlowVariables.variables.forEachIndexed { index, variable -> put(variable, index) }
+    }
+
+    val size: Int get() = variables.size
+
+    operator fun get(index: Int): VariableDescriptor = variables[index]
+
+    fun indexOf(variable: VariableDescriptor): Int = indices[variable] ?: -1
+}
+
+/**
+ * Immutable state of tracked variables.
+ * Zero means that there is no information about the variable, other values are produced by [encode]
+ */
 abstract class ControlFlowInfo<S : ControlFlowInfo<S, D>, D : Any>
 internal constructor(
-    protected val map: ImmutableMap<VariableDescriptor, D> = ImmutableHashMap.empty()
-) : ImmutableMap<VariableDescriptor, D> by map, ReadOnlyControlFlowInfo<D> {
-    abstract protected fun copy(newMap: ImmutableMap<VariableDescriptor, D>): S
+    val variables: ControlFlowVariables,
+    protected val states: ByteArray
+) : ReadOnlyControlFlowInfo<D> {
+    private var hashCode = 0
+
+    abstract protected fun copy(newStates: ByteArray): S
 
-    override fun put(key: VariableDescriptor, value: D): S = put(key, value, this[key].getOrElse(null as D?))
+    abstract protected fun encode(value: D): Byte
+
+    abstract protected fun decode(state: Byte): D
+
+    fun put(key: VariableDescriptor, value: D): S = put(key, value, getOrNull(key))
 
     /**
      * This overload exists just for sake of optimizations: in some cases we've just retrieved the old value,
-     * so we don't need to scan through the persistent hashmap again
+     * so we don't need to look it up again
      */
     fun put(key: VariableDescriptor, value: D, oldValue: D?): S {
         @Suppress("UNCHECKED_CAST")
         // Avoid a copy instance creation if new value is the same
         if (value == oldValue) return this as S
-        return copy(map.put(key, value))
+        val index = variables.indexOf(key)
+        assert(index >= 0) { "Variable is not tracked by this analysis: $key" }
+        val newStates = states.copyOf()
+        newStates[index] = encode(value)
+        return copy(newStates)
     }
 
-    override fun getOrNull(variableDescriptor: VariableDescriptor): D? = this[variableDescriptor].getOrElse(null as D?)
-    override fun asMap() = this
+    /**
+     * Creates an info for the same variables with the values given by [valueAt], null meaning no information.
+     * Unlike a sequence of [put] calls it copies the states only once
+     */
+    inline fun create(valueAt: (index: Int) -> D?): S {
+        val newStates = ByteArray(variables.size)
+        for (index in newStates.indices) {
+            newStates[index] = valueAt(index)?.let { encodeState(it) } ?: NO_STATE
+        }
+        return createFromStates(newStates)
+    }
 
-    fun retainAll(predicate: (VariableDescriptor) -> Boolean): S = copy(map.removeAll(map.keySet().filterNot(predicate)))
+    @PublishedApi
+    internal fun encodeState(value: D): Byte = encode(value)
 
-    override fun equals(other: Any?) = map == (other as? ControlFlowInfo<*, *>)?.map
+    @PublishedApi
+    internal fun createFromStates(newStates: ByteArray): S {
+        @Suppress("UNCHECKED_CAST")
+        return if (Arrays.equals(newStates, states)) this as S else copy(newStates)
+    }
 
-    override fun hashCode() = map.hashCode()
+    override fun getOrNull(variableDescriptor: VariableDescriptor): D? {
+        val index = variables.indexOf(variableDescriptor)
+        return if (index < 0) null else getOrNull(index)
+    }
+
+    fun getOrNull(index: Int): D? {
+        val state = states[index]
+        return if (state == NO_STATE) null else decode(state)
+    }
+
+    inline fun forEach(action: (VariableDescriptor, D) -> Unit) {
+        for (index in 0 until variables.size) {
+            val value = getOrNull(index) ?: continue
+            action(variables[index], value)
+        }
+    }
 
-    override fun toString() = map.toString()
+    override fun asMap(): ImmutableMap<VariableDescriptor, D> {
+        var result = ImmutableHashMap.empty<VariableDescriptor, D>()
+        forEach { variable, value -> result = result.put(variable, value) }
+        return result
+    }
+
+    fun retainAll(predicate: (VariableDescriptor) -> Boolean): S {
+        var newStates: ByteArray? = null
+        for (index in states.indices) {
+            if (states[index] != NO_STATE && !predicate(variables[index])) {
+                if (newStates == null) newStates = states.copyOf()
+                newStates[index] = NO_STATE
+            }
+        }
+        @Suppress("UNCHECKED_CAST")
+        return if (newStates == null) this as S else copy(newStates)
+    }
+
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is ControlFlowInfo<*, *> || javaClass != other.javaClass) return false
+        return variables === other.variables && Arrays.equals(states, other.states)
+    }
+
+    override fun hashCode(): Int {
+        if (hashCode == 0) {
+            hashCode = Arrays.hashCode(states)
+        }
+        return hashCode
+    }
+
+    override fun toString() = asMap().toString()
+
+    companion object {
+        const val NO_STATE: Byte = 0
+    }
 }
 
 interface ReadOnlyControlFlowInfo<D : Any> {
@@ -65,15 +160,20 @@ interface ReadOnlyInitControlFlowInfo : ReadOnlyControlFlowInfo<VariableControlF
 
 typealias ReadOnlyUseControlFlowInfo = ReadOnlyControlFlowInfo<VariableUseState>
 
-class InitControlFlowInfo(map: ImmutableMap<VariableDescriptor, VariableControlFlowState> = ImmutableHashMap.empty()) :
-    ControlFlowInfo<InitControlFlowInfo, VariableControlFlowState>(map), ReadOnlyInitControlFlowInfo {
-    override fun copy(newMap: ImmutableMap<VariableDescriptor, VariableControlFlowState>) = InitControlFlowInfo(newMap)
+class InitControlFlowInfo(variables: ControlFlowVariables, states: ByteArray = ByteArray(variables.size)) :
+    ControlFlowInfo<InitControlFlowInfo, VariableControlFlowState>(variables, states), ReadOnlyInitControlFlowInfo {
+    override fun copy(newStates: ByteArray) = InitControlFlowInfo(variables, newStates)
+
+    override fun encode(value: VariableControlFlowState): Byte =
+        (1 + value.initState.ordinal * 2 + if (value.isDeclared) 1 else 0).toByte()
+
+    override fun decode(state: Byte): VariableControlFlowState = VARIABLE_STATES[state - 1]
 
     // this = output of EXHAUSTIVE_WHEN_ELSE instruction
     // merge = input of MergeInstruction
     // returns true if definite initialization in when happens here
     override fun checkDefiniteInitializationInWhen(merge: ReadOnlyInitControlFlowInfo): Boolean {
-        for ((key, value) in iterator()) {
+        forEach { key, value ->
             if (value.initState == InitState.INITIALIZED_EXHAUSTIVELY &&
                 merge.getOrNull(key)?.initState == InitState.INITIALIZED) {
                 return true
@@ -83,11 +183,21 @@ class InitControlFlowInfo(map: ImmutableMap<VariableDescriptor, VariableControlF
     }
 }
 
-class UseControlFlowInfo(map: ImmutableMap<VariableDescriptor, VariableUseState> = ImmutableHashMap.empty()) :
-    ControlFlowInfo<UseControlFlowInfo, VariableUseState>(map), ReadOnlyUseControlFlowInfo {
-    override fun copy(newMap: ImmutableMap<VariableDescriptor, VariableUseState>) = UseControlFlowInfo(newMap)
+class UseControlFlowInfo(variables: ControlFlowVariables, states: ByteArray = ByteArray(variables.size)) :
+    ControlFlowInfo<UseControlFlowInfo, VariableUseState>(variables, states), ReadOnlyUseControlFlowInfo {
+    override fun copy(newStates: ByteArray) = UseControlFlowInfo(variables, newStates)
+
+    override fun encode(value: VariableUseState): Byte = (1 + value.ordinal).toByte()
+
+    override fun decode(state: Byte): VariableUseState = USE_STATES[state - 1]
 }
 
+private val VARIABLE_STATES = InitState.values().flatMap {
+    listOf(VariableControlFlowState.create(it, isDeclared = false), VariableControlFlowState.create(it, isDeclared = true))
+}
+
+private val USE_STATES = VariableUseState.values()
+
 enum class InitState(private val s: String) {
     // Definitely initialized
     INITIALIZED("I"),
@@ -34,8 +34,6 @@ import org.jetbrains.kotlin.resolve.BindingContext
 import org.jetbrains.kotlin.resolve.BindingContextUtils.variableDescriptorForDeclaration
 import org.jetbrains.kotlin.util.javaslang.ImmutableHashMap
 import org.jetbrains.kotlin.util.javaslang.ImmutableMap
-import org.jetbrains.kotlin.util.javaslang.component1
-import org.jetbrains.kotlin.util.javaslang.component2
 import org.jetbrains.kotlin.utils.addToStdlib.safeAs
 
 private typealias ImmutableSet<T> = javaslang.collection.Set<T>
@@ -61,6 +59,11 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
         getAllDeclaredVariables(pseudocode, includeInsideLocalDeclarations = true)
     }
 
+    // Only non-trivial variables take part in the dataflow analyses below
+    private val trackedVariables by lazy(LazyThreadSafetyMode.NONE) {
+        ControlFlowVariables(rootVariables.nonTrivialVariables)
+    }
+
     val variableInitializers: Map<Instruction, Edges<ReadOnlyInitControlFlowInfo>> by lazy {
         computeVariableInitializers()
     }
@@ -153,10 +156,12 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
 
         return pseudocodeVariableDataCollector.collectData(
             TraversalOrder.FORWARD,
-            InitControlFlowInfo()
+            InitControlFlowInfo(trackedVariables)
         ) { instruction: Instruction, incomingEdgesData: Collection<InitControlFlowInfo> ->
 
-            val enterInstructionData = mergeIncomingEdgesDataForInitializers(instruction, incomingEdgesData, blockScopeVariableInfo)
+            val enterInstructionData = mergeIncomingEdgesDataForInitializers(
+                instruction, incomingEdgesData, trackedVariables, blockScopeVariableInfo
+            )
             val exitInstructionData = addVariableInitStateFromCurrentInstructionIfAny(
                 instruction, enterInstructionData, blockScopeVariableInfo
             )
@@ -253,10 +258,11 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
     ): InitControlFlowInfo {
         if (instruction is MagicInstruction) {
             if (instruction.kind === MagicKind.EXHAUSTIVE_WHEN_ELSE) {
-                return enterInstructionData.iterator().fold(enterInstructionData) { result, (key, value) ->
-                    if (!value.definitelyInitialized()) {
-                        result.put(key, VariableControlFlowState.createInitializedExhaustively(value.isDeclared))
-                    } else result
+                return enterInstructionData.create { index ->
+                    val value = enterInstructionData.getOrNull(index)
+                    if (value != null && !value.definitelyInitialized()) {
+                        VariableControlFlowState.createInitializedExhaustively(value.isDeclared)
+                    } else value
                 }
             }
         }
@@ -306,16 +312,19 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
 
             return pseudocodeVariableDataCollector.collectData(
                 TraversalOrder.BACKWARD,
-                UseControlFlowInfo()
+                UseControlFlowInfo(trackedVariables)
             ) { instruction: Instruction, incomingEdgesData: Collection<UseControlFlowInfo> ->
 
-                val enterResult: UseControlFlowInfo = if (incomingEdgesData.size == 1) {
-                    incomingEdgesData.single()
-                } else {
-                    incomingEdgesData.fold(UseControlFlowInfo()) { result, edgeData ->
-                        edgeData.iterator().fold(result) { subResult, (variableDescriptor, variableUseState) ->
-                            subResult.put(variableDescriptor, variableUseState.merge(subResult.getOrNull(variableDescriptor)))
+                val enterResult: UseControlFlowInfo = when (incomingEdgesData.size) {
+                    0 -> UseControlFlowInfo(trackedVariables)
+                    1 -> incomingEdgesData.single()
+                    else -> incomingEdgesData.first().create { index ->
+                        var mergedState: VariableUseState? = null
+                        for (edgeData in incomingEdgesData) {
+                            val variableUseState = edgeData.getOrNull(index) ?: continue
+                            mergedState = variableUseState.merge(mergedState)
                         }
+                        mergedState
                     }
                 }
 
@@ -428,25 +437,23 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
             return VariableControlFlowState.create(isInitialized = declaredOutsideThisDeclaration)
         }
 
-        private val EMPTY_INIT_CONTROL_FLOW_INFO = InitControlFlowInfo()
-
         private fun mergeIncomingEdgesDataForInitializers(
             instruction: Instruction,
             incomingEdgesData: Collection<InitControlFlowInfo>,
+            variables: ControlFlowVariables,
             blockScopeVariableInfo: BlockScopeVariableInfo
         ): InitControlFlowInfo {
             if (incomingEdgesData.size == 1) return incomingEdgesData.single()
-            if (incomingEdgesData.isEmpty()) return EMPTY_INIT_CONTROL_FLOW_INFO
-            val variablesInScope = linkedSetOf<VariableDescriptor>()
-            for (edgeData in incomingEdgesData) {
-                variablesInScope.addAll(edgeData.keySet())
-            }
+            if (incomingEdgesData.isEmpty()) return InitControlFlowInfo(variables)
+
+            return incomingEdgesData.first().create { index ->
+                if (incomingEdgesData.all { it.getOrNull(index) == null }) return@create null
 
-            return variablesInScope.fold(EMPTY_INIT_CONTROL_FLOW_INFO) { result, variable ->
+                val variable = variables[index]
                 var initState: InitState? = null
                 var isDeclared = true
                 for (edgeData in incomingEdgesData) {
-                    val varControlFlowState = edgeData.getOrNull(variable)
+                    val varControlFlowState = edgeData.getOrNull(index)
                             ?: getDefaultValueForInitializers(variable, instruction, blockScopeVariableInfo)
                     initState = initState?.merge(varControlFlowState.initState) ?: varControlFlowState.initState
                     if (!varControlFlowState.isDeclared) {
@@ -456,7 +463,7 @@ class PseudocodeVariablesData(val pseudocode: Pseudocode, private val bindingCon
                 if (initState == null) {
                     throw AssertionError("An empty set of incoming edges data")
                 }
-                result.put(variable, VariableControlFlowState.create(initState, isDeclared))
+                VariableControlFlowState.create(initState, isDeclared)
             }
         }
     }
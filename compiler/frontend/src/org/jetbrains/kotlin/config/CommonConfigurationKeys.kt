@@ -19,6 +19,7 @@ package org.jetbrains.kotlin.config
 import org.jetbrains.kotlin.incremental.components.ExpectActualTracker
 import org.jetbrains.kotlin.incremental.components.LookupTracker
 import org.jetbrains.kotlin.metadata.deserialization.BinaryVersion
+import org.jetbrains.kotlin.util.PhaseProfiler
 
 object CommonConfigurationKeys {
     @JvmField
@@ -72,6 +73,9 @@ object CommonConfigurationKeys {
     @JvmField
     val PROFILE_PHASES = CompilerConfigurationKey.create<Boolean>("profile backend phase execution")
 
+    @JvmField
+    val PHASE_PROFILER = CompilerConfigurationKey.create<PhaseProfiler>("collector of backend phase profiling results")
+
     @JvmField
     val EXCLUDED_ELEMENTS_FROM_DUMPING = CompilerConfigurationKey.create<Set<String>>("lowering elements which shouldn't be dumped at all")
 }
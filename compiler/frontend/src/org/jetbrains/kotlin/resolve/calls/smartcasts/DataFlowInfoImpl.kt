@@ -16,8 +16,6 @@
 
 package org.jetbrains.kotlin.resolve.calls.smartcasts
 
-import com.google.common.collect.LinkedHashMultimap
-import com.google.common.collect.SetMultimap
 import javaslang.Tuple2
 import org.jetbrains.kotlin.builtins.KotlinBuiltIns
 import org.jetbrains.kotlin.config.LanguageFeature
@@ -40,6 +38,36 @@ private fun <K, V> ImmutableMultimap<K, V>.put(key: K, value: V): ImmutableMulti
     return put(key, oldSet.add(value))
 }
 
+/**
+ * Collects new type info for a single data flow step.
+ * Most of the steps (e.g. null checks) don't add any types, so nothing is allocated until the first [put]
+ */
+private class TypeInfoBuilder {
+    private var typeInfo: MutableMap<DataFlowValue, MutableSet<KotlinType>>? = null
+
+    val isEmpty: Boolean get() = typeInfo == null
+
+    // A view of the collected types, the entries are wrapped one by one while iterating, without copying them to a list
+    val entries: Iterable<Tuple2<DataFlowValue, out Iterable<KotlinType>>>
+        get() = typeInfo?.entries?.asSequence()?.map { Tuple2(it.key, it.value) }?.asIterable() ?: emptyList()
+
+    fun put(value: DataFlowValue, type: KotlinType) {
+        getOrCreateTypes(value).add(type)
+    }
+
+    fun putAll(value: DataFlowValue, types: Iterable<KotlinType>) {
+        val iterator = types.iterator()
+        if (!iterator.hasNext()) return
+        val result = getOrCreateTypes(value)
+        iterator.forEach { result.add(it) }
+    }
+
+    private fun getOrCreateTypes(value: DataFlowValue): MutableSet<KotlinType> {
+        val map = typeInfo ?: LinkedHashMap<DataFlowValue, MutableSet<KotlinType>>(4).also { typeInfo = it }
+        return map.getOrPut(value) { LinkedHashSet(4) }
+    }
+}
+
 internal class DataFlowInfoImpl private constructor(
     override val completeNullabilityInfo: ImmutableMap<DataFlowValue, Nullability>,
     override val completeTypeInfo: ImmutableMultimap<DataFlowValue, KotlinType>
@@ -63,7 +91,7 @@ internal class DataFlowInfoImpl private constructor(
         value: DataFlowValue,
         nullability: Nullability,
         languageVersionSettings: LanguageVersionSettings,
-        newTypeInfoBuilder: SetMultimap<DataFlowValue, KotlinType>? = null,
+        newTypeInfoBuilder: TypeInfoBuilder? = null,
         // XXX: set to false only as a workaround for OI, see KT-26357 for details (in NI everything works automagically)
         recordUnstable: Boolean = true
     ) {
@@ -119,9 +147,9 @@ internal class DataFlowInfoImpl private constructor(
         enrichWithNotNull: Boolean,
         languageVersionSettings: LanguageVersionSettings
     ): Set<KotlinType> {
-        val types = completeTypeInfo[key].getOrElse(ImmutableLinkedHashSet.empty())
+        val types = completeTypeInfo.getOrNull(key) ?: ImmutableLinkedHashSet.empty()
         if (!enrichWithNotNull || getCollectedNullability(key).canBeNull()) {
-            return types.toJavaSet()
+            return if (types.isEmpty) emptySet() else types.toJavaSet()
         }
 
         val enrichedTypes = newLinkedHashSetWithExpectedSize<KotlinType>(types.size() + 1)
@@ -161,7 +189,7 @@ internal class DataFlowInfoImpl private constructor(
      * @param value
      */
     override fun clearValueInfo(value: DataFlowValue, languageVersionSettings: LanguageVersionSettings): DataFlowInfo {
-        val resultNullabilityInfo = hashMapOf<DataFlowValue, Nullability>()
+        val resultNullabilityInfo = newNullabilityInfoBuilder()
         putNullabilityAndTypeInfo(resultNullabilityInfo, value, value.immanentNullability, languageVersionSettings)
         return create(this, resultNullabilityInfo, EMPTY_TYPE_INFO, value)
     }
@@ -197,8 +225,8 @@ internal class DataFlowInfoImpl private constructor(
         identityEquals: Boolean,
         isEquate: Boolean
     ): DataFlowInfo {
-        val resultNullabilityInfo = hashMapOf<DataFlowValue, Nullability>()
-        val newTypeInfoBuilder = newTypeInfoBuilder()
+        val resultNullabilityInfo = newNullabilityInfoBuilder()
+        val newTypeInfoBuilder = TypeInfoBuilder()
 
         val nullabilityOfA = getStableNullability(a)
         val nullabilityOfB = getStableNullability(b)
@@ -239,7 +267,7 @@ internal class DataFlowInfoImpl private constructor(
             changed = changed or !newTypeInfoBuilder.isEmpty
         }
 
-        return if (changed) create(this, resultNullabilityInfo, newTypeInfoBuilder) else this
+        return if (changed) create(this, resultNullabilityInfo, newTypeInfoBuilder.entries) else this
     }
 
     override fun establishSubtyping(
@@ -249,7 +277,7 @@ internal class DataFlowInfoImpl private constructor(
         if (getCollectedTypes(value, languageVersionSettings).contains(type)) return this
         if (!value.type.isFlexible() && value.type.isSubtypeOf(type)) return this
 
-        val nullabilityInfo = hashMapOf<DataFlowValue, Nullability>()
+        val nullabilityInfo = newNullabilityInfoBuilder()
 
         val isTypeNotNull =
             if (languageVersionSettings.supportsFeature(LanguageFeature.NewInference))
@@ -275,18 +303,24 @@ internal class DataFlowInfoImpl private constructor(
 
         assert(other is DataFlowInfoImpl) { "Unknown DataFlowInfo type: " + other }
 
-        val resultNullabilityInfo = hashMapOf<DataFlowValue, Nullability>()
+        // Typical for infos derived from the same parent: nothing new can be learned from the other one
+        if (other.completeNullabilityInfo === completeNullabilityInfo && other.completeTypeInfo === completeTypeInfo) return this
+
+        var resultNullabilityInfo: MutableMap<DataFlowValue, Nullability>? = null
         for ((key, otherFlags) in other.completeNullabilityInfo) {
             val thisFlags = getCollectedNullability(key)
             val flags = thisFlags.and(otherFlags)
             if (flags != thisFlags) {
-                resultNullabilityInfo.put(key, flags)
+                if (resultNullabilityInfo == null) {
+                    resultNullabilityInfo = newNullabilityInfoBuilder()
+                }
+                resultNullabilityInfo[key] = flags
             }
         }
 
-        val otherTypeInfo = other.completeTypeInfo
+        val otherTypeInfo = if (other.completeTypeInfo === completeTypeInfo) EMPTY_TYPE_INFO else other.completeTypeInfo
 
-        return create(this, resultNullabilityInfo, otherTypeInfo)
+        return create(this, resultNullabilityInfo ?: emptyMap<DataFlowValue, Nullability>(), otherTypeInfo)
     }
 
     private fun ImmutableSet<KotlinType>?.containsNothing() = this?.any { KotlinBuiltIns.isNothing(it) } ?: false
@@ -312,26 +346,20 @@ internal class DataFlowInfoImpl private constructor(
 
         assert(other is DataFlowInfoImpl) { "Unknown DataFlowInfo type: " + other }
 
-        val resultNullabilityInfo = hashMapOf<DataFlowValue, Nullability>()
+        val resultNullabilityInfo = newNullabilityInfoBuilder()
         for ((key, otherFlags) in other.completeNullabilityInfo) {
             val thisFlags = getCollectedNullability(key)
             resultNullabilityInfo.put(key, thisFlags.or(otherFlags))
         }
 
-        val myTypeInfo = completeTypeInfo
         val otherTypeInfo = other.completeTypeInfo
-        val newTypeInfoBuilder = newTypeInfoBuilder()
-
-        for (key in myTypeInfo.keySet()) {
-            if (key in otherTypeInfo.keySet()) {
-                newTypeInfoBuilder.putAll(
-                    key,
-                    myTypeInfo[key].getOrNull().intersectConsideringNothing(otherTypeInfo[key].getOrNull())
-                        ?: ImmutableLinkedHashSet.empty()
-                )
-            }
+        val newTypeInfoBuilder = TypeInfoBuilder()
+
+        for ((key, myTypes) in completeTypeInfo) {
+            val otherTypes = otherTypeInfo.getOrNull(key) ?: continue
+            newTypeInfoBuilder.putAll(key, myTypes.intersectConsideringNothing(otherTypes) ?: ImmutableLinkedHashSet.empty())
         }
-        return create(null, resultNullabilityInfo, newTypeInfoBuilder)
+        return create(null, resultNullabilityInfo, newTypeInfoBuilder.entries)
     }
 
     override fun toString() = if (completeTypeInfo.isEmpty && completeNullabilityInfo.isEmpty()) "EMPTY" else "Non-trivial DataFlowInfo"
@@ -343,19 +371,8 @@ internal class DataFlowInfoImpl private constructor(
         private val EMPTY_TYPE_INFO: ImmutableMultimap<DataFlowValue, KotlinType> =
             ImmutableHashMap.empty()
 
-        private fun newTypeInfoBuilder(): SetMultimap<DataFlowValue, KotlinType> =
-            LinkedHashMultimap.create()
-
-        private fun create(
-            parent: DataFlowInfo?,
-            updatedNullabilityInfo: Map<DataFlowValue, Nullability>,
-            updatedTypeInfo: SetMultimap<DataFlowValue, KotlinType>
-        ): DataFlowInfo =
-            create(
-                parent,
-                updatedNullabilityInfo,
-                updatedTypeInfo.asMap().entries.map { Tuple2(it.key, it.value) }
-            )
+        // Most of data flow steps update one or two values
+        private fun newNullabilityInfoBuilder(): MutableMap<DataFlowValue, Nullability> = HashMap(4)
 
         private fun create(
             parent: DataFlowInfo?,
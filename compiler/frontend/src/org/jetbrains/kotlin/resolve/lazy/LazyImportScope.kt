@@ -40,6 +40,7 @@ import org.jetbrains.kotlin.storage.StorageManager
 import org.jetbrains.kotlin.types.expressions.OperatorConventions
 import org.jetbrains.kotlin.util.collectionUtils.concat
 import org.jetbrains.kotlin.utils.Printer
+import org.jetbrains.kotlin.utils.SmartList
 import org.jetbrains.kotlin.utils.addToStdlib.flatMapToNullable
 import org.jetbrains.kotlin.utils.ifEmpty
 
@@ -70,6 +71,29 @@ class ExplicitImportsIndexed<I : KtImportInfo>(allImports: Collection<I>) : Inde
     override fun importsForName(name: Name) = nameToDirectives.get(name)
 }
 
+/**
+ * Star imports that may contain the given name, in the order of declaration.
+ * Imports whose scopes can't compute their names are candidates for any name
+ */
+private class AllUnderImportsByName<I : KtImportInfo>(imports: List<I>, importedNames: List<Set<Name>?>) {
+    private val importsByName: Map<Name, List<I>>? =
+        if (importedNames.any { it == null }) null
+        else HashMap<Name, MutableList<I>>().also { result ->
+            for ((import, names) in imports.zip(importedNames)) {
+                for (name in names!!) {
+                    result.getOrPut(name) { SmartList() }.add(import)
+                }
+            }
+        }
+
+    private val importsWithNames = if (importsByName == null) imports.zip(importedNames) else null
+
+    fun importsForName(name: Name): Collection<I> {
+        if (importsByName != null) return importsByName[name].orEmpty()
+        return importsWithNames!!.mapNotNull { (import, names) -> import.takeIf { names == null || name in names } }
+    }
+}
+
 interface ImportForceResolver {
     fun forceResolveNonDefaultImports()
     fun forceResolveImport(importDirective: KtImportDirective)
@@ -104,6 +128,8 @@ open class LazyImportResolver<I : KtImportInfo>(
         descriptorSelector: (ImportingScope, Name) -> D?
     ): D? {
         fun compute(): D? {
+            // Classifiers are not looked up through the index of star imports: class names of some package scopes (e.g. of Java
+            // packages) are only known approximately, and a missed classifier would become an unresolved reference
             val imports = indexedImports.importsForName(name)
 
             var target: D? = null
@@ -123,7 +149,7 @@ open class LazyImportResolver<I : KtImportInfo>(
     ): Collection<D> {
         return components.storageManager.compute {
             var descriptors: Collection<D>? = null
-            for (directive in indexedImports.importsForName(name)) {
+            for (directive in candidateImportsForName(name)) {
                 val descriptorsForImport = descriptorsSelector(getImportScope(directive), name)
                 descriptors = descriptors.concat(descriptorsForImport)
             }
@@ -136,10 +162,25 @@ open class LazyImportResolver<I : KtImportInfo>(
         return importedScopesProvider(directive) ?: ImportingScope.Empty
     }
 
+    private val importedNamesByImport: List<Set<Name>?> by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        indexedImports.imports.map { getImportScope(it).computeImportedNames() }
+    }
+
     val allNames: Set<Name>? by lazy(LazyThreadSafetyMode.PUBLICATION) {
-        indexedImports.imports.flatMapToNullable(THashSet()) { getImportScope(it).computeImportedNames() }
+        importedNamesByImport.flatMapToNullable(THashSet()) { it }
     }
 
+    // Star imports are not indexed by name themselves, so without this index every callable lookup probes every imported package
+    private val allUnderImportsByName: AllUnderImportsByName<I>? by lazy(LazyThreadSafetyMode.PUBLICATION) {
+        if (indexedImports is AllUnderImportsIndexed && indexedImports.imports.size > 1)
+            AllUnderImportsByName(indexedImports.imports, importedNamesByImport)
+        else
+            null
+    }
+
+    private fun candidateImportsForName(name: Name): Collection<I> =
+        allUnderImportsByName?.importsForName(name) ?: indexedImports.importsForName(name)
+
     fun definitelyDoesNotContainName(name: Name) = allNames?.let { name !in it } == true
 
     fun recordLookup(name: Name, location: LookupLocation) {
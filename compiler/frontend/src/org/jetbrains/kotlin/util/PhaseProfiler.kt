@@ -0,0 +1,99 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.util
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.TimeUnit
+
+/**
+ * Aggregates wall time, thread CPU time and allocated bytes of compiler phases by phase name.
+ *
+ * CPU time and allocations are measured for the current thread via [java.lang.management.ThreadMXBean], and are reported as `-1`
+ * if the running JVM doesn't support the corresponding measurement.
+ * This profiler is thread-safe, so phases running on different threads can be recorded into one instance.
+ */
+class PhaseProfiler {
+    class PhaseStatistics(val name: String, val description: String) {
+        var invocations: Int = 0
+            internal set
+        var wallTimeNanos: Long = 0
+            internal set
+        var cpuTimeNanos: Long = 0
+            internal set
+        var allocatedBytes: Long = 0
+            internal set
+    }
+
+    private val statistics = LinkedHashMap<String, PhaseStatistics>()
+
+    private val threadBean = ManagementFactory.getThreadMXBean()
+    private val allocationBean = threadBean as? com.sun.management.ThreadMXBean
+
+    private val isCpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported
+    private val isAllocationSupported = allocationBean?.isThreadAllocatedMemorySupported == true
+
+    init {
+        if (isCpuTimeSupported && !threadBean.isThreadCpuTimeEnabled) threadBean.isThreadCpuTimeEnabled = true
+        if (isAllocationSupported && !allocationBean!!.isThreadAllocatedMemoryEnabled) allocationBean.isThreadAllocatedMemoryEnabled = true
+    }
+
+    fun <T> measure(name: String, description: String, block: () -> T): T {
+        val threadId = Thread.currentThread().id
+        val cpuStart = currentCpuTime()
+        val allocatedStart = allocatedBytes(threadId)
+        val wallStart = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            val wallTime = System.nanoTime() - wallStart
+            val cpuTime = if (isCpuTimeSupported) currentCpuTime() - cpuStart else -1
+            val allocated = if (isAllocationSupported) allocatedBytes(threadId) - allocatedStart else -1
+
+            synchronized(statistics) {
+                val phase = statistics.getOrPut(name) { PhaseStatistics(name, description) }
+                phase.invocations++
+                phase.wallTimeNanos += wallTime
+                phase.cpuTimeNanos = if (cpuTime < 0) -1 else phase.cpuTimeNanos + cpuTime
+                phase.allocatedBytes = if (allocated < 0) -1 else phase.allocatedBytes + allocated
+            }
+        }
+    }
+
+    fun getStatistics(): List<PhaseStatistics> = synchronized(statistics) { statistics.values.toList() }
+
+    fun renderCsv(): String = buildString {
+        appendln("phase,description,invocations,wallTimeMs,cpuTimeMs,allocatedBytes")
+        for (phase in getStatistics()) {
+            append("${phase.name.escapeCsv()},${phase.description.escapeCsv()},${phase.invocations},")
+            appendln("${phase.wallTimeNanos.toMillis()},${phase.cpuTimeNanos.toMillis()},${phase.allocatedBytes}")
+        }
+    }
+
+    fun renderJson(): String = buildString {
+        val phases = getStatistics()
+        appendln("[")
+        phases.forEachIndexed { index, phase ->
+            append("  {\"phase\": \"${phase.name.escapeJson()}\", \"description\": \"${phase.description.escapeJson()}\", ")
+            append("\"invocations\": ${phase.invocations}, \"wallTimeMs\": ${phase.wallTimeNanos.toMillis()}, ")
+            append("\"cpuTimeMs\": ${phase.cpuTimeNanos.toMillis()}, \"allocatedBytes\": ${phase.allocatedBytes}}")
+            appendln(if (index < phases.size - 1) "," else "")
+        }
+        appendln("]")
+    }
+
+    private fun currentCpuTime(): Long = if (isCpuTimeSupported) threadBean.currentThreadCpuTime else 0
+
+    private fun allocatedBytes(threadId: Long): Long = if (isAllocationSupported) allocationBean!!.getThreadAllocatedBytes(threadId) else 0
+
+    private fun Long.toMillis(): Long = if (this < 0) -1 else TimeUnit.NANOSECONDS.toMillis(this)
+
+    private fun String.escapeJson(): String =
+        replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t")
+
+    // Fields with separators, quotes or line breaks are quoted, quotes inside them are doubled (RFC 4180)
+    private fun String.escapeCsv(): String =
+        if (any { it == ',' || it == '"' || it == '\n' || it == '\r' }) "\"" + replace("\"", "\"\"") + "\"" else this
+}
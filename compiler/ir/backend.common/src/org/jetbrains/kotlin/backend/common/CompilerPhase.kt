@@ -159,8 +159,15 @@ abstract class DefaultIrPhaseRunner<Context : CommonBackendContext, Data : IrEle
     }
 
     private fun runAndProfile(phase: CompilerPhase<Context, Data>, context: Context, source: Data): Data {
+        val profiler = configuration(context).get(CommonConfigurationKeys.PHASE_PROFILER)
+
         var result: Data = source
-        val msec = measureTimeMillis { result = phase.invoke(context, source) }
+        val msec = measureTimeMillis {
+            result = if (profiler != null)
+                profiler.measure(phase.name, phase.description) { phase.invoke(context, source) }
+            else
+                phase.invoke(context, source)
+        }
         println("${phase.description}: $msec msec")
         return result
     }
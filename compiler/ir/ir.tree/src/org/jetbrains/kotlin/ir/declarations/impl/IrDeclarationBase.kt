@@ -21,6 +21,7 @@ import org.jetbrains.kotlin.ir.declarations.IrDeclaration
 import org.jetbrains.kotlin.ir.declarations.IrDeclarationOrigin
 import org.jetbrains.kotlin.ir.declarations.IrDeclarationParent
 import org.jetbrains.kotlin.ir.expressions.IrCall
+import org.jetbrains.kotlin.utils.SmartList
 
 abstract class IrDeclarationBase(
     startOffset: Int,
@@ -31,5 +32,5 @@ abstract class IrDeclarationBase(
 
     override lateinit var parent: IrDeclarationParent
 
-    override val annotations: MutableList<IrCall> = ArrayList()
+    override val annotations: MutableList<IrCall> = SmartList()
 }
\ No newline at end of file
@@ -29,6 +29,7 @@ import org.jetbrains.kotlin.ir.visitors.IrElementTransformer
 import org.jetbrains.kotlin.ir.visitors.IrElementVisitor
 import org.jetbrains.kotlin.name.Name
 import org.jetbrains.kotlin.resolve.descriptorUtil.isEffectivelyExternal
+import org.jetbrains.kotlin.utils.SmartList
 
 
 class IrFieldImpl(
@@ -88,7 +89,7 @@ class IrFieldImpl(
 
     override var initializer: IrExpressionBody? = null
     override var correspondingProperty: IrProperty? = null
-    override val overriddenSymbols: MutableList<IrFieldSymbol> = mutableListOf()
+    override val overriddenSymbols: MutableList<IrFieldSymbol> = SmartList()
 
     override fun <R, D> accept(visitor: IrElementVisitor<R, D>, data: D): R {
         return visitor.visitField(this, data)
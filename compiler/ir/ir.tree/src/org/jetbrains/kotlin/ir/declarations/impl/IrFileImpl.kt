@@ -70,7 +70,7 @@ class IrFileImpl(
 
     override val declarations: MutableList<IrDeclaration> = ArrayList()
 
-    override val annotations: MutableList<IrCall> = ArrayList()
+    override val annotations: MutableList<IrCall> = SmartList()
 
     override fun <R, D> accept(visitor: IrElementVisitor<R, D>, data: D): R =
         visitor.visitFile(this, data)
@@ -54,7 +54,7 @@ abstract class IrFunctionBase(
 
     override var dispatchReceiverParameter: IrValueParameter? = null
     override var extensionReceiverParameter: IrValueParameter? = null
-    override val valueParameters: MutableList<IrValueParameter> = ArrayList()
+    override val valueParameters: MutableList<IrValueParameter> = SmartList()
 
     final override var body: IrBody? = null
 
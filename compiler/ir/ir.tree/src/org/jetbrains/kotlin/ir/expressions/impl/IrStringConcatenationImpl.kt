@@ -21,7 +21,7 @@ import org.jetbrains.kotlin.ir.expressions.IrStringConcatenation
 import org.jetbrains.kotlin.ir.types.IrType
 import org.jetbrains.kotlin.ir.visitors.IrElementTransformer
 import org.jetbrains.kotlin.ir.visitors.IrElementVisitor
-import java.util.*
+import org.jetbrains.kotlin.utils.SmartList
 
 class IrStringConcatenationImpl(
     startOffset: Int,
@@ -40,7 +40,7 @@ class IrStringConcatenationImpl(
         this.arguments.addAll(arguments)
     }
 
-    override val arguments: MutableList<IrExpression> = ArrayList()
+    override val arguments: MutableList<IrExpression> = SmartList()
 
     override fun addArgument(argument: IrExpression) {
         arguments.add(argument)
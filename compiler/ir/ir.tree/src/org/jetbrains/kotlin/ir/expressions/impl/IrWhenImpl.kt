@@ -21,7 +21,7 @@ import org.jetbrains.kotlin.ir.expressions.*
 import org.jetbrains.kotlin.ir.types.IrType
 import org.jetbrains.kotlin.ir.visitors.IrElementTransformer
 import org.jetbrains.kotlin.ir.visitors.IrElementVisitor
-import java.util.*
+import org.jetbrains.kotlin.utils.SmartList
 
 abstract class IrWhenBase(
     startOffset: Int,
@@ -64,7 +64,7 @@ class IrWhenImpl(
         this.branches.addAll(branches)
     }
 
-    override val branches: MutableList<IrBranch> = ArrayList()
+    override val branches: MutableList<IrBranch> = SmartList()
 }
 
 open class IrBranchImpl(
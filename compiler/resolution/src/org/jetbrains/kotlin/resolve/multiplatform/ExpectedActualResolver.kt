@@ -308,6 +308,8 @@ object ExpectedActualResolver {
                             isExpectedClassAndActualTypeAlias(b, a, platformModule) ||
                             super.areEqualTypeConstructors(a, b)
                 }
+
+                override val canUseCorrespondingSupertypesCache: Boolean get() = false
             }
             return context.equalTypes(a.unwrap(), b.unwrap())
         }
@@ -0,0 +1,38 @@
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SCALARIZE_CLOSURES
+
+fun parse(s: String): Int = s.toInt()
+
+fun template(s: String): String {
+    val f = { try { parse(s) } catch (e: NumberFormatException) { -1 } }
+    return "${f()}:${f()}"
+}
+
+fun sum(s: String): Int {
+    val f = { try { parse(s) } catch (e: NumberFormatException) { -1 } }
+    return 1 + f()
+}
+
+fun arguments(s: String): List<Int> {
+    val f = { x: Int -> try { parse(s) + x } catch (e: NumberFormatException) { x } finally { parse("0") } }
+    return listOf(f(1), 10 + f(2), f(3))
+}
+
+fun topLevel(s: String): Int {
+    val f = { try { parse(s) } catch (e: NumberFormatException) { -1 } }
+    val result = f()
+    return result
+}
+
+fun box(): String {
+    if (template("42") != "42:42") return "Fail template: ${template("42")}"
+    if (template("x") != "-1:-1") return "Fail template with exception: ${template("x")}"
+    if (sum("41") != 42) return "Fail sum: ${sum("41")}"
+    if (sum("x") != 0) return "Fail sum with exception: ${sum("x")}"
+    if (arguments("5") != listOf(6, 17, 8)) return "Fail arguments: ${arguments("5")}"
+    if (arguments("x") != listOf(1, 12, 3)) return "Fail arguments with exception: ${arguments("x")}"
+    if (topLevel("7") != 7) return "Fail top level: ${topLevel("7")}"
+    if (topLevel("x") != -1) return "Fail top level with exception: ${topLevel("x")}"
+    return "OK"
+}
@@ -0,0 +1,54 @@
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SCALARIZE_CLOSURES
+
+fun capturedVar(): Int {
+    var counter = 0
+    val increment = { by: Int -> counter += by; counter }
+    increment(1)
+    increment(2)
+    return increment(3) * 10 + counter
+}
+
+fun comparator(a: String, b: String, bias: Int): Int {
+    val c = Comparator<String> { x, y -> x.length - y.length + bias }
+    return c.compare(a, b) + c.compare(b, a)
+}
+
+fun anonymousObject(prefix: String): String {
+    val o = object : Function1<String, String> {
+        override fun invoke(p: String) = prefix + p
+    }
+    return o("a") + o.invoke("b")
+}
+
+fun reference(list: List<String>): Boolean {
+    val contains = list::contains
+    return contains("a") && !contains("b")
+}
+
+fun inLoop(n: Long): Long {
+    val square = { x: Long -> x * x }
+    var result = 0L
+    for (i in 1..n) {
+        result += square(i)
+    }
+    return result
+}
+
+fun evaluationOrder(): String {
+    val log = StringBuilder()
+    val f = { a: String, b: String -> log.append(a).append(b); a + b }
+    val result = f(log.append("1").let { "x" }, log.append("2").let { "y" })
+    return "$log:$result"
+}
+
+fun box(): String {
+    if (capturedVar() != 66) return "Fail captured var: ${capturedVar()}"
+    if (comparator("aa", "b", 1) != 2) return "Fail comparator: ${comparator("aa", "b", 1)}"
+    if (anonymousObject("p") != "papb") return "Fail anonymous object: ${anonymousObject("p")}"
+    if (!reference(listOf("a"))) return "Fail reference"
+    if (inLoop(3L) != 14L) return "Fail loop: ${inLoop(3L)}"
+    if (evaluationOrder() != "12xy:xy") return "Fail evaluation order: ${evaluationOrder()}"
+    return "OK"
+}
@@ -0,0 +1,110 @@
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.INDEXED_LIST_LOOPS
+// FULL_JDK
+// WITH_RUNTIME
+
+import java.util.*
+import java.util.concurrent.CopyOnWriteArrayList
+
+class Sequential(private val elements: List<String?>) : AbstractSequentialList<String?>() {
+    override val size: Int get() = elements.size
+    override fun listIterator(index: Int): MutableListIterator<String?> = ArrayList(elements).listIterator(index)
+}
+
+fun concat(xs: List<String?>): String {
+    val sb = StringBuilder()
+    for (x in xs) {
+        if (x == "skip") continue
+        if (x == "stop") break
+        sb.append(x)
+    }
+    return sb.toString()
+}
+
+fun concatWithIndex(xs: List<String?>): String {
+    val sb = StringBuilder()
+    for ((i, x) in xs.withIndex()) {
+        sb.append(i).append(x)
+    }
+    return sb.toString()
+}
+
+fun sum(xs: List<Int>): Int {
+    var result = 0
+    for (x in xs) {
+        result += x
+    }
+    return result
+}
+
+// Iterates with the overridden iterator: only array lists of exactly java.util.ArrayList are iterated by index
+class Reversed(elements: List<String?>) : ArrayList<String?>(elements) {
+    override fun iterator(): MutableIterator<String?> = ArrayList(this).asReversed().iterator()
+}
+
+fun appendDuringLoop(xs: MutableList<Int>): List<Int> {
+    val seen = ArrayList<Int>()
+    for (x in xs) {
+        seen.add(x)
+        if (x < 3) xs.add(x + 10)
+    }
+    return seen
+}
+
+fun removeDuringLoop(xs: MutableList<Int>): List<Int> {
+    val seen = ArrayList<Int>()
+    for ((i, x) in xs.withIndex()) {
+        seen.add(i * 10 + x)
+        if (x == 1) xs.removeAt(0)
+    }
+    return seen
+}
+
+fun box(): String {
+    val elements = listOf("a", null, "skip", "b", "stop", "c")
+    val lists = listOf(
+        elements,
+        ArrayList(elements),
+        Arrays.asList(*elements.toTypedArray()),
+        Collections.unmodifiableList(elements),
+        LinkedList(elements),
+        Sequential(elements)
+    )
+    for (list in lists) {
+        val name = list.javaClass.simpleName
+        if (concat(list) != "anullb") return "Fail concat $name: ${concat(list)}"
+        if (concatWithIndex(list) != "0a1null2skip3b4stop5c") return "Fail concatWithIndex $name: ${concatWithIndex(list)}"
+    }
+
+    if (concat(emptyList()) != "") return "Fail empty"
+    if (concat(listOf("x")) != "x") return "Fail singleton"
+    if (sum(listOf(1, 2, 3)) != 6) return "Fail sum"
+    if (sum(LinkedList(listOf(1, 2, 3))) != 6) return "Fail sum LinkedList"
+
+    if (concat(Reversed(elements)) != "c") return "Fail concat Reversed: ${concat(Reversed(elements))}"
+
+    // Changing the size of a list iterated by index throws, as its iterator would
+    for (list in listOf(arrayListOf(1, 2, 3), LinkedList(listOf(1, 2, 3)), Collections.synchronizedList(arrayListOf(1, 2, 3)))) {
+        try {
+            appendDuringLoop(list)
+            return "Fail: no ConcurrentModificationException on append for ${list.javaClass.simpleName}"
+        } catch (e: ConcurrentModificationException) {
+        }
+    }
+    for (list in listOf(arrayListOf(1, 2, 3), LinkedList(listOf(1, 2, 3)))) {
+        try {
+            removeDuringLoop(list)
+            return "Fail: no ConcurrentModificationException on remove for ${list.javaClass.simpleName}"
+        } catch (e: ConcurrentModificationException) {
+        }
+    }
+
+    // Copy-on-write lists are iterated over a snapshot
+    val appended = appendDuringLoop(CopyOnWriteArrayList(listOf(1, 2, 3)))
+    if (appended != listOf(1, 2, 3)) return "Fail append CopyOnWriteArrayList: $appended"
+    val removed = removeDuringLoop(CopyOnWriteArrayList(listOf(1, 2, 3)))
+    if (removed != listOf(1, 12, 23)) return "Fail remove CopyOnWriteArrayList: $removed"
+
+    return "OK"
+}
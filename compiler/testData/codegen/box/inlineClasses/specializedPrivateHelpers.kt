@@ -0,0 +1,63 @@
+// !LANGUAGE: +InlineClasses
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SPECIALIZE_FOR_INLINE_CLASSES
+// WITH_RUNTIME
+
+inline class UserId(val id: Int)
+
+inline class Name(val value: String)
+
+inline class Big(val value: Long)
+
+val seen = ArrayList<Any?>()
+
+private fun <T> choose(a: T, b: T, first: Boolean): T = if (first) a else b
+
+private fun <T> identity(x: T): T = x
+
+private fun <T> describe(x: T): String = x.toString()
+
+private fun <T> remember(x: T): T {
+    seen.add(x)
+    return x
+}
+
+private fun <T> join(a: T, n: Long, b: T): String = "$a/$n/$b"
+
+class Holder(private val base: Int) {
+    private fun <T> pick(a: T, b: T): T = if (base > 0) a else b
+
+    fun pickId(a: UserId, b: UserId): Int = pick(a, b).id
+}
+
+// Several calls rewritten in one method, some of them nested
+fun nestedAndRepeated(): String {
+    val a = identity(identity(UserId(1))).id
+    val b = choose(identity(UserId(2)), UserId(3), identity(Big(4L)).value > 0L).id
+    val c = identity(identity(identity(Name("c")))).value
+    var stored: Any? = null
+    val d = identity(UserId(5).also { stored = it }).id
+    val e = describe(identity(UserId(6))) + describe(UserId(7))
+    return "$a $b $c $d $stored $e"
+}
+
+fun box(): String {
+    if (choose(UserId(1), UserId(2), true).id != 1) return "Fail choose first"
+    if (choose(UserId(1), UserId(2), false).id != 2) return "Fail choose second"
+    if (identity(Name("x")).value != "x") return "Fail identity"
+    if (identity(Big(Long.MAX_VALUE)).value != Long.MAX_VALUE) return "Fail identity of Long"
+    if (describe(UserId(5)) != "UserId(id=5)") return "Fail describe: ${describe(UserId(5))}"
+    if (join(Big(1L), 2L, Big(3L)) != "Big(value=1)/2/Big(value=3)") return "Fail join: ${join(Big(1L), 2L, Big(3L))}"
+
+    if (remember(UserId(7)).id != 7) return "Fail remember"
+    if (seen != listOf(UserId(7))) return "Fail remembered values: $seen"
+
+    if (Holder(1).pickId(UserId(1), UserId(2)) != 1) return "Fail pick first"
+    if (Holder(0).pickId(UserId(1), UserId(2)) != 2) return "Fail pick second"
+
+    val nested = nestedAndRepeated()
+    if (nested != "1 2 c 5 UserId(id=5) UserId(id=6)UserId(id=7)") return "Fail nested: $nested"
+
+    return "OK"
+}
@@ -0,0 +1,42 @@
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.ELIMINATE_INTERNAL_PARAMETER_CHECKS
+// WITH_RUNTIME
+// FILE: J.java
+
+import java.util.List;
+
+public class J {
+    public static List<String> nullList() {
+        return null;
+    }
+
+    public static String nullString() {
+        return null;
+    }
+}
+
+// FILE: test.kt
+
+internal fun List<String>.internalSize() = size
+
+internal fun String.internalLength() = length
+
+fun box(): String {
+    if (listOf("a").apply { internalSize() }.internalSize() != 1) return "Fail 1"
+    if (with("abc") { internalLength() } != 3) return "Fail 2"
+
+    try {
+        J.nullList().apply { internalSize() }
+        return "Fail 3"
+    } catch (e: IllegalArgumentException) {
+    }
+
+    try {
+        with(J.nullString()) { internalLength() }
+        return "Fail 4"
+    } catch (e: IllegalArgumentException) {
+    }
+
+    return "OK"
+}
@@ -0,0 +1,89 @@
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SEALED_CLASS_WHEN_SWITCH
+
+sealed class Event {
+    class Click : Event()
+    class Key : Event()
+    class Scroll : Event()
+    object Focus : Event()
+    object Blur : Event()
+    class Resize : Event()
+    // The names of these classes have the same hash code
+    class Aa : Event()
+    class BB : Event()
+    open class Drag : Event()
+    class DragChild : Drag()
+    class Special : Drag()
+    abstract class Custom : Event()
+    class Other : Event()
+}
+
+class Unlisted : Event.Drag()
+
+class CustomImpl : Event.Custom()
+
+fun name(e: Event?): String =
+    when (e) {
+        is Event.Click -> "click"
+        is Event.Key -> "key"
+        is Event.Scroll -> "scroll"
+        is Event.Focus, is Event.Blur -> "focus"
+        is Event.Resize -> "resize"
+        is Event.Aa -> "aa"
+        is Event.BB -> "bb"
+        is Event.Special -> "special"
+        is Event.Drag -> "drag"
+        is Event.DragChild -> "dragChild"
+        is Event.Custom -> "custom"
+        null -> "null"
+        else -> "else"
+    }
+
+fun statement(e: Event?): String {
+    var result = "none"
+    when (e) {
+        is Event.Click -> result = "click"
+        is Event.Key -> result = "key"
+        is Event.Scroll -> result = "scroll"
+        is Event.Focus -> result = "focus"
+        is Event.Blur -> result = "blur"
+        is Event.Resize -> result = "resize"
+        is Event.Aa -> result = "aa"
+        is Event.BB -> result = "bb"
+        is Event.Drag -> result = "drag"
+    }
+    return result
+}
+
+fun box(): String {
+    val expected = listOf(
+        Event.Click() to "click",
+        Event.Key() to "key",
+        Event.Scroll() to "scroll",
+        Event.Focus to "focus",
+        Event.Blur to "focus",
+        Event.Resize() to "resize",
+        Event.Aa() to "aa",
+        Event.BB() to "bb",
+        Event.Special() to "special",
+        Event.Drag() to "drag",
+        Event.DragChild() to "drag",
+        Unlisted() to "drag",
+        CustomImpl() to "custom",
+        Event.Other() to "else",
+        null to "null"
+    )
+    for ((event, name) in expected) {
+        val actual = name(event)
+        if (actual != name) return "Fail $event: $actual"
+    }
+
+    if (statement(Event.Blur) != "blur") return "Fail statement Blur"
+    if (statement(Event.BB()) != "bb") return "Fail statement BB"
+    if (statement(Unlisted()) != "drag") return "Fail statement Unlisted"
+    if (statement(Event.Other()) != "none") return "Fail statement Other"
+    if (statement(null) != "none") return "Fail statement null"
+
+    return "OK"
+}
@@ -0,0 +1,60 @@
+// !LANGUAGE: +VariableDeclarationInWhenSubject
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SEALED_CLASS_WHEN_SWITCH
+
+sealed class Shape {
+    class Circle(val r: Int) : Shape()
+    class Square(val a: Int) : Shape()
+    class Rect(val a: Int, val b: Int) : Shape()
+    class Triangle(val a: Int) : Shape()
+    class Hexagon(val a: Int) : Shape()
+    class Line(val length: Int) : Shape()
+    object Point : Shape()
+    object Empty : Shape()
+    class Other : Shape()
+}
+
+fun sealedValue(i: Int): Shape =
+    when (i) {
+        0 -> Shape.Circle(1)
+        1 -> Shape.Square(2)
+        2 -> Shape.Rect(3, 4)
+        3 -> Shape.Triangle(5)
+        4 -> Shape.Hexagon(6)
+        5 -> Shape.Line(7)
+        6 -> Shape.Point
+        7 -> Shape.Empty
+        else -> Shape.Other()
+    }
+
+fun describe(i: Int): String {
+    val result = when (val s = sealedValue(i)) {
+        is Shape.Circle -> {
+            val prefix = "circle"
+            prefix + s.r
+        }
+        is Shape.Square -> "square" + s.a
+        is Shape.Rect -> "rect" + s.a * s.b
+        is Shape.Triangle -> "triangle" + s.a
+        is Shape.Hexagon -> "hexagon" + s.a
+        is Shape.Line -> "line" + s.length
+        is Shape.Point -> "point"
+        is Shape.Empty -> "empty"
+        else -> "else " + (s is Shape.Other)
+    }
+    // Locals declared after the 'when' reuse the slots of its subject variable and temporaries
+    val suffix = "!"
+    return result + suffix
+}
+
+fun box(): String {
+    val expected = listOf(
+        "circle1!", "square2!", "rect12!", "triangle5!", "hexagon6!", "line7!", "point!", "empty!", "else true!"
+    )
+    for ((i, name) in expected.withIndex()) {
+        val actual = describe(i)
+        if (actual != name) return "Fail $i: $actual"
+    }
+    return "OK"
+}
@@ -0,0 +1,30 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.OPTIMIZE_NULLABLE_PRIMITIVE_LOCALS
+
+fun max(xs: IntArray): Int {
+    var max: Int? = null
+    for (x in xs) {
+        if (max == null || x > max) {
+            max = x
+        }
+    }
+    return if (max != null) max else -1
+}
+
+fun firstNegative(xs: DoubleArray): Double {
+    var result: Double? = null
+    for (x in xs) {
+        if (x < 0.0) {
+            result = x
+            break
+        }
+    }
+    if (result == null) throw NoSuchElementException()
+    return result
+}
+
+// 0 valueOf
+// 0 Value\s\(\)
+// 0 IFNULL
+// 0 IFNONNULL
+// 0 ACONST_NULL
@@ -0,0 +1,15 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.OPTIMIZE_NULLABLE_PRIMITIVE_LOCALS
+
+fun lastPositive(xs: IntArray): Int? {
+    var result: Int? = null
+    for (x in xs) {
+        if (x > 0) {
+            result = x
+        }
+    }
+    return result
+}
+
+// 1 valueOf
+// 1 ACONST_NULL
@@ -0,0 +1,14 @@
+// IGNORE_BACKEND: JVM_IR
+
+fun max(xs: IntArray): Int {
+    var max: Int? = null
+    for (x in xs) {
+        if (max == null || x > max) {
+            max = x
+        }
+    }
+    return if (max != null) max else -1
+}
+
+// 1 valueOf
+// 2 intValue
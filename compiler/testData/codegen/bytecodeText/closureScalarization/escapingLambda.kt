@@ -0,0 +1,11 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SCALARIZE_CLOSURES
+
+fun runNoInline(f: (Int) -> Int) = f(0)
+
+fun test(a: Int): Int {
+    val add = { x: Int -> x + a }
+    return add(1) + runNoInline(add)
+}
+
+// 1 NEW EscapingLambdaKt\$test\$add\$1
@@ -0,0 +1,17 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SCALARIZE_CLOSURES
+
+fun sumTwice(a: Int): Int {
+    val add = { x: Int -> x + a }
+    return add(1) + add(2)
+}
+
+fun compareLengths(a: String, b: String, bias: Int): Int {
+    val comparator = Comparator<String> { x, y -> x.length - y.length + bias }
+    return comparator.compare(a, b)
+}
+
+// 0 NEW LocallyInvokedLambdaKt\$sumTwice
+// 0 NEW LocallyInvokedLambdaKt\$compareLengths
+// 0 INVOKEINTERFACE kotlin/jvm/functions/Function1\.invoke
+// 0 INVOKEINTERFACE java/util/Comparator\.compare
@@ -0,0 +1,18 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SCALARIZE_CLOSURES
+
+fun parse(s: String): Int = s.toInt()
+
+fun inExpression(s: String): Int {
+    val f = { try { parse(s) } catch (e: NumberFormatException) { -1 } }
+    return 1 + f()
+}
+
+fun inStatement(s: String): Int {
+    val f = { try { parse(s) } catch (e: NumberFormatException) { -1 } }
+    val result = f()
+    return result
+}
+
+// 1 NEW TryCatchInExpressionKt\$inExpression
+// 0 NEW TryCatchInExpressionKt\$inStatement
@@ -0,0 +1,38 @@
+// IGNORE_BACKEND: JVM_IR
+// WITH_COROUTINES
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.OPTIMIZE_COROUTINE_SPILLING
+
+import helpers.*
+// TREAT_AS_ONE_FILE
+import kotlin.coroutines.*
+suspend fun suspendHere(): String = ""
+
+fun builder(c: suspend () -> Unit) {
+    c.startCoroutine(EmptyContinuation)
+}
+
+fun flag() = true
+fun char() = 'x'
+fun use(flag: Boolean, c: Char, s: String) {}
+
+fun box(): String {
+    builder {
+        val f = flag()
+        val c = char()
+        val s = f.toString()
+        suspendHere()
+        use(f, c, s)
+        // 's' is not used anymore, so the field it was spilled to is cleared
+        suspendHere()
+    }
+
+    return "OK"
+}
+
+// Boolean and Char variables share int fields
+// 1 PUTFIELD .*\.I\$0 : I
+// 1 PUTFIELD .*\.I\$1 : I
+// 0 PUTFIELD .*\.Z\$
+// 0 PUTFIELD .*\.C\$
+/* 1 spill of 's' and 1 clearing */
+// 2 PUTFIELD .*\.L\$0 : Ljava/lang/Object;
@@ -0,0 +1,31 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.INDEXED_LIST_LOOPS
+
+fun sum(xs: List<Int>): Int {
+    var result = 0
+    for (x in xs) {
+        result += x
+    }
+    return result
+}
+
+fun concat(xs: ArrayList<String>): String {
+    val sb = StringBuilder()
+    for ((i, x) in xs.withIndex()) {
+        sb.append(i).append(x)
+    }
+    return sb.toString()
+}
+
+// 0 RandomAccess
+// 2 INVOKEVIRTUAL java/lang/Object.getClass
+// 2 LDC Ljava/util/ArrayList;.class
+// 2 INVOKEINTERFACE java/util/List.get \(I\)
+// The size is read before the loop and compared with the current size on each iteration
+// 4 INVOKEINTERFACE java/util/List.size
+// 2 NEW java/util/ConcurrentModificationException
+// 2 INVOKEINTERFACE java/util/List.iterator
+// 0 withIndex
+// 0 IndexedValue
+// 0 component1
+// 0 component2
@@ -0,0 +1,17 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.INDEXED_LIST_LOOPS
+
+fun sum(xs: Set<Int>): Int {
+    var result = 0
+    for (x in xs) {
+        result += x
+    }
+    for ((i, x) in xs.withIndex()) {
+        result += i * x
+    }
+    return result
+}
+
+// 0 getClass
+// 0 java/util/List
+// 2 hasNext
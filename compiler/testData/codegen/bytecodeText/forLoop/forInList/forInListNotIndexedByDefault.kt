@@ -0,0 +1,14 @@
+// IGNORE_BACKEND: JVM_IR
+
+fun sum(xs: List<Int>): Int {
+    var result = 0
+    for (x in xs) {
+        result += x
+    }
+    return result
+}
+
+// 0 getClass
+// 0 java/util/List.get
+// 1 iterator
+// 1 hasNext
@@ -0,0 +1,18 @@
+// !LANGUAGE: +InlineClasses
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SPECIALIZE_FOR_INLINE_CLASSES
+
+inline class UserId(val id: Int)
+
+private fun <T> choose(a: T, b: T, first: Boolean): T = if (first) a else b
+
+fun <T> publicChoose(a: T, b: T, first: Boolean): T = if (first) a else b
+
+fun test(a: UserId, b: UserId, first: Boolean): Int = choose(a, b, first).id
+
+fun testPublic(a: UserId, b: UserId, first: Boolean): Int = publicChoose(a, b, first).id
+
+// 2 INVOKESTATIC UserId\.box-impl
+// 1 INVOKESTATIC \w+\.choose-
+// 0 INVOKESTATIC \w+\.choose \(
+// 1 INVOKESTATIC \w+\.publicChoose \(
@@ -0,0 +1,11 @@
+// !LANGUAGE: +InlineClasses
+// IGNORE_BACKEND: JVM_IR
+
+inline class UserId(val id: Int)
+
+private fun <T> choose(a: T, b: T, first: Boolean): T = if (first) a else b
+
+fun test(a: UserId, b: UserId, first: Boolean): Int = choose(a, b, first).id
+
+// 2 INVOKESTATIC UserId\.box-impl
+// 0 choose-
@@ -0,0 +1,30 @@
+// !LANGUAGE: +InlineClasses
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SPECIALIZE_FOR_INLINE_CLASSES
+
+inline class UserId(val id: Int)
+
+inline class Name(val value: String)
+
+private fun <T> choose(a: T, b: T, first: Boolean): T = if (first) a else b
+
+private fun <T> identity(x: T): T = x
+
+private fun <T> describe(x: T): String = x.toString()
+
+fun chooseId(a: UserId, b: UserId, first: Boolean): Int = choose(a, b, first).id
+
+fun chooseIdAgain(a: UserId, b: UserId): Int = choose(a, b, false).id
+
+fun identityName(n: Name): String = identity(n).value
+
+fun describeId(a: UserId): String = describe(a)
+
+// Both calls of 'choose' use the same copy, 'describe' is only specialized for the argument
+// 1 private final static synthetic choose-[\w-]+\(IIZ\)I
+// 2 INVOKESTATIC \w+\.choose-[\w-]+ \(IIZ\)I
+// 1 private final static synthetic identity-[\w-]+\(Ljava/lang/String;\)Ljava/lang/String;
+// 1 private final static synthetic describe-[\w-]+\(I\)Ljava/lang/String;
+// 0 INVOKESTATIC \w+\.choose \(
+// 0 INVOKESTATIC \w+\.identity \(
+// 0 INVOKESTATIC \w+\.describe \(
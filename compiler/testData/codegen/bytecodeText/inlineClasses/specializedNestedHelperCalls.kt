@@ -0,0 +1,14 @@
+// !LANGUAGE: +InlineClasses
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SPECIALIZE_FOR_INLINE_CLASSES
+
+inline class UserId(val id: Int)
+
+private fun <T> identity(x: T): T = x
+
+fun nested(): Int = identity(identity(UserId(1))).id
+
+// The inner call is only specialized for the argument, the outer one only for the result
+// 1 private final static synthetic identity-[\w-]+\(I\)Ljava/lang/Object;
+// 1 private final static synthetic identity-[\w-]+\(Ljava/lang/Object;\)I
+// 0 INVOKESTATIC \w+\.identity \(
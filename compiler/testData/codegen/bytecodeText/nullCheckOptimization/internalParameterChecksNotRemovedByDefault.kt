@@ -0,0 +1,19 @@
+// IGNORE_BACKEND: JVM_IR
+
+internal fun length(s: String) = s.length
+
+internal fun lengthOfPlatformValue(s: String) = s.length
+
+internal fun referenced(s: String) = s.length
+
+fun publicLength(s: String) = s.length
+
+fun test(s: String, n: String?): Int {
+    var result = length(s) + length("a") + publicLength(s)
+    if (n != null) result += length(n)
+    result += lengthOfPlatformValue(System.getProperty("x"))
+    val f = ::referenced
+    return result + f("b")
+}
+
+// 5 checkParameterIsNotNull
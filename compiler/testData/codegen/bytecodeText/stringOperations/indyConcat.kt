@@ -0,0 +1,18 @@
+// IGNORE_BACKEND: JVM_IR
+// JVM_TARGET: 1.8
+// KOTLIN_CONFIGURATION_FLAGS: STRING_CONCAT=indy-with-constants
+class A() {
+
+    override fun toString(): String {
+        return "A"
+    }
+}
+
+fun test(p: Int, a: A, s: String): String {
+    var result = "1" + "2" + p + 4L + 5.0 + 6F + '7' + a
+    result += s + "x"
+    return "$result: ${p}_${a}_$s!"
+}
+
+// 0 NEW java/lang/StringBuilder
+// 3 INVOKEDYNAMIC makeConcatWithConstants
@@ -0,0 +1,15 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: STRING_CONCAT=indy-with-constants
+class A() {
+
+    override fun toString(): String {
+        return "A"
+    }
+}
+
+fun test(p: Int, a: A): String {
+    return "$p: $a"
+}
+
+// 1 NEW java/lang/StringBuilder
+// 0 INVOKEDYNAMIC
@@ -0,0 +1,29 @@
+// IGNORE_BACKEND: JVM_IR
+sealed class Event {
+    class Click(val x: Int) : Event()
+    class Key(val code: Int) : Event()
+    class Scroll(val delta: Int) : Event()
+    object Focus : Event()
+    object Blur : Event()
+    class Resize(val width: Int) : Event()
+    class Move(val x: Int) : Event()
+    class Drop(val count: Int) : Event()
+    class Other : Event()
+}
+
+fun handle(e: Event?): Int =
+    when (e) {
+        is Event.Click -> e.x
+        is Event.Key -> e.code
+        is Event.Scroll -> e.delta
+        is Event.Focus, is Event.Blur -> 1
+        is Event.Resize -> e.width
+        is Event.Move -> e.x
+        is Event.Drop -> e.count
+        null -> -1
+        else -> 0
+    }
+
+// 0 LOOKUPSWITCH
+// 0 INVOKEVIRTUAL java/lang/Class.getName
+// 8 INSTANCEOF
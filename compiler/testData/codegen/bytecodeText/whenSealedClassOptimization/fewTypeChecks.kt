@@ -0,0 +1,18 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SEALED_CLASS_WHEN_SWITCH
+sealed class Shape {
+    class Circle(val r: Int) : Shape()
+    class Square(val side: Int) : Shape()
+    object Point : Shape()
+}
+
+fun size(s: Shape): Int =
+    when (s) {
+        is Shape.Circle -> s.r
+        is Shape.Square -> s.side
+        is Shape.Point -> 0
+    }
+
+// 0 LOOKUPSWITCH
+// 0 TABLESWITCH
+// 3 INSTANCEOF
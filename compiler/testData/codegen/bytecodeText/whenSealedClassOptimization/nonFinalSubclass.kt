@@ -0,0 +1,30 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SEALED_CLASS_WHEN_SWITCH
+sealed class Node {
+    class A : Node()
+    class B : Node()
+    class C : Node()
+    class D : Node()
+    class E : Node()
+    class F : Node()
+    class G : Node()
+    sealed class Nested : Node() {
+        class H : Nested()
+    }
+}
+
+fun kind(n: Node): Int =
+    when (n) {
+        is Node.A -> 1
+        is Node.B -> 2
+        is Node.C -> 3
+        is Node.D -> 4
+        is Node.E -> 5
+        is Node.F -> 6
+        is Node.G -> 7
+        is Node.Nested -> 8
+    }
+
+// 0 LOOKUPSWITCH
+// 0 TABLESWITCH
+// 8 INSTANCEOF
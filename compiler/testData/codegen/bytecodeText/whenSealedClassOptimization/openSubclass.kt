@@ -0,0 +1,33 @@
+// IGNORE_BACKEND: JVM_IR
+// KOTLIN_CONFIGURATION_FLAGS: +JVM.SEALED_CLASS_WHEN_SWITCH
+sealed class Node {
+    class A : Node()
+    class B : Node()
+    class C : Node()
+    class D : Node()
+    class E : Node()
+    class F : Node()
+    class G : Node()
+    open class Open : Node()
+    class OpenChild : Open()
+    abstract class Abstract : Node()
+}
+
+fun kind(n: Node): Int =
+    when (n) {
+        is Node.A -> 1
+        is Node.B -> 2
+        is Node.C -> 3
+        is Node.D -> 4
+        is Node.E -> 5
+        is Node.F -> 6
+        is Node.G -> 7
+        is Node.Open -> 8
+        is Node.OpenChild -> 9
+        is Node.Abstract -> 10
+    }
+
+// Instances of exactly OpenChild take the branch of Open, and Abstract is only checked with instanceof
+// 1 LOOKUPSWITCH
+// 9 IF_ACMPEQ
+// 10 INSTANCEOF
@@ -0,0 +1,48 @@
+// TARGET_BACKEND: JVM
+// IGNORE_BACKEND: JVM_IR
+// JVM_TARGET: 1.8
+// KOTLIN_CONFIGURATION_FLAGS: STRING_CONCAT=indy-with-constants
+// FULL_JDK
+// SKIP_JDK6
+// WITH_RUNTIME
+
+class A(val id: Int) {
+    override fun toString() = "A$id"
+}
+
+fun template(i: Int, l: Long, d: Double, f: Float, c: Char, b: Boolean, a: A?, s: String?) =
+    "i=$i l=$l d=$d f=$f c=$c b=$b a=$a s=$s"
+
+fun plus(i: Int, a: A, s: String): String {
+    var result = "1" + "2" + i + 4L + 5.0 + 6F + '7' + a
+    result += s + "x"
+    return result
+}
+
+fun tags(x: Int) = "\u0001$x\u0002"
+
+fun manyArguments(x: Int) = "$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x$x"
+
+fun manyLongArguments(x: Long) = "$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,$x,"
+
+fun box(): String {
+    template(1, 2L, 3.5, 4.5F, 'c', true, A(5), "s").let {
+        if (it != "i=1 l=2 d=3.5 f=4.5 c=c b=true a=A5 s=s") return "Fail template: $it"
+    }
+    template(-1, Long.MAX_VALUE, Double.NaN, -0.0F, '\u0000', false, null, null).let {
+        if (it != "i=-1 l=9223372036854775807 d=NaN f=-0.0 c=\u0000 b=false a=null s=null") return "Fail template with nulls: $it"
+    }
+    plus(3, A(8), "s").let {
+        if (it != "12345.06.07A8sx") return "Fail plus: $it"
+    }
+    tags(42).let {
+        if (it != "\u000142\u0002") return "Fail tags: $it"
+    }
+    manyArguments(7).let {
+        if (it != "7".repeat(250)) return "Fail many arguments: $it"
+    }
+    manyLongArguments(7L).let {
+        if (it != "7,".repeat(150)) return "Fail many long arguments: $it"
+    }
+    return "OK"
+}
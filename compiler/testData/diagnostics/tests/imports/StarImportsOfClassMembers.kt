@@ -0,0 +1,43 @@
+// SKIP_TXT
+// FILE: p/JavaUtil.java
+package p;
+
+public class JavaUtil {
+    public static final int CONSTANT = 42;
+
+    public static int twice(int x) {
+        return x * 2;
+    }
+
+    public static class JavaNested {}
+}
+
+// FILE: a.kt
+package a
+
+class Outer {
+    class Nested
+
+    object NestedObject {
+        fun foo() = 1
+    }
+}
+
+fun topLevel() = ""
+
+// FILE: b.kt
+package b
+
+import a.*
+import a.Outer.*
+import p.JavaUtil.*
+import p.*
+
+fun test() {
+    Nested()
+    NestedObject.foo()
+    JavaNested()
+    JavaUtil.JavaNested()
+    twice(CONSTANT)
+    topLevel()
+}
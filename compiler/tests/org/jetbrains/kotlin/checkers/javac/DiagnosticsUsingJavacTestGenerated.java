@@ -9061,6 +9061,11 @@ public class DiagnosticsUsingJavacTestGenerated extends AbstractDiagnosticsUsing
                 runTest("compiler/testData/diagnostics/tests/imports/StarImportFromObject.kt");
             }
 
+            @TestMetadata("StarImportsOfClassMembers.kt")
+            public void testStarImportsOfClassMembers() throws Exception {
+                runTest("compiler/testData/diagnostics/tests/imports/StarImportsOfClassMembers.kt");
+            }
+
             @TestMetadata("SyntaxError.kt")
             public void testSyntaxError() throws Exception {
                 runTest("compiler/testData/diagnostics/tests/imports/SyntaxError.kt");
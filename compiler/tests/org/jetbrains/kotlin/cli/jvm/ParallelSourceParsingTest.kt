@@ -0,0 +1,72 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.cli.jvm
+
+import com.intellij.psi.impl.DebugUtil
+import org.jetbrains.kotlin.cli.common.CLIConfigurationKeys
+import org.jetbrains.kotlin.cli.common.config.addKotlinSourceRoot
+import org.jetbrains.kotlin.cli.jvm.compiler.EnvironmentConfigFiles
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.diagnostics.rendering.DefaultErrorMessages
+import org.jetbrains.kotlin.resolve.lazy.JvmResolveUtil
+import org.jetbrains.kotlin.test.ConfigurationKind
+import org.jetbrains.kotlin.test.KotlinTestUtils
+import org.jetbrains.kotlin.test.TestJdkKind
+import org.jetbrains.kotlin.test.testFramework.KtUsefulTestCase
+import java.io.File
+
+class ParallelSourceParsingTest : KtUsefulTestCase() {
+    private fun createSources(): File {
+        val sourcesDir = KotlinTestUtils.tmpDirForTest(this)
+        for (i in 1..20) {
+            File(sourcesDir, "file$i.kt").writeText(
+                """
+                package test$i
+
+                class C$i(val x: Int) {
+                    fun sum(list: List<Int>) = list.map { it + x }.filter { y -> y > $i }.sum()
+
+                    fun nested(): () -> String {
+                        fun local() = "local$i"
+                        return { local() + object { override fun toString() = "$i" } }
+                    }
+                }
+
+                fun top$i(): String = ${if (i % 5 == 0) "$i" else "\"$i\""}
+                ${if (i % 7 == 0) "fun broken$i( = {" else ""}
+                """.trimIndent()
+            )
+        }
+        return sourcesDir
+    }
+
+    private fun createEnvironment(sourcesDir: File, parsingThreads: Int): KotlinCoreEnvironment {
+        val configuration = KotlinTestUtils.newConfiguration(ConfigurationKind.ALL, TestJdkKind.MOCK_JDK)
+        configuration.addKotlinSourceRoot(sourcesDir.path)
+        configuration.put(CLIConfigurationKeys.PARSING_THREADS, parsingThreads)
+        return KotlinCoreEnvironment.createForTests(testRootDisposable, configuration, EnvironmentConfigFiles.JVM_CONFIG_FILES)
+    }
+
+    private fun KotlinCoreEnvironment.dumpTrees(): List<String> =
+        getSourceFiles().map { it.name + "\n" + DebugUtil.psiToString(it, false, true) }
+
+    private fun KotlinCoreEnvironment.dumpDiagnostics(): List<String> =
+        JvmResolveUtil.analyze(this).bindingContext.diagnostics.all().map {
+            "${it.psiFile.name} ${it.textRanges} ${DefaultErrorMessages.render(it)}"
+        }.sorted()
+
+    fun testSameTreesAndDiagnostics() {
+        val sourcesDir = createSources()
+        val sequential = createEnvironment(sourcesDir, parsingThreads = 1)
+        val parallel = createEnvironment(sourcesDir, parsingThreads = 4)
+
+        assertEquals(sequential.dumpTrees(), parallel.dumpTrees())
+
+        val diagnostics = sequential.dumpDiagnostics()
+        assertTrue(diagnostics.isNotEmpty())
+        assertEquals(diagnostics, parallel.dumpDiagnostics())
+    }
+}
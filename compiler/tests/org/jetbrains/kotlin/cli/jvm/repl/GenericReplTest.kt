@@ -25,6 +25,8 @@ import org.jetbrains.kotlin.cli.common.messages.PrintingMessageCollector
 import org.jetbrains.kotlin.cli.common.repl.*
 import org.jetbrains.kotlin.cli.jvm.config.jvmClasspathRoots
 import org.jetbrains.kotlin.config.CommonConfigurationKeys
+import org.jetbrains.kotlin.config.CompilerConfiguration
+import org.jetbrains.kotlin.config.JVMConfigurationKeys
 import org.jetbrains.kotlin.integration.KotlinIntegrationTestBase
 import org.jetbrains.kotlin.script.KotlinScriptDefinition
 import org.jetbrains.kotlin.script.KotlinScriptDefinitionFromAnnotatedTemplate
@@ -36,6 +38,7 @@ import org.jetbrains.kotlin.test.testFramework.KtUsefulTestCase.resetApplication
 import java.io.Closeable
 import java.io.File
 import java.net.URLClassLoader
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.atomic.AtomicInteger
 import java.util.concurrent.locks.ReentrantReadWriteLock
 
@@ -141,6 +144,48 @@ class GenericReplTest : KtUsefulTestCase() {
         }
     }
 
+    fun testEarlierLinesInArray() {
+        TestRepl(configure = { put(JVMConfigurationKeys.REPL_EARLIER_LINES_IN_ARRAY, true) }).use { repl ->
+            val state = repl.createState()
+
+            assertEvalUnit(repl, state, "val x = 1")
+            assertEvalUnit(repl, state, "fun f(y: Int) = x + y")
+            assertEvalUnit(repl, state, "class C(val z: Int) { fun g() = f(z) }")
+            assertEvalUnit(repl, state, "val l = { a: Int -> f(a) + x }")
+            assertEvalUnit(repl, state, "inline fun h(b: Int) = l(b) + x")
+            assertEvalResult(repl, state, "C(2).g() + l(3) + h(4)", 15)
+        }
+    }
+
+    fun testLineLatencyBenchmark() {
+        // Compiling 10k lines takes minutes, so the benchmark is only run on demand
+        if (System.getProperty("kotlin.repl.benchmark") == null) return
+
+        for (earlierLinesInArray in listOf(false, true)) {
+            TestRepl(configure = { put(JVMConfigurationKeys.REPL_EARLIER_LINES_IN_ARRAY, earlierLinesInArray) }).use { repl ->
+                val state = repl.createState()
+                repl.compileAndEval(state, repl.nextCodeLine("val x0 = 0"))
+
+                var lines = 1
+                for (historySize in listOf(10, 1000, 10000)) {
+                    while (lines < historySize) {
+                        repl.compileAndEval(state, repl.nextCodeLine("val x$lines = x${lines - 1} + 1"))
+                        lines++
+                    }
+
+                    val samples = 20
+                    val start = System.nanoTime()
+                    repeat(samples) {
+                        val result = repl.compileAndEval(state, repl.nextCodeLine("x${lines - 1} + $it"))
+                        assertTrue(result.first.toString(), result.first is ReplCompileResult.CompiledClasses)
+                    }
+                    val latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / samples
+                    println("History of $historySize lines${if (earlierLinesInArray) " (array)" else ""}: $latency us per line")
+                }
+            }
+        }
+    }
+
     private fun assertEvalUnit(repl: TestRepl, state: IReplStageState<*>, line: String) {
         val codeLine = repl.nextCodeLine(line)
         val compileResult = repl.replCompiler.compile(state, codeLine)
@@ -169,7 +214,8 @@ class GenericReplTest : KtUsefulTestCase() {
 internal class TestRepl(
         templateClasspath: List<File> = listOf(File(KotlinIntegrationTestBase.getCompilerLib(), "kotlin-stdlib.jar")),
         templateClassName: String = "kotlin.script.templates.standard.ScriptTemplateWithArgs",
-        repeatingMode: ReplRepeatingMode = ReplRepeatingMode.NONE
+        repeatingMode: ReplRepeatingMode = ReplRepeatingMode.NONE,
+        configure: CompilerConfiguration.() -> Unit = {}
 ) : Closeable {
     val application = ApplicationManager.getApplication()
 
@@ -179,6 +225,7 @@ internal class TestRepl(
 
     private val configuration = KotlinTestUtils.newConfiguration(ConfigurationKind.ALL, TestJdkKind.MOCK_JDK, *templateClasspath.toTypedArray()).apply {
         put(CommonConfigurationKeys.MODULE_NAME, "kotlin-script")
+        configure()
     }
 
     val baseClasspath: List<File> get() = configuration.jvmClasspathRoots
@@ -507,6 +507,21 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
             runTest("compiler/testData/codegen/bytecodeText/boxingOptimization/nullCheck.kt");
         }
 
+        @TestMetadata("nullablePrimitiveLocal.kt")
+        public void testNullablePrimitiveLocal() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/boxingOptimization/nullablePrimitiveLocal.kt");
+        }
+
+        @TestMetadata("nullablePrimitiveLocalEscaping.kt")
+        public void testNullablePrimitiveLocalEscaping() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/boxingOptimization/nullablePrimitiveLocalEscaping.kt");
+        }
+
+        @TestMetadata("nullablePrimitiveLocalNotOptimizedByDefault.kt")
+        public void testNullablePrimitiveLocalNotOptimizedByDefault() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/boxingOptimization/nullablePrimitiveLocalNotOptimizedByDefault.kt");
+        }
+
         @TestMetadata("progressions.kt")
         public void testProgressions() throws Exception {
             runTest("compiler/testData/codegen/bytecodeText/boxingOptimization/progressions.kt");
@@ -748,6 +763,34 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
         }
     }
 
+    @TestMetadata("compiler/testData/codegen/bytecodeText/closureScalarization")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class ClosureScalarization extends AbstractIrBytecodeTextTest {
+        private void runTest(String testDataFilePath) throws Exception {
+            KotlinTestUtils.runTest(this::doTest, TargetBackend.JVM_IR, testDataFilePath);
+        }
+
+        public void testAllFilesPresentInClosureScalarization() throws Exception {
+            KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/bytecodeText/closureScalarization"), Pattern.compile("^(.+)\\.kt$"), TargetBackend.JVM_IR, true);
+        }
+
+        @TestMetadata("escapingLambda.kt")
+        public void testEscapingLambda() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/closureScalarization/escapingLambda.kt");
+        }
+
+        @TestMetadata("locallyInvokedLambda.kt")
+        public void testLocallyInvokedLambda() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/closureScalarization/locallyInvokedLambda.kt");
+        }
+
+        @TestMetadata("tryCatchInExpression.kt")
+        public void testTryCatchInExpression() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/closureScalarization/tryCatchInExpression.kt");
+        }
+    }
+
     @TestMetadata("compiler/testData/codegen/bytecodeText/coercionToUnitOptimization")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -1110,6 +1153,11 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
             runTest("compiler/testData/codegen/bytecodeText/coroutines/doNotReassignContinuation_1_2.kt");
         }
 
+        @TestMetadata("optimizedSpilling.kt")
+        public void testOptimizedSpilling() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/coroutines/optimizedSpilling.kt");
+        }
+
         @TestMetadata("returnUnitInLambda.kt")
         public void testReturnUnitInLambda_1_2() throws Exception {
             runTestWithPackageReplacement("compiler/testData/codegen/bytecodeText/coroutines/returnUnitInLambda.kt", "kotlin.coroutines.experimental");
@@ -1718,6 +1766,34 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
             }
         }
 
+        @TestMetadata("compiler/testData/codegen/bytecodeText/forLoop/forInList")
+        @TestDataPath("$PROJECT_ROOT")
+        @RunWith(JUnit3RunnerWithInners.class)
+        public static class ForInList extends AbstractIrBytecodeTextTest {
+            private void runTest(String testDataFilePath) throws Exception {
+                KotlinTestUtils.runTest(this::doTest, TargetBackend.JVM_IR, testDataFilePath);
+            }
+
+            public void testAllFilesPresentInForInList() throws Exception {
+                KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/bytecodeText/forLoop/forInList"), Pattern.compile("^(.+)\\.kt$"), TargetBackend.JVM_IR, true);
+            }
+
+            @TestMetadata("forInArrayList.kt")
+            public void testForInArrayList() throws Exception {
+                runTest("compiler/testData/codegen/bytecodeText/forLoop/forInList/forInArrayList.kt");
+            }
+
+            @TestMetadata("forInIterableNotList.kt")
+            public void testForInIterableNotList() throws Exception {
+                runTest("compiler/testData/codegen/bytecodeText/forLoop/forInList/forInIterableNotList.kt");
+            }
+
+            @TestMetadata("forInListNotIndexedByDefault.kt")
+            public void testForInListNotIndexedByDefault() throws Exception {
+                runTest("compiler/testData/codegen/bytecodeText/forLoop/forInList/forInListNotIndexedByDefault.kt");
+            }
+        }
+
         @TestMetadata("compiler/testData/codegen/bytecodeText/forLoop/forInReversed")
         @TestDataPath("$PROJECT_ROOT")
         @RunWith(JUnit3RunnerWithInners.class)
@@ -2264,6 +2340,26 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
             runTest("compiler/testData/codegen/bytecodeText/inlineClasses/skipCallToUnderlyingValueOfInlineClass.kt");
         }
 
+        @TestMetadata("specializePrivateGenericHelpers.kt")
+        public void testSpecializePrivateGenericHelpers() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/inlineClasses/specializePrivateGenericHelpers.kt");
+        }
+
+        @TestMetadata("specializePrivateGenericHelpersDisabledByDefault.kt")
+        public void testSpecializePrivateGenericHelpersDisabledByDefault() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/inlineClasses/specializePrivateGenericHelpersDisabledByDefault.kt");
+        }
+
+        @TestMetadata("specializedHelperSignatures.kt")
+        public void testSpecializedHelperSignatures() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/inlineClasses/specializedHelperSignatures.kt");
+        }
+
+        @TestMetadata("specializedNestedHelperCalls.kt")
+        public void testSpecializedNestedHelperCalls() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/inlineClasses/specializedNestedHelperCalls.kt");
+        }
+
         @TestMetadata("toStringIsCalledByInlineClass.kt")
         public void testToStringIsCalledByInlineClass() throws Exception {
             runTest("compiler/testData/codegen/bytecodeText/inlineClasses/toStringIsCalledByInlineClass.kt");
@@ -2783,6 +2879,16 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
             runTest("compiler/testData/codegen/bytecodeText/nullCheckOptimization/ifUnitEqualsNullInline.kt");
         }
 
+        @TestMetadata("internalParameterChecksNotRemovedByDefault.kt")
+        public void testInternalParameterChecksNotRemovedByDefault() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/nullCheckOptimization/internalParameterChecksNotRemovedByDefault.kt");
+        }
+
+        @TestMetadata("internalParameterChecksRemoved.kt")
+        public void testInternalParameterChecksRemoved() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/nullCheckOptimization/internalParameterChecksRemoved.kt");
+        }
+
         @TestMetadata("kt12839.kt")
         public void testKt12839() throws Exception {
             runTest("compiler/testData/codegen/bytecodeText/nullCheckOptimization/kt12839.kt");
@@ -3105,6 +3211,21 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
             runTest("compiler/testData/codegen/bytecodeText/stringOperations/doNotAppendEmptyString.kt");
         }
 
+        @TestMetadata("indyConcat.kt")
+        public void testIndyConcat() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/stringOperations/indyConcat.kt");
+        }
+
+        @TestMetadata("indyConcatManyArguments.kt")
+        public void testIndyConcatManyArguments() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/stringOperations/indyConcatManyArguments.kt");
+        }
+
+        @TestMetadata("indyConcatOnJvm6.kt")
+        public void testIndyConcatOnJvm6() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/stringOperations/indyConcatOnJvm6.kt");
+        }
+
         @TestMetadata("interpolation.kt")
         public void testInterpolation() throws Exception {
             runTest("compiler/testData/codegen/bytecodeText/stringOperations/interpolation.kt");
@@ -3388,6 +3509,44 @@ public class IrBytecodeTextTestGenerated extends AbstractIrBytecodeTextTest {
         }
     }
 
+    @TestMetadata("compiler/testData/codegen/bytecodeText/whenSealedClassOptimization")
+    @TestDataPath("$PROJECT_ROOT")
+    @RunWith(JUnit3RunnerWithInners.class)
+    public static class WhenSealedClassOptimization extends AbstractIrBytecodeTextTest {
+        private void runTest(String testDataFilePath) throws Exception {
+            KotlinTestUtils.runTest(this::doTest, TargetBackend.JVM_IR, testDataFilePath);
+        }
+
+        public void testAllFilesPresentInWhenSealedClassOptimization() throws Exception {
+            KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/bytecodeText/whenSealedClassOptimization"), Pattern.compile("^(.+)\\.kt$"), TargetBackend.JVM_IR, true);
+        }
+
+        @TestMetadata("disabledByDefault.kt")
+        public void testDisabledByDefault() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/whenSealedClassOptimization/disabledByDefault.kt");
+        }
+
+        @TestMetadata("fewTypeChecks.kt")
+        public void testFewTypeChecks() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/whenSealedClassOptimization/fewTypeChecks.kt");
+        }
+
+        @TestMetadata("manySubclasses.kt")
+        public void testManySubclasses() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/whenSealedClassOptimization/manySubclasses.kt");
+        }
+
+        @TestMetadata("nonFinalSubclass.kt")
+        public void testNonFinalSubclass() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/whenSealedClassOptimization/nonFinalSubclass.kt");
+        }
+
+        @TestMetadata("openSubclass.kt")
+        public void testOpenSubclass() throws Exception {
+            runTest("compiler/testData/codegen/bytecodeText/whenSealedClassOptimization/openSubclass.kt");
+        }
+    }
+
     @TestMetadata("compiler/testData/codegen/bytecodeText/whenStringOptimization")
     @TestDataPath("$PROJECT_ROOT")
     @RunWith(JUnit3RunnerWithInners.class)
@@ -3821,6 +3821,16 @@ public class LightAnalysisModeTestGenerated extends AbstractLightAnalysisModeTes
             runTest("compiler/testData/codegen/box/closures/refsAreSerializable.kt");
         }
 
+        @TestMetadata("scalarizedClosureWithTryCatch.kt")
+        public void testScalarizedClosureWithTryCatch() throws Exception {
+            runTest("compiler/testData/codegen/box/closures/scalarizedClosureWithTryCatch.kt");
+        }
+
+        @TestMetadata("scalarizedClosures.kt")
+        public void testScalarizedClosures() throws Exception {
+            runTest("compiler/testData/codegen/box/closures/scalarizedClosures.kt");
+        }
+
         @TestMetadata("simplestClosure.kt")
         public void testSimplestClosure() throws Exception {
             runTest("compiler/testData/codegen/box/closures/simplestClosure.kt");
@@ -4618,6 +4628,11 @@ public class LightAnalysisModeTestGenerated extends AbstractLightAnalysisModeTes
             runTest("compiler/testData/codegen/box/controlStructures/forInCharSequenceMut.kt");
         }
 
+        @TestMetadata("forInListByIndex.kt")
+        public void testForInListByIndex() throws Exception {
+            runTest("compiler/testData/codegen/box/controlStructures/forInListByIndex.kt");
+        }
+
         @TestMetadata("forInSmartCastToArray.kt")
         public void testForInSmartCastToArray() throws Exception {
             runTest("compiler/testData/codegen/box/controlStructures/forInSmartCastToArray.kt");
@@ -12308,6 +12323,11 @@ public class LightAnalysisModeTestGenerated extends AbstractLightAnalysisModeTes
             runTest("compiler/testData/codegen/box/inlineClasses/smartCastOnThisOfInlineClassType.kt");
         }
 
+        @TestMetadata("specializedPrivateHelpers.kt")
+        public void testSpecializedPrivateHelpers() throws Exception {
+            runTest("compiler/testData/codegen/box/inlineClasses/specializedPrivateHelpers.kt");
+        }
+
         @TestMetadata("toStringCallingPrivateFun.kt")
         public void testToStringCallingPrivateFun() throws Exception {
             runTest("compiler/testData/codegen/box/inlineClasses/toStringCallingPrivateFun.kt");
@@ -15947,6 +15967,11 @@ public class LightAnalysisModeTestGenerated extends AbstractLightAnalysisModeTes
             KotlinTestUtils.assertAllTestsPresentByMetadata(this.getClass(), new File("compiler/testData/codegen/box/nullCheckOptimization"), Pattern.compile("^(.+)\\.kt$"), TargetBackend.JVM, true);
         }
 
+        @TestMetadata("internalParameterChecksOfImplicitReceivers.kt")
+        public void testInternalParameterChecksOfImplicitReceivers() throws Exception {
+            runTest("compiler/testData/codegen/box/nullCheckOptimization/internalParameterChecksOfImplicitReceivers.kt");
+        }
+
         @TestMetadata("isNullable.kt")
         public void testIsNullable() throws Exception {
             runTest("compiler/testData/codegen/box/nullCheckOptimization/isNullable.kt");
@@ -24559,6 +24584,11 @@ public class LightAnalysisModeTestGenerated extends AbstractLightAnalysisModeTes
             runTest("compiler/testData/codegen/box/when/range.kt");
         }
 
+        @TestMetadata("sealedClassSwitch.kt")
+        public void testSealedClassSwitch() throws Exception {
+            runTest("compiler/testData/codegen/box/when/sealedClassSwitch.kt");
+        }
+
         @TestMetadata("sealedWhenInitialization.kt")
         public void testSealedWhenInitialization() throws Exception {
             runTest("compiler/testData/codegen/box/when/sealedWhenInitialization.kt");
@@ -24837,6 +24867,11 @@ public class LightAnalysisModeTestGenerated extends AbstractLightAnalysisModeTes
                 runTest("compiler/testData/codegen/box/when/whenSubjectVariable/rangeCheckOnSubjectVariable.kt");
             }
 
+            @TestMetadata("sealedClassSwitchWithSubjectVariable.kt")
+            public void testSealedClassSwitchWithSubjectVariable() throws Exception {
+                runTest("compiler/testData/codegen/box/when/whenSubjectVariable/sealedClassSwitchWithSubjectVariable.kt");
+            }
+
             @TestMetadata("sparseIntSwitchWithSubjectVariable.kt")
             public void testSparseIntSwitchWithSubjectVariable() throws Exception {
                 runTest("compiler/testData/codegen/box/when/whenSubjectVariable/sparseIntSwitchWithSubjectVariable.kt");
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.resolve.calls.smartcasts
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.builtins.DefaultBuiltIns
+import org.jetbrains.kotlin.config.LanguageVersionSettingsImpl
+import java.lang.management.ManagementFactory
+
+/**
+ * Emulates data flow of smart-cast-heavy code: long `when` chains over many nullable subjects,
+ * where every branch checks a subject for null and for a type, and the branches are joined afterwards
+ */
+class DataFlowInfoAllocationTest : TestCase() {
+    private val builtIns = DefaultBuiltIns.Instance
+    private val settings = LanguageVersionSettingsImpl.DEFAULT
+
+    private class Subject(private val name: String) : IdentifierInfo {
+        override val kind: DataFlowValue.Kind get() = DataFlowValue.Kind.STABLE_VALUE
+
+        override fun toString() = name
+    }
+
+    private val subjects = (1..50).map { DataFlowValue(Subject("x$it"), builtIns.nullableAnyType) }
+    private val nullValue = DataFlowValue.nullValue(builtIns)
+
+    private fun whenChain(): DataFlowInfo {
+        var info = DataFlowInfo.EMPTY
+        for (subject in subjects) {
+            val notNull = info.disequate(subject, nullValue, settings)
+            val isString = notNull.establishSubtyping(subject, builtIns.stringType, settings)
+            val isNumber = notNull.establishSubtyping(subject, builtIns.number.defaultType, settings)
+            info = info.and(isString.or(isNumber))
+        }
+        return info
+    }
+
+    fun testResults() {
+        val info = whenChain()
+        for (subject in subjects) {
+            assertEquals(Nullability.NOT_NULL, info.getStableNullability(subject))
+            assertEquals(setOf(builtIns.anyType), info.getStableTypes(subject, settings))
+        }
+    }
+
+    fun testAllocationBenchmark() {
+        // The numbers depend on the JVM and are only reported, so the benchmark is only run on demand
+        if (System.getProperty("kotlin.dataflow.benchmark") == null) return
+
+        val threadBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        if (threadBean == null || !threadBean.isThreadAllocatedMemorySupported) return
+
+        val iterations = 200
+        repeat(iterations) { whenChain() }
+
+        val threadId = Thread.currentThread().id
+        val allocatedBefore = threadBean.getThreadAllocatedBytes(threadId)
+        val start = System.nanoTime()
+        repeat(iterations) { whenChain() }
+        val time = (System.nanoTime() - start) / 1000000
+        val allocated = threadBean.getThreadAllocatedBytes(threadId) - allocatedBefore
+
+        println("${subjects.size} subjects x $iterations chains: ${allocated / iterations / 1024} KB per chain, $time ms")
+    }
+}
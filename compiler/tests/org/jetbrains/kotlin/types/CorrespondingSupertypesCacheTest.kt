@@ -0,0 +1,80 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.types
+
+import junit.framework.TestCase
+import org.jetbrains.kotlin.builtins.DefaultBuiltIns
+import org.jetbrains.kotlin.descriptors.ClassDescriptor
+import org.jetbrains.kotlin.descriptors.annotations.Annotations
+import org.jetbrains.kotlin.types.checker.NewKotlinTypeChecker
+import org.jetbrains.kotlin.types.checker.TypeCheckerContext
+
+class CorrespondingSupertypesCacheTest : TestCase() {
+    private val builtIns = DefaultBuiltIns.Instance
+
+    private class UncachedContext : TypeCheckerContext(errorTypeEqualsToAnything = false) {
+        override val canUseCorrespondingSupertypesCache: Boolean get() = false
+    }
+
+    private fun ClassDescriptor.of(argument: KotlinType): SimpleType =
+        KotlinTypeFactory.simpleNotNullType(Annotations.EMPTY, this, listOf(TypeProjectionImpl(argument)))
+
+    private fun queries(): List<Pair<SimpleType, SimpleType>> {
+        val subtypes = listOf(
+            builtIns.intType, builtIns.longType, builtIns.doubleType, builtIns.charType,
+            builtIns.stringType, builtIns.booleanType, builtIns.unitType
+        )
+        val supertypes = subtypes.flatMap {
+            listOf(builtIns.comparable.of(it), builtIns.iterable.of(it), builtIns.collection.of(it))
+        } + listOf(builtIns.number.defaultType, builtIns.charSequence.defaultType, builtIns.anyType)
+
+        return subtypes.flatMap { subtype -> supertypes.map { supertype -> subtype to supertype } }
+    }
+
+    private fun TypeCheckerContext.check(queries: List<Pair<SimpleType, SimpleType>>): List<Boolean> =
+        with(NewKotlinTypeChecker) {
+            queries.map { (subtype, supertype) -> isSubtypeOf(subtype, supertype) }
+        }
+
+    fun testCachedResultsAreTheSame() {
+        val queries = queries()
+
+        val cached = TypeCheckerContext(errorTypeEqualsToAnything = false).check(queries)
+        val cachedAgain = TypeCheckerContext(errorTypeEqualsToAnything = false).check(queries)
+
+        assertEquals(UncachedContext().check(queries), cached)
+        assertEquals(cached, cachedAgain)
+
+        val intConstructor = builtIns.intType.constructor as AbstractClassTypeConstructor
+        assertNotNull(intConstructor.getCachedCorrespondingSupertypes(builtIns.number.typeConstructor))
+    }
+
+    fun testHitsAndMissesAreCounted() {
+        val constructor = builtIns.byteType.constructor as AbstractClassTypeConstructor
+        val query = listOf(builtIns.byteType to builtIns.number.defaultType)
+
+        // Built-ins are shared with other tests, so only the difference is checked
+        TypeCheckerContext(errorTypeEqualsToAnything = false).check(query)
+        val hits = constructor.correspondingSupertypesCacheHits
+        val misses = constructor.correspondingSupertypesCacheMisses
+
+        repeat(3) { TypeCheckerContext(errorTypeEqualsToAnything = false).check(query) }
+        assertEquals(hits + 3, constructor.correspondingSupertypesCacheHits)
+        assertEquals(misses, constructor.correspondingSupertypesCacheMisses)
+    }
+
+    fun testCacheIsBounded() {
+        val constructor = builtIns.string.typeConstructor as AbstractClassTypeConstructor
+        val keys = listOf(builtIns.number, builtIns.charSequence, builtIns.comparable).map { it.typeConstructor }
+
+        constructor.cacheCorrespondingSupertypes(keys[0], emptyList(), 2)
+        constructor.cacheCorrespondingSupertypes(keys[1], emptyList(), 2)
+        constructor.cacheCorrespondingSupertypes(keys[2], emptyList(), 2)
+
+        assertNull(constructor.getCachedCorrespondingSupertypes(keys[0]))
+        assertNotNull(constructor.getCachedCorrespondingSupertypes(keys[2]))
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.util
+
+import org.junit.Assert
+import org.junit.Test
+
+class PhaseProfilerTest {
+    private fun createProfiler(): PhaseProfiler = PhaseProfiler().apply {
+        measure("Lower", "Simple lowering") {}
+        measure("Lower", "Simple lowering") {}
+        measure("Strange,name", "Lowering with \"quotes\"\nand line break") {}
+    }
+
+    @Test
+    fun testStatisticsAggregatedByName() {
+        val statistics = createProfiler().getStatistics()
+        Assert.assertEquals(listOf("Lower", "Strange,name"), statistics.map { it.name })
+        Assert.assertEquals(listOf(2, 1), statistics.map { it.invocations })
+    }
+
+    @Test
+    fun testCsv() {
+        val lines = createProfiler().renderCsv().lines()
+        Assert.assertEquals("phase,description,invocations,wallTimeMs,cpuTimeMs,allocatedBytes", lines[0])
+        Assert.assertTrue(lines[1], lines[1].startsWith("Lower,Simple lowering,2,"))
+        Assert.assertTrue(lines[2], lines[2].startsWith("\"Strange,name\",\"Lowering with \"\"quotes\"\""))
+        Assert.assertTrue(lines[3], lines[3].startsWith("and line break\",1,"))
+    }
+
+    @Test
+    fun testJson() {
+        val json = createProfiler().renderJson()
+        Assert.assertTrue(json, json.contains("{\"phase\": \"Lower\", \"description\": \"Simple lowering\", \"invocations\": 2, "))
+        Assert.assertTrue(
+            json, json.contains("{\"phase\": \"Strange,name\", \"description\": \"Lowering with \\\"quotes\\\"\\nand line break\", ")
+        )
+        Assert.assertEquals(4, json.trim().lines().size)
+    }
+}
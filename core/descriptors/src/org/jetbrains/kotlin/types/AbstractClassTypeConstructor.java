@@ -27,14 +27,58 @@ import org.jetbrains.kotlin.utils.SmartList;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.WeakHashMap;
 
 public abstract class AbstractClassTypeConstructor extends AbstractTypeConstructor implements TypeConstructor {
     private int hashCode = 0;
 
+    // Supertypes of this class with the given type constructor, see CorrespondingSupertypesCache.
+    // Keys are weak, so that constructors of short-lived sessions are not kept alive by long-lived built-in and library classes
+    private WeakHashMap<TypeConstructor, List<SimpleType>> correspondingSupertypes = null;
+    // Lookups in the cache above. They belong to the constructor, so they are counted per session without any global state
+    private int correspondingSupertypesHits = 0;
+    private int correspondingSupertypesMisses = 0;
+
     public AbstractClassTypeConstructor(@NotNull StorageManager storageManager) {
         super(storageManager);
     }
 
+    @Nullable
+    public synchronized List<SimpleType> getCachedCorrespondingSupertypes(@NotNull TypeConstructor constructor) {
+        List<SimpleType> result = correspondingSupertypes != null ? correspondingSupertypes.get(constructor) : null;
+        if (result != null) {
+            correspondingSupertypesHits++;
+        }
+        else {
+            correspondingSupertypesMisses++;
+        }
+        return result;
+    }
+
+    public synchronized int getCorrespondingSupertypesCacheHits() {
+        return correspondingSupertypesHits;
+    }
+
+    public synchronized int getCorrespondingSupertypesCacheMisses() {
+        return correspondingSupertypesMisses;
+    }
+
+    public synchronized void cacheCorrespondingSupertypes(
+            @NotNull TypeConstructor constructor,
+            @NotNull List<SimpleType> supertypes,
+            int maxEntries
+    ) {
+        if (correspondingSupertypes == null) {
+            correspondingSupertypes = new WeakHashMap<TypeConstructor, List<SimpleType>>(4);
+        }
+        else if (correspondingSupertypes.size() >= maxEntries) {
+            // Start over instead of keeping results of the first queries forever
+            correspondingSupertypes.clear();
+        }
+        correspondingSupertypes.put(constructor, supertypes);
+    }
+
     @Override
     public final int hashCode() {
         int currentHashCode = hashCode;
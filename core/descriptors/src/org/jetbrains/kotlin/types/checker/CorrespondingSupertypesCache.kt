@@ -0,0 +1,33 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.types.checker
+
+import org.jetbrains.kotlin.types.AbstractClassTypeConstructor
+import org.jetbrains.kotlin.types.SimpleType
+import org.jetbrains.kotlin.types.TypeConstructor
+
+/**
+ * Memoizes [NewKotlinTypeChecker.findCorrespondingSupertypes] for class types without arguments.
+ *
+ * For such a type the result depends only on the pair of type constructors, so it is stored in the type constructor of the subtype,
+ * which means that it lives exactly as long as the descriptors of its session. The supertype constructors are weak keys there,
+ * so that constructors of other sessions don't stay reachable from built-in classes.
+ */
+object CorrespondingSupertypesCache {
+    private const val MAX_ENTRIES_PER_CONSTRUCTOR = 64
+
+    internal inline fun getOrCompute(
+        baseConstructor: AbstractClassTypeConstructor,
+        constructor: TypeConstructor,
+        compute: () -> List<SimpleType>
+    ): List<SimpleType> {
+        baseConstructor.getCachedCorrespondingSupertypes(constructor)?.let { return it }
+
+        val result = compute()
+        baseConstructor.cacheCorrespondingSupertypes(constructor, result, MAX_ENTRIES_PER_CONSTRUCTOR)
+        return result
+    }
+}
@@ -270,6 +270,14 @@ object NewKotlinTypeChecker : KotlinTypeChecker {
             constructor: TypeConstructor
     ): List<SimpleType> {
         if (baseType.isClassType) {
+            val baseConstructor = baseType.constructor
+            if (canUseCorrespondingSupertypesCache && baseType.arguments.isEmpty() && !baseType.isError &&
+                baseConstructor is AbstractClassTypeConstructor && baseConstructor != constructor
+            ) {
+                return CorrespondingSupertypesCache.getOrCompute(baseConstructor, constructor) {
+                    collectAndFilter(baseType, constructor)
+                }
+            }
             return collectAndFilter(baseType, constructor)
         }
 
@@ -89,6 +89,8 @@ object KotlinIntroduceVariableHandler : RefactoringActionHandler {
             override fun areEqualTypeConstructors(a: TypeConstructor, b: TypeConstructor): Boolean {
                 return compareDescriptors(project, a.declarationDescriptor, b.declarationDescriptor)
             }
+
+            override val canUseCorrespondingSupertypesCache: Boolean get() = false
         }
 
         override fun equalTypes(a: KotlinType, b: KotlinType): Boolean {
@@ -5,19 +5,57 @@
 
 package kotlin.script.experimental.jvmhost
 
-import kotlin.script.experimental.api.KotlinType
-import kotlin.script.experimental.api.ScriptCompilationConfiguration
-import kotlin.script.experimental.api.ScriptEvaluator
+import kotlinx.coroutines.async
+import kotlinx.coroutines.asCoroutineDispatcher
+import kotlinx.coroutines.awaitAll
+import java.util.concurrent.Executor
+import kotlin.script.experimental.api.*
 import kotlin.script.experimental.host.ScriptingHostConfiguration
 import kotlin.script.experimental.host.createCompilationConfigurationFromTemplate
 import kotlin.script.experimental.host.BasicScriptingHost
 import kotlin.script.experimental.jvm.defaultJvmScriptingHostConfiguration
+import kotlin.script.experimental.jvmhost.impl.createSharedScriptsClassLoader
 
 open class BasicJvmScriptingHost(
     hostConfiguration: ScriptingHostConfiguration = defaultJvmScriptingHostConfiguration,
     compiler: JvmScriptCompiler = JvmScriptCompiler(hostConfiguration),
     evaluator: ScriptEvaluator = BasicJvmScriptEvaluator()
-) : BasicScriptingHost(compiler, evaluator)
+) : BasicScriptingHost(compiler, evaluator) {
+
+    private val jvmCompiler = compiler
+
+    /**
+     * Compiles [scripts] together and evaluates them concurrently on [executor], returning the evaluation results in the order
+     * of [scripts], or the compilation failure. The classes of the compiled scripts are loaded by one class loader, so the scripts
+     * share the classes they depend on; consequently, the [evaluationConfiguration] should not specify the actual class loader.
+     */
+    open fun evalBatch(
+        scripts: List<SourceCode>,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration,
+        evaluationConfiguration: ScriptEvaluationConfiguration?,
+        executor: Executor
+    ): ResultWithDiagnostics<List<ResultWithDiagnostics<EvaluationResult>>> =
+        runInCoroutineContext {
+            jvmCompiler.compileBatch(scripts, scriptCompilationConfiguration).onSuccess { compiledScripts ->
+                val baseClassLoader = evaluationConfiguration?.get(JvmScriptEvaluationConfiguration.baseClassLoader)
+                    ?: Thread.currentThread().contextClassLoader
+                val (classLoader, sharedScripts) = createSharedScriptsClassLoader(compiledScripts, baseClassLoader)
+                val sharedEvaluationConfiguration = ScriptEvaluationConfiguration(listOfNotNull(evaluationConfiguration)) {
+                    set(JvmScriptEvaluationConfiguration.actualClassLoader, classLoader)
+                }
+
+                val dispatcher = executor.asCoroutineDispatcher()
+                compiledScripts.map { compiledScript ->
+                    async(dispatcher) {
+                        evaluator(
+                            compiledScript,
+                            if (compiledScript in sharedScripts) sharedEvaluationConfiguration else evaluationConfiguration
+                        )
+                    }
+                }.awaitAll().asSuccess()
+            }
+        }
+}
 
 
 inline fun <reified T : Any> createJvmCompilationConfigurationFromTemplate(
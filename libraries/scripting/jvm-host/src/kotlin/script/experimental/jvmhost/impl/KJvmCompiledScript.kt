@@ -9,7 +9,9 @@ import org.jetbrains.kotlin.codegen.state.GenerationState
 import java.io.ObjectInputStream
 import java.io.ObjectOutputStream
 import java.io.Serializable
+import java.net.URL
 import java.net.URLClassLoader
+import java.util.*
 import kotlin.reflect.KClass
 import kotlin.script.experimental.api.*
 import kotlin.script.experimental.jvm.JvmDependency
@@ -35,9 +37,12 @@ class KJvmCompiledScript<out ScriptBase : Any>(
     compilationConfiguration: ScriptCompilationConfiguration,
     private var scriptClassFQName: String,
     otherScripts: List<CompiledScript<*>> = emptyList(),
-    private var compiledModule: KJvmCompiledModule? = null
+    compiledModule: KJvmCompiledModule? = null
 ) : CompiledScript<ScriptBase>, Serializable {
 
+    internal var compiledModule: KJvmCompiledModule? = compiledModule
+        private set
+
     private var _sourceLocationId: String? = sourceLocationId
 
     override val sourceLocationId: String?
@@ -108,4 +113,38 @@ class KJvmCompiledScript<out ScriptBase : Any>(
         @JvmStatic
         private val serialVersionUID = 1L
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Creates one class loader for the classes of [scripts] on top of [baseClassLoader] and the dependencies of the scripts, defining
+ * the classes of each compiled module once, so that scripts compiled together share them. Returns the class loader and the scripts
+ * it can load: scripts without compiled modules, or with classes clashing with the classes of other scripts (e.g. scripts with
+ * the same names compiled separately) are left out.
+ */
+internal fun createSharedScriptsClassLoader(
+    scripts: List<CompiledScript<*>>,
+    baseClassLoader: ClassLoader
+): Pair<ClassLoader, Set<CompiledScript<*>>> {
+    val entries = HashMap<String, ByteArray>()
+    val modules = Collections.newSetFromMap(IdentityHashMap<KJvmCompiledModule, Boolean>())
+    val dependencies = LinkedHashSet<URL>()
+    val sharedScripts = Collections.newSetFromMap(IdentityHashMap<CompiledScript<*>, Boolean>())
+
+    for (script in scripts) {
+        val module = (script as? KJvmCompiledScript<*>)?.compiledModule ?: continue
+        if (module !in modules) {
+            if (module.compilerOutputFiles.keys.any { it in entries }) continue
+            modules.add(module)
+            entries.putAll(module.compilerOutputFiles)
+            script.compilationConfiguration[ScriptCompilationConfiguration.dependencies]?.forEach { dependency ->
+                (dependency as? JvmDependency)?.classpath?.mapTo(dependencies) { it.toURI().toURL() }
+            }
+        }
+        sharedScripts.add(script)
+    }
+
+    val classLoaderWithDeps =
+        if (dependencies.isEmpty()) baseClassLoader
+        else URLClassLoader(dependencies.toTypedArray(), baseClassLoader)
+    return CompiledScriptClassLoader(classLoaderWithDeps, entries) to sharedScripts
+}
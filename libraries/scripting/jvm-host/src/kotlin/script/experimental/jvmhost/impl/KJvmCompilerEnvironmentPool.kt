@@ -0,0 +1,126 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package kotlin.script.experimental.jvmhost.impl
+
+import com.intellij.openapi.Disposable
+import com.intellij.openapi.util.Disposer
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageLocation
+import org.jetbrains.kotlin.cli.common.messages.CompilerMessageSeverity
+import org.jetbrains.kotlin.cli.common.messages.MessageCollector
+import org.jetbrains.kotlin.cli.common.script.CliScriptDependenciesProvider
+import org.jetbrains.kotlin.cli.jvm.compiler.KotlinCoreEnvironment
+import org.jetbrains.kotlin.script.ScriptDependenciesProvider
+import java.io.Closeable
+import java.io.File
+import java.util.*
+
+/**
+ * Keeps compiler environments of [KJvmCompilerImpl] warm between compilations, so that scripts with the same compilation
+ * configuration reuse the project environment, the index of the classpath roots and the loaded module mappings of the libraries
+ * instead of creating them for every script. Descriptors are still created per compilation, since they belong to the module
+ * of the compiled script.
+ *
+ * Each environment is used by one compilation at a time, so the pool may be shared by compilers running in different threads:
+ * concurrent compilations get different environments. At most [maxIdleEnvironments] unused environments are kept, the least recently
+ * used ones are disposed first. Environments whose classpath was extended during compilation, e.g. by dependencies resolved from
+ * the script annotations, are disposed instead of being reused.
+ */
+class KJvmCompilerEnvironmentPool(
+    private val maxIdleEnvironments: Int = Runtime.getRuntime().availableProcessors()
+) : Closeable {
+
+    private val idleEnvironments = LinkedHashMap<String, ArrayDeque<ScriptCompilerEnvironment>>(16, 0.75f, true)
+    private var idleCount = 0
+    private var isClosed = false
+
+    val idleEnvironmentsCount: Int get() = synchronized(idleEnvironments) { idleCount }
+
+    internal fun acquire(key: String, create: () -> ScriptCompilerEnvironment): ScriptCompilerEnvironment {
+        synchronized(idleEnvironments) {
+            val environments = idleEnvironments[key]
+            if (environments != null) {
+                val environment = environments.pollFirst()
+                if (environments.isEmpty()) {
+                    idleEnvironments.remove(key)
+                }
+                if (environment != null) {
+                    idleCount--
+                    return environment
+                }
+            }
+        }
+        return create()
+    }
+
+    internal fun release(key: String, environment: ScriptCompilerEnvironment, isReusable: Boolean) {
+        val toDispose = arrayListOf<ScriptCompilerEnvironment>()
+        if (isReusable) {
+            environment.reset()
+            synchronized(idleEnvironments) {
+                if (isClosed || maxIdleEnvironments <= 0) {
+                    toDispose.add(environment)
+                } else {
+                    idleEnvironments.getOrPut(key) { ArrayDeque() }.addFirst(environment)
+                    idleCount++
+                    while (idleCount > maxIdleEnvironments) {
+                        val eldest = idleEnvironments.entries.first()
+                        toDispose.add(eldest.value.pollLast())
+                        if (eldest.value.isEmpty()) {
+                            idleEnvironments.remove(eldest.key)
+                        }
+                        idleCount--
+                    }
+                }
+            }
+        } else {
+            toDispose.add(environment)
+        }
+        toDispose.forEach { it.dispose() }
+    }
+
+    override fun close() {
+        val toDispose = synchronized(idleEnvironments) {
+            isClosed = true
+            idleCount = 0
+            idleEnvironments.values.flatten().also { idleEnvironments.clear() }
+        }
+        toDispose.forEach { it.dispose() }
+    }
+}
+
+internal class ScriptCompilerEnvironment {
+    val disposable: Disposable = Disposer.newDisposable()
+
+    // The environment reports to the collector of the current compilation
+    val messageCollector = DelegatingMessageCollector()
+
+    // Called by the script definition of the environment when dependencies are resolved during the current compilation
+    var onClasspathUpdated: (List<File>) -> Unit = {}
+
+    lateinit var environment: KotlinCoreEnvironment
+
+    fun reset() {
+        messageCollector.delegate = MessageCollector.NONE
+        onClasspathUpdated = {}
+        // Other scripts compiled in this environment may have the same paths
+        (ScriptDependenciesProvider.getInstance(environment.project) as? CliScriptDependenciesProvider)?.clearCache()
+    }
+
+    fun dispose() {
+        Disposer.dispose(disposable)
+    }
+}
+
+internal class DelegatingMessageCollector : MessageCollector {
+    var delegate: MessageCollector = MessageCollector.NONE
+
+    override fun clear() = delegate.clear()
+
+    override fun hasErrors(): Boolean = delegate.hasErrors()
+
+    override fun report(severity: CompilerMessageSeverity, message: String, location: CompilerMessageLocation?) =
+        delegate.report(severity, message, location)
+}
@@ -5,7 +5,6 @@
 package kotlin.script.experimental.jvmhost.impl
 
 import com.intellij.openapi.fileTypes.LanguageFileType
-import com.intellij.openapi.util.Disposer
 import com.intellij.openapi.util.text.StringUtil
 import com.intellij.openapi.vfs.CharsetToolkit
 import com.intellij.psi.PsiFileFactory
@@ -52,167 +51,247 @@ import kotlin.script.experimental.jvm.impl.BridgeDependenciesResolver
 import kotlin.script.experimental.jvm.jdkHome
 import kotlin.script.experimental.jvm.jvm
 import kotlin.script.experimental.jvmhost.KJvmCompilerProxy
+import kotlin.script.experimental.jvmhost.fingerprint
 import kotlin.script.experimental.util.getOrError
 
-class KJvmCompilerImpl(val hostConfiguration: ScriptingHostConfiguration) : KJvmCompilerProxy {
+/**
+ * Compiles scripts with the Kotlin compiler. A compiler environment is created for each script, unless [environmentPool] is given,
+ * in which case environments are taken from it and returned after compilation.
+ */
+class KJvmCompilerImpl(
+    val hostConfiguration: ScriptingHostConfiguration,
+    val environmentPool: KJvmCompilerEnvironmentPool? = null
+) : KJvmCompilerProxy {
 
     override fun compile(
         script: SourceCode,
         scriptCompilationConfiguration: ScriptCompilationConfiguration
-    ): ResultWithDiagnostics<CompiledScript<*>> {
+    ): ResultWithDiagnostics<CompiledScript<*>> =
+        compileScripts(listOf(script), scriptCompilationConfiguration).onSuccess {
+            it.single().asSuccess()
+        }
+
+    /**
+     * Compiles [scripts] in a single analysis and code generation pass. The resulting scripts share one compiled module, so their
+     * classes may be loaded by one class loader. Scripts without names, or with the same names, get unique file names, since script
+     * class names are derived from them.
+     */
+    override fun compileBatch(
+        scripts: List<SourceCode>,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ): ResultWithDiagnostics<List<CompiledScript<*>>> =
+        compileScripts(scripts, scriptCompilationConfiguration)
+
+    private fun compileScripts(
+        scripts: List<SourceCode>,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ): ResultWithDiagnostics<List<CompiledScript<*>>> {
         val messageCollector = ScriptDiagnosticsMessageCollector()
+        val defaultPath = scripts.singleOrNull()?.locationId
 
         fun failure(vararg diagnostics: ScriptDiagnostic): ResultWithDiagnostics.Failure =
             ResultWithDiagnostics.Failure(*messageCollector.diagnostics.toTypedArray(), *diagnostics)
 
-        fun failure(message: String): ResultWithDiagnostics.Failure =
+        fun failure(message: String, path: String? = defaultPath): ResultWithDiagnostics.Failure =
             ResultWithDiagnostics.Failure(
                 *messageCollector.diagnostics.toTypedArray(),
-                message.asErrorDiagnostics(path = script.locationId)
+                message.asErrorDiagnostics(path = path)
             )
 
         try {
             setIdeaIoUseFallback()
 
-            var environment: KotlinCoreEnvironment? = null
-            var updatedConfiguration = scriptCompilationConfiguration
+            val environmentKey = environmentPool?.let { environmentKey(scriptCompilationConfiguration) }
+            val compilerEnvironment =
+                if (environmentPool != null && environmentKey != null) {
+                    environmentPool.acquire(environmentKey) { createCompilerEnvironment(scriptCompilationConfiguration) }
+                } else {
+                    createCompilerEnvironment(scriptCompilationConfiguration)
+                }
 
-            fun updateClasspath(classpath: List<File>) {
-                environment!!.updateClasspath(classpath.map(::JvmClasspathRoot))
-                if (classpath.isNotEmpty()) {
-                    updatedConfiguration = ScriptCompilationConfiguration(updatedConfiguration) {
-                        dependencies.append(JvmDependency(classpath))
+            val environment = compilerEnvironment.environment
+            var isClasspathUpdated = false
+            try {
+                var updatedConfiguration = scriptCompilationConfiguration
+
+                fun updateClasspath(classpath: List<File>) {
+                    environment.updateClasspath(classpath.map(::JvmClasspathRoot))
+                    if (classpath.isNotEmpty()) {
+                        isClasspathUpdated = true
+                        updatedConfiguration = ScriptCompilationConfiguration(updatedConfiguration) {
+                            dependencies.append(JvmDependency(classpath))
+                        }
                     }
                 }
-            }
 
-            val disposable = Disposer.newDisposable()
-            val kotlinCompilerConfiguration = org.jetbrains.kotlin.config.CompilerConfiguration().apply {
-                add(
-                    JVMConfigurationKeys.SCRIPT_DEFINITIONS,
-                    BridgeScriptDefinition(scriptCompilationConfiguration, hostConfiguration, ::updateClasspath)
-                )
-                put<MessageCollector>(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, messageCollector)
-                put(JVMConfigurationKeys.RETAIN_OUTPUT_IN_MEMORY, true)
-
-                var isModularJava = false
-                (updatedConfiguration.getNoDefault(ScriptCompilationConfiguration.jvm.jdkHome)
-                    ?: hostConfiguration[ScriptingHostConfiguration.jvm.jdkHome])?.let {
-                    put(JVMConfigurationKeys.JDK_HOME, it)
-                    isModularJava = CoreJrtFileSystem.isModularJdk(it)
+                compilerEnvironment.messageCollector.delegate = messageCollector
+                compilerEnvironment.onClasspathUpdated = ::updateClasspath
+
+                val kotlinCompilerConfiguration = environment.configuration.copy().apply {
+                    put<MessageCollector>(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, messageCollector)
                 }
 
-                updatedConfiguration[ScriptCompilationConfiguration.dependencies]?.let { dependencies ->
-                    addJvmClasspathRoots(
-                        dependencies.flatMap {
-                            (it as JvmDependency).classpath
-                        }
-                    )
+                val analyzerWithCompilerReport = AnalyzerWithCompilerReport(messageCollector, environment.configuration.languageVersionSettings)
+
+                val psiFileFactory: PsiFileFactoryImpl = PsiFileFactory.getInstance(environment.project) as PsiFileFactoryImpl
+                val fileExtension = updatedConfiguration[ScriptCompilationConfiguration.fileExtension]
+                val usedFileNames = hashSetOf<String>()
+
+                fun uniqueFileName(name: String): String {
+                    if (usedFileNames.add(name)) return name
+                    val baseName = name.removeSuffix(".$fileExtension")
+                    var index = 2
+                    while (!usedFileNames.add("${baseName}_$index.$fileExtension")) index++
+                    return "${baseName}_$index.$fileExtension"
                 }
-                fun addRoot(moduleName: String, file: File) {
-                    if (isModularJava) {
-                        add(CLIConfigurationKeys.CONTENT_ROOTS, JvmModulePathRoot(file))
-                        add(JVMConfigurationKeys.ADDITIONAL_JAVA_MODULES, moduleName)
-                    } else {
-                        add(CLIConfigurationKeys.CONTENT_ROOTS, JvmClasspathRoot(file))
-                    }
+
+                val ktScripts = ArrayList<KtScript>(scripts.size)
+                val sourceFiles = ArrayList<KtFile>(scripts.size)
+                for (script in scripts) {
+                    val scriptText = getMergedScriptText(script, updatedConfiguration)
+                    val scriptFileName = uniqueFileName(script.name ?: "script.$fileExtension")
+
+                    val virtualFile = ScriptLightVirtualFile(scriptFileName, (script as? FileScriptSource)?.file?.path, scriptText)
+
+                    val psiFile: KtFile = psiFileFactory.trySetupPsiForFile(virtualFile, KotlinLanguage.INSTANCE, true, false) as KtFile?
+                        ?: return failure("Unable to make PSI file from script", script.locationId)
+
+                    ktScripts += psiFile.declarations.firstIsInstanceOrNull<KtScript>()
+                        ?: return failure("Not a script file", script.locationId)
+                    sourceFiles += psiFile
                 }
-                // TODO: implement logic similar to compiler's  -no-stdlib (and -no-reflect?)
-                addRoot("kotlin.stdlib", KotlinJars.stdlib)
-                KotlinJars.scriptRuntimeOrNull?.let { addRoot("kotlin.script.runtime", it) }
 
-                put(CommonConfigurationKeys.MODULE_NAME, "kotlin-script") // TODO" take meaningful and valid name from somewhere
-                languageVersionSettings = LanguageVersionSettingsImpl(
-                    LanguageVersion.LATEST_STABLE, ApiVersion.LATEST_STABLE, mapOf(AnalysisFlags.skipMetadataVersionCheck to true)
-                )
-            }
-            environment = KotlinCoreEnvironment.createForProduction(
-                disposable,
-                kotlinCompilerConfiguration,
-                EnvironmentConfigFiles.JVM_CONFIG_FILES
-            )
+                val (classpath, newSources, sourceDependencies) =
+                    collectScriptsCompilationDependencies(kotlinCompilerConfiguration, environment.project, sourceFiles)
+                kotlinCompilerConfiguration.addJvmClasspathRoots(classpath)
+                sourceFiles.addAll(newSources)
+
+                analyzerWithCompilerReport.analyzeAndReport(sourceFiles) {
+                    val project = environment.project
+                    TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegration(
+                        project,
+                        sourceFiles,
+                        NoScopeRecordCliBindingTrace(),
+                        environment.configuration,
+                        environment::getOrCreatePackagePartProvider
+                    )
+                }
+                val analysisResult = analyzerWithCompilerReport.analysisResult
 
-            val analyzerWithCompilerReport = AnalyzerWithCompilerReport(messageCollector, environment.configuration.languageVersionSettings)
+                if (!analysisResult.shouldGenerateCode) return failure("no code to generate")
+                if (analysisResult.isError() || messageCollector.hasErrors()) return failure()
 
-            val psiFileFactory: PsiFileFactoryImpl = PsiFileFactory.getInstance(environment.project) as PsiFileFactoryImpl
-            val scriptText = getMergedScriptText(script, updatedConfiguration)
-            val scriptFileName = script.name ?: "script.${updatedConfiguration[ScriptCompilationConfiguration.fileExtension]}"
+                val generationState = GenerationState.Builder(
+                    environment.project,
+                    ClassBuilderFactories.BINARIES,
+                    analysisResult.moduleDescriptor,
+                    analysisResult.bindingContext,
+                    sourceFiles,
+                    kotlinCompilerConfiguration
+                ).build()
 
-            val virtualFile = ScriptLightVirtualFile(scriptFileName, (script as? FileScriptSource)?.file?.path, scriptText)
+                KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION)
 
-            val psiFile: KtFile = psiFileFactory.trySetupPsiForFile(virtualFile, KotlinLanguage.INSTANCE, true, false) as KtFile?
-                ?: return failure("Unable to make PSI file from script")
+                val scriptDependenciesStack = ArrayDeque<KtScript>()
 
-            val ktScript = psiFile.declarations.firstIsInstanceOrNull<KtScript>()
-                ?: return failure("Not a script file")
+                fun makeOtherScripts(script: KtScript): List<KJvmCompiledScript<*>> {
 
-            val sourceFiles = arrayListOf(psiFile)
-            val (classpath, newSources, sourceDependencies) =
-                collectScriptsCompilationDependencies(kotlinCompilerConfiguration, environment.project, sourceFiles)
-            kotlinCompilerConfiguration.addJvmClasspathRoots(classpath)
-            sourceFiles.addAll(newSources)
+                    // TODO: ensure that it is caught earlier (as well) since it would be more economical
+                    if (scriptDependenciesStack.contains(script))
+                        throw IllegalArgumentException("Unable to handle recursive script dependencies")
+                    scriptDependenciesStack.push(script)
 
-            analyzerWithCompilerReport.analyzeAndReport(sourceFiles) {
-                val project = environment.project
-                TopDownAnalyzerFacadeForJVM.analyzeFilesWithJavaIntegration(
-                    project,
-                    sourceFiles,
-                    NoScopeRecordCliBindingTrace(),
-                    environment.configuration,
-                    environment::createPackagePartProvider
-                )
-            }
-            val analysisResult = analyzerWithCompilerReport.analysisResult
-
-            if (!analysisResult.shouldGenerateCode) return failure("no code to generate")
-            if (analysisResult.isError() || messageCollector.hasErrors()) return failure()
-
-            val generationState = GenerationState.Builder(
-                psiFile.project,
-                ClassBuilderFactories.BINARIES,
-                analysisResult.moduleDescriptor,
-                analysisResult.bindingContext,
-                sourceFiles,
-                kotlinCompilerConfiguration
-            ).build()
-
-            KotlinCodegenFacade.compileCorrectFiles(generationState, CompilationErrorHandler.THROW_EXCEPTION)
-
-            val scriptDependenciesStack = ArrayDeque<KtScript>()
-
-            fun makeOtherScripts(script: KtScript): List<KJvmCompiledScript<*>> {
-
-                // TODO: ensure that it is caught earlier (as well) since it would be more economical
-                if (scriptDependenciesStack.contains(script))
-                    throw IllegalArgumentException("Unable to handle recursive script dependencies")
-                scriptDependenciesStack.push(script)
-
-                val containingKtFile = script.containingKtFile
-                val otherScripts: List<KJvmCompiledScript<*>> =
-                    sourceDependencies.find { it.scriptFile == containingKtFile }?.sourceDependencies?.mapNotNull { sourceFile ->
-                        sourceFile.declarations.firstIsInstanceOrNull<KtScript>()?.let {
-                            KJvmCompiledScript<Any>(
-                                containingKtFile.virtualFile?.path, updatedConfiguration, it.fqName.asString(), makeOtherScripts(it)
-                            )
-                        }
-                    } ?: emptyList()
+                    val containingKtFile = script.containingKtFile
+                    val otherScripts: List<KJvmCompiledScript<*>> =
+                        sourceDependencies.find { it.scriptFile == containingKtFile }?.sourceDependencies?.mapNotNull { sourceFile ->
+                            sourceFile.declarations.firstIsInstanceOrNull<KtScript>()?.let {
+                                KJvmCompiledScript<Any>(
+                                    containingKtFile.virtualFile?.path, updatedConfiguration, it.fqName.asString(), makeOtherScripts(it)
+                                )
+                            }
+                        } ?: emptyList()
+
+                    scriptDependenciesStack.pop()
+                    return otherScripts
+                }
 
-                scriptDependenciesStack.pop()
-                return otherScripts
+                val compiledModule = KJvmCompiledModule(generationState)
+                val compiledScripts = scripts.mapIndexed { index, script ->
+                    KJvmCompiledScript<Any>(
+                        script.locationId,
+                        updatedConfiguration,
+                        ktScripts[index].fqName.asString(),
+                        makeOtherScripts(ktScripts[index]),
+                        compiledModule
+                    )
+                }
+
+                return ResultWithDiagnostics.Success(compiledScripts, messageCollector.diagnostics)
+            } finally {
+                if (environmentPool != null && environmentKey != null) {
+                    environmentPool.release(environmentKey, compilerEnvironment, isReusable = !isClasspathUpdated)
+                }
             }
+        } catch (ex: Throwable) {
+            return failure(ex.asDiagnostics(path = defaultPath))
+        }
+    }
+
+    // Environments are shared only by scripts whose compilation configurations, and so environment settings and script definitions,
+    // are the same; configurations that cannot be fingerprinted get a fresh environment
+    private fun environmentKey(scriptCompilationConfiguration: ScriptCompilationConfiguration): String? {
+        val hostFingerprint = hostConfiguration.fingerprint() ?: return null
+        val configurationFingerprint = scriptCompilationConfiguration.fingerprint() ?: return null
+        return hostFingerprint + configurationFingerprint
+    }
 
-            val compiledScript = KJvmCompiledScript<Any>(
-                script.locationId,
-                updatedConfiguration,
-                ktScript.fqName.asString(),
-                makeOtherScripts(ktScript),
-                KJvmCompiledModule(generationState)
+    private fun createCompilerEnvironment(scriptCompilationConfiguration: ScriptCompilationConfiguration): ScriptCompilerEnvironment {
+        val compilerEnvironment = ScriptCompilerEnvironment()
+        val kotlinCompilerConfiguration = org.jetbrains.kotlin.config.CompilerConfiguration().apply {
+            add(
+                JVMConfigurationKeys.SCRIPT_DEFINITIONS,
+                BridgeScriptDefinition(scriptCompilationConfiguration, hostConfiguration) { compilerEnvironment.onClasspathUpdated(it) }
             )
+            put<MessageCollector>(CLIConfigurationKeys.MESSAGE_COLLECTOR_KEY, compilerEnvironment.messageCollector)
+            put(JVMConfigurationKeys.RETAIN_OUTPUT_IN_MEMORY, true)
+
+            var isModularJava = false
+            (scriptCompilationConfiguration.getNoDefault(ScriptCompilationConfiguration.jvm.jdkHome)
+                ?: hostConfiguration[ScriptingHostConfiguration.jvm.jdkHome])?.let {
+                put(JVMConfigurationKeys.JDK_HOME, it)
+                isModularJava = CoreJrtFileSystem.isModularJdk(it)
+            }
 
-            return ResultWithDiagnostics.Success(compiledScript, messageCollector.diagnostics)
-        } catch (ex: Throwable) {
-            return failure(ex.asDiagnostics(path = script.locationId))
+            scriptCompilationConfiguration[ScriptCompilationConfiguration.dependencies]?.let { dependencies ->
+                addJvmClasspathRoots(
+                    dependencies.flatMap {
+                        (it as JvmDependency).classpath
+                    }
+                )
+            }
+            fun addRoot(moduleName: String, file: File) {
+                if (isModularJava) {
+                    add(CLIConfigurationKeys.CONTENT_ROOTS, JvmModulePathRoot(file))
+                    add(JVMConfigurationKeys.ADDITIONAL_JAVA_MODULES, moduleName)
+                } else {
+                    add(CLIConfigurationKeys.CONTENT_ROOTS, JvmClasspathRoot(file))
+                }
+            }
+            // TODO: implement logic similar to compiler's  -no-stdlib (and -no-reflect?)
+            addRoot("kotlin.stdlib", KotlinJars.stdlib)
+            KotlinJars.scriptRuntimeOrNull?.let { addRoot("kotlin.script.runtime", it) }
+
+            put(CommonConfigurationKeys.MODULE_NAME, "kotlin-script") // TODO" take meaningful and valid name from somewhere
+            languageVersionSettings = LanguageVersionSettingsImpl(
+                LanguageVersion.LATEST_STABLE, ApiVersion.LATEST_STABLE, mapOf(AnalysisFlags.skipMetadataVersionCheck to true)
+            )
         }
+        compilerEnvironment.environment = KotlinCoreEnvironment.createForProduction(
+            compilerEnvironment.disposable,
+            kotlinCompilerConfiguration,
+            EnvironmentConfigFiles.JVM_CONFIG_FILES
+        )
+        return compilerEnvironment
     }
 }
 
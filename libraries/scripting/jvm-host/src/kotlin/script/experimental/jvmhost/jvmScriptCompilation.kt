@@ -39,14 +39,12 @@ open class JvmScriptCompiler(
         script: SourceCode,
         scriptCompilationConfiguration: ScriptCompilationConfiguration
     ): ResultWithDiagnostics<CompiledScript<*>> {
-        val refineConfigurationFn = scriptCompilationConfiguration[ScriptCompilationConfiguration.refineConfigurationBeforeParsing]
-        val refinedConfiguration =
-            refineConfigurationFn?.handler?.invoke(ScriptConfigurationRefinementContext(script, scriptCompilationConfiguration))?.let {
-                when (it) {
-                    is ResultWithDiagnostics.Failure -> return it
-                    is ResultWithDiagnostics.Success -> it.value
-                }
-            } ?: scriptCompilationConfiguration
+        val refinedConfiguration = refineConfigurationBeforeParsing(script, scriptCompilationConfiguration).let {
+            when (it) {
+                is ResultWithDiagnostics.Failure -> return it
+                is ResultWithDiagnostics.Success -> it.value
+            }
+        }
         val cached = cache.get(script, refinedConfiguration)
 
         if (cached != null) return cached.asSuccess()
@@ -57,6 +55,58 @@ open class JvmScriptCompiler(
             }
         }
     }
+
+    /**
+     * Compiles [scripts] with [scriptCompilationConfiguration]. Scripts that are not found in the [cache] and have the same configuration
+     * after refinement are passed to the [compilerProxy] together, so they can be compiled in one pass. The results are in the order
+     * of [scripts]; the compilation fails if any of the scripts fails to compile.
+     */
+    suspend fun compileBatch(
+        scripts: List<SourceCode>,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ): ResultWithDiagnostics<List<CompiledScript<*>>> {
+        val compiledScripts = arrayOfNulls<CompiledScript<*>>(scripts.size)
+        val reports = ArrayList<ScriptDiagnostic>()
+        val scriptsToCompile = LinkedHashMap<ScriptCompilationConfiguration, MutableList<Int>>()
+
+        for ((index, script) in scripts.withIndex()) {
+            val refined = refineConfigurationBeforeParsing(script, scriptCompilationConfiguration)
+            reports.addAll(refined.reports)
+            val refinedConfiguration = when (refined) {
+                is ResultWithDiagnostics.Failure -> return ResultWithDiagnostics.Failure(reports)
+                is ResultWithDiagnostics.Success -> refined.value
+            }
+            val cached = cache.get(script, refinedConfiguration)
+            if (cached != null) {
+                compiledScripts[index] = cached
+            } else {
+                scriptsToCompile.getOrPut(refinedConfiguration) { arrayListOf() }.add(index)
+            }
+        }
+
+        for ((refinedConfiguration, indices) in scriptsToCompile) {
+            val compiled = compilerProxy.compileBatch(indices.map { scripts[it] }, refinedConfiguration)
+            reports.addAll(compiled.reports)
+            when (compiled) {
+                is ResultWithDiagnostics.Failure -> return ResultWithDiagnostics.Failure(reports)
+                is ResultWithDiagnostics.Success -> compiled.value.forEachIndexed { i, compiledScript ->
+                    compiledScripts[indices[i]] = compiledScript
+                    cache.store(compiledScript, scripts[indices[i]], refinedConfiguration)
+                }
+            }
+        }
+
+        return compiledScripts.map { it!! }.asSuccess(reports)
+    }
+
+    private fun refineConfigurationBeforeParsing(
+        script: SourceCode,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ): ResultWithDiagnostics<ScriptCompilationConfiguration> {
+        val refineConfigurationFn = scriptCompilationConfiguration[ScriptCompilationConfiguration.refineConfigurationBeforeParsing]
+        return refineConfigurationFn?.handler?.invoke(ScriptConfigurationRefinementContext(script, scriptCompilationConfiguration))
+            ?: scriptCompilationConfiguration.asSuccess()
+    }
 }
 
 interface KJvmCompilerProxy {
@@ -64,5 +114,15 @@ interface KJvmCompilerProxy {
         script: SourceCode,
         scriptCompilationConfiguration: ScriptCompilationConfiguration
     ): ResultWithDiagnostics<CompiledScript<*>>
+
+    /**
+     * Compiles [scripts] with the same configuration, returning the results in the same order. Implementations may compile the scripts
+     * together; by default they are compiled one by one.
+     */
+    fun compileBatch(
+        scripts: List<SourceCode>,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ): ResultWithDiagnostics<List<CompiledScript<*>>> =
+        scripts.mapSuccess { compile(it, scriptCompilationConfiguration) }
 }
 
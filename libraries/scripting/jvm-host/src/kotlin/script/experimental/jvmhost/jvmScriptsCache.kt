@@ -0,0 +1,197 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package kotlin.script.experimental.jvmhost
+
+import org.jetbrains.kotlin.config.KotlinCompilerVersion
+import java.io.*
+import java.lang.reflect.Modifier
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import kotlin.jvm.internal.CallableReference
+import kotlin.reflect.KClass
+import kotlin.script.experimental.api.*
+import kotlin.script.experimental.host.GetScriptingClass
+import kotlin.script.experimental.jvm.JvmDependency
+import kotlin.script.experimental.jvm.JvmGetScriptingClass
+import kotlin.script.experimental.jvmhost.impl.KJvmCompiledScript
+import kotlin.script.experimental.util.PropertiesCollection
+
+/**
+ * Computes a key identifying the result of compiling [script] with [scriptCompilationConfiguration]: a hash of the script text,
+ * of the configuration properties, of the compiler version, and of the paths, sizes and modification times of the classpath entries
+ * of the configuration, so that the key changes when a dependency is rebuilt.
+ *
+ * Functions (e.g. configuration refinement handlers) and scripting class getters are identified by their classes, if they don't capture
+ * any values. Returns null if the configuration contains capturing functions or other values without a meaningful string representation,
+ * since such configurations cannot be cached.
+ */
+fun compiledScriptCacheKey(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): String? {
+    val configurationFingerprint = scriptCompilationConfiguration.fingerprint() ?: return null
+    val digest = MessageDigest.getInstance("SHA-256")
+
+    fun update(value: String) {
+        digest.update(value.toByteArray())
+        digest.update(0)
+    }
+
+    update(KotlinCompilerVersion.VERSION)
+    update(script.text)
+    update(configurationFingerprint)
+    scriptCompilationConfiguration[ScriptCompilationConfiguration.dependencies]?.forEach { dependency ->
+        (dependency as? JvmDependency)?.classpath?.forEach { file ->
+            update(file.absolutePath)
+            update("${file.length()}:${file.lastModified()}")
+        }
+    }
+
+    return digest.digest().joinToString("") { "%02x".format(it) }
+}
+
+internal fun Any?.fingerprint(): String? = when (this) {
+    null, is String, is Number, is Boolean, is Enum<*>, is File -> toString()
+    is KotlinType -> typeName
+    is KClass<*> -> java.name
+    is Class<*> -> name
+    is Function<*> -> if (isStateless()) javaClass.name else null
+    // The state of JvmGetScriptingClass is derived from the dependencies of the host configuration, which are fingerprinted
+    is JvmGetScriptingClass -> javaClass.name
+    is GetScriptingClass -> if (isStateless()) javaClass.name else null
+    is RefineConfigurationUnconditionallyData -> handler.fingerprint()
+    is RefineConfigurationOnAnnotationsData -> {
+        val annotationsFingerprint = annotations.fingerprint()
+        val handlerFingerprint = handler.fingerprint()
+        if (annotationsFingerprint != null && handlerFingerprint != null) annotationsFingerprint + handlerFingerprint else null
+    }
+    is Array<*> -> asIterable().fingerprintElements()
+    is Iterable<*> -> fingerprintElements()
+    is Map<*, *> -> entries.map { (it.key.fingerprint() ?: return null) + "=" + (it.value.fingerprint() ?: return null) }
+        .sorted().joinToString(prefix = "{", postfix = "}")
+    is PropertiesCollection -> entries().sortedBy { it.key.name }.map { it.key.name + "=" + (it.value.fingerprint() ?: return null) }
+        .joinToString(prefix = "{", postfix = "}")
+    else ->
+        if (javaClass.getMethod("toString").declaringClass != Any::class.java) "${javaClass.name}($this)"
+        else null
+}
+
+// Instances of classes without instance fields, e.g. of lambdas that don't capture anything, can be identified by their classes
+private fun Any.isStateless(): Boolean =
+    javaClass.declaredFields.all { Modifier.isStatic(it.modifiers) } &&
+            (this !is CallableReference || boundReceiver === CallableReference.NO_RECEIVER)
+
+private fun Iterable<*>.fingerprintElements(): String? =
+    map { it.fingerprint() ?: return null }.joinToString(prefix = "[", postfix = "]")
+
+/**
+ * Keeps up to [maxSize] compiled scripts in memory, evicting the least recently used ones
+ */
+class InMemoryCompiledJvmScriptsCache(private val maxSize: Int = 100) : CompiledJvmScriptsCache {
+
+    private val data = object : LinkedHashMap<String, CompiledScript<*>>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, CompiledScript<*>>?): Boolean = size > maxSize
+    }
+
+    override fun get(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): CompiledScript<*>? {
+        val key = compiledScriptCacheKey(script, scriptCompilationConfiguration) ?: return null
+        return synchronized(data) { data[key] }
+    }
+
+    override fun store(
+        compiledScript: CompiledScript<*>,
+        script: SourceCode,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ) {
+        val key = compiledScriptCacheKey(script, scriptCompilationConfiguration) ?: return
+        synchronized(data) { data[key] = compiledScript }
+    }
+}
+
+/**
+ * Stores compiled scripts, with the bytecode of all their classes, in files in [baseDir], one file per script.
+ *
+ * Loaded scripts define their classes directly from the stored bytecode, without starting the compiler. Unreadable files, e.g. written
+ * by an incompatible version, are treated as cache misses and removed.
+ */
+class FileBasedCompiledJvmScriptsCache(val baseDir: File) : CompiledJvmScriptsCache {
+
+    private fun fileFor(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): File? =
+        compiledScriptCacheKey(script, scriptCompilationConfiguration)?.let { File(baseDir, "$it.ser") }
+
+    override fun get(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): CompiledScript<*>? {
+        val file = fileFor(script, scriptCompilationConfiguration) ?: return null
+        if (!file.exists()) return null
+
+        return try {
+            file.inputStream().buffered().use { fs ->
+                ObjectInputStream(fs).use { os ->
+                    (os.readObject() as KJvmCompiledScript<*>).apply {
+                        setCompilationConfiguration(scriptCompilationConfiguration)
+                    }
+                }
+            }
+        } catch (e: IOException) {
+            file.delete()
+            null
+        } catch (e: ClassNotFoundException) {
+            file.delete()
+            null
+        } catch (e: ClassCastException) {
+            file.delete()
+            null
+        }
+    }
+
+    override fun store(
+        compiledScript: CompiledScript<*>,
+        script: SourceCode,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ) {
+        if (compiledScript !is KJvmCompiledScript<*>) return
+
+        val file = fileFor(script, scriptCompilationConfiguration) ?: return
+        baseDir.mkdirs()
+        // Write to a temporary file first, so that concurrent readers never see a partially written script
+        val tempFile = File.createTempFile(file.name, ".tmp", baseDir)
+        try {
+            tempFile.outputStream().buffered().use { fs ->
+                ObjectOutputStream(fs).use { os ->
+                    os.writeObject(compiledScript)
+                }
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+        } finally {
+            tempFile.delete()
+        }
+    }
+}
+
+/**
+ * Looks up compiled scripts in [memoryCache] first and then in [persistentCache], remembering the scripts loaded from the latter
+ * in the former
+ */
+class TwoLevelCompiledJvmScriptsCache(
+    val memoryCache: CompiledJvmScriptsCache,
+    val persistentCache: CompiledJvmScriptsCache
+) : CompiledJvmScriptsCache {
+
+    constructor(baseDir: File, maxSizeInMemory: Int = 100) :
+            this(InMemoryCompiledJvmScriptsCache(maxSizeInMemory), FileBasedCompiledJvmScriptsCache(baseDir))
+
+    override fun get(script: SourceCode, scriptCompilationConfiguration: ScriptCompilationConfiguration): CompiledScript<*>? =
+        memoryCache.get(script, scriptCompilationConfiguration)
+            ?: persistentCache.get(script, scriptCompilationConfiguration)?.also {
+                memoryCache.store(it, script, scriptCompilationConfiguration)
+            }
+
+    override fun store(
+        compiledScript: CompiledScript<*>,
+        script: SourceCode,
+        scriptCompilationConfiguration: ScriptCompilationConfiguration
+    ) {
+        memoryCache.store(compiledScript, script, scriptCompilationConfiguration)
+        persistentCache.store(compiledScript, script, scriptCompilationConfiguration)
+    }
+}
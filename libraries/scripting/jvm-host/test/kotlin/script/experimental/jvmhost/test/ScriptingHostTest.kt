@@ -12,6 +12,7 @@ import org.junit.Test
 import java.io.*
 import java.nio.file.Files
 import java.security.MessageDigest
+import java.util.concurrent.Executors
 import kotlin.reflect.KClass
 import kotlin.script.experimental.api.*
 import kotlin.script.experimental.host.BasicScriptingHost
@@ -20,7 +21,10 @@ import kotlin.script.experimental.host.toScriptSource
 import kotlin.script.experimental.jvm.defaultJvmScriptingHostConfiguration
 import kotlin.script.experimental.jvmhost.*
 import kotlin.script.experimental.jvmhost.impl.CompiledScriptClassLoader
+import kotlin.script.experimental.jvmhost.impl.KJvmCompilerEnvironmentPool
+import kotlin.script.experimental.jvmhost.impl.KJvmCompilerImpl
 import kotlin.script.experimental.jvmhost.impl.KJvmCompiledScript
+import kotlin.script.experimental.util.PropertiesCollection
 import kotlin.script.templates.standard.SimpleScriptTemplate
 
 class ScriptingHostTest : TestCase() {
@@ -212,6 +216,168 @@ class ScriptingHostTest : TestCase() {
         }
     }
 
+    @Test
+    fun testBuiltInCaches() {
+        val script = "val x = 1\nprintln(\"x = \$x\")"
+        val cacheDir = Files.createTempDirectory("scriptingTestCache").toFile()
+        try {
+            var compilations = 0
+            val compilerProxy = object : KJvmCompilerProxy {
+                private val compiler = KJvmCompilerImpl(defaultJvmScriptingHostConfiguration)
+
+                override fun compile(
+                    script: SourceCode,
+                    scriptCompilationConfiguration: ScriptCompilationConfiguration
+                ): ResultWithDiagnostics<CompiledScript<*>> {
+                    compilations++
+                    return compiler.compile(script, scriptCompilationConfiguration)
+                }
+            }
+
+            fun createHost() = BasicJvmScriptingHost(
+                compiler = JvmScriptCompiler(defaultJvmScriptingHostConfiguration, compilerProxy, TwoLevelCompiledJvmScriptsCache(cacheDir))
+            )
+
+            val host = createHost()
+            val output = captureOut { evalScript(script, host) }
+            Assert.assertEquals("x = 1", output)
+            Assert.assertEquals(1, compilations)
+            Assert.assertEquals(1, cacheDir.listFiles().size)
+
+            // from memory
+            Assert.assertEquals(output, captureOut { evalScript(script, host) })
+            Assert.assertEquals(1, compilations)
+
+            // from disk
+            Assert.assertEquals(output, captureOut { evalScript(script, createHost()) })
+            Assert.assertEquals(1, compilations)
+
+            captureOut { evalScript("println(2)", host) }
+            Assert.assertEquals(2, compilations)
+            Assert.assertEquals(2, cacheDir.listFiles().size)
+        } finally {
+            cacheDir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun testConfigurationsWithoutFingerprintAreNotCached() {
+        val script = "val x = 1".toScriptSource()
+        val compilationConfiguration = createJvmCompilationConfigurationFromTemplate<SimpleScriptTemplate>()
+        Assert.assertNotNull(compiledScriptCacheKey(script, compilationConfiguration))
+
+        val opaqueConfiguration = ScriptCompilationConfiguration(compilationConfiguration) {
+            opaqueTestValue(Any())
+        }
+        Assert.assertNull(compiledScriptCacheKey(script, opaqueConfiguration))
+
+        val cacheDir = Files.createTempDirectory("scriptingTestCache").toFile()
+        try {
+            val cache = TwoLevelCompiledJvmScriptsCache(cacheDir)
+            val compiled = runBlocking { JvmScriptCompiler(defaultJvmScriptingHostConfiguration)(script, opaqueConfiguration) }
+            cache.store((compiled as ResultWithDiagnostics.Success).value, script, opaqueConfiguration)
+            Assert.assertNull(cache.get(script, opaqueConfiguration))
+            Assert.assertEquals(0, cacheDir.listFiles().size)
+        } finally {
+            cacheDir.deleteRecursively()
+        }
+    }
+
+    @Test
+    fun testCapturingHandlersAreNotCached() {
+        val script = "val x = 1".toScriptSource()
+        fun configurationImporting(importedScript: SourceCode) =
+            ScriptCompilationConfiguration(createJvmCompilationConfigurationFromTemplate<SimpleScriptTemplate>()) {
+                refineConfiguration {
+                    beforeCompiling { ctx ->
+                        ScriptCompilationConfiguration(ctx.compilationConfiguration) {
+                            importScripts(importedScript)
+                        }.asSuccess()
+                    }
+                }
+            }
+
+        val first = configurationImporting(File(TEST_DATA_DIR, "importTest/helloWithVal.kts").toScriptSource())
+        val second = configurationImporting(File(TEST_DATA_DIR, "importTest/diamondImportCommon.kts").toScriptSource())
+        Assert.assertSame(
+            first[ScriptCompilationConfiguration.refineConfigurationBeforeCompiling]!!.handler.javaClass,
+            second[ScriptCompilationConfiguration.refineConfigurationBeforeCompiling]!!.handler.javaClass
+        )
+        Assert.assertNull(compiledScriptCacheKey(script, first))
+        Assert.assertNull(compiledScriptCacheKey(script, second))
+
+        val cache = InMemoryCompiledJvmScriptsCache()
+        val templateConfiguration = createJvmCompilationConfigurationFromTemplate<SimpleScriptTemplate>()
+        val compiled = runBlocking { JvmScriptCompiler(defaultJvmScriptingHostConfiguration)(script, templateConfiguration) }
+        cache.store((compiled as ResultWithDiagnostics.Success).value, script, first)
+        Assert.assertNull(cache.get(script, second))
+
+        val nonCapturing = ScriptCompilationConfiguration(createJvmCompilationConfigurationFromTemplate<SimpleScriptTemplate>()) {
+            refineConfiguration {
+                beforeCompiling { ctx -> ctx.compilationConfiguration.asSuccess() }
+            }
+        }
+        Assert.assertNotNull(compiledScriptCacheKey(script, nonCapturing))
+    }
+
+    @Test
+    fun testPooledEnvironments() {
+        val compilationConfiguration = createJvmCompilationConfigurationFromTemplate<SimpleScriptTemplate>()
+        KJvmCompilerEnvironmentPool(maxIdleEnvironments = 4).use { pool ->
+            val compiler = JvmScriptCompiler(
+                defaultJvmScriptingHostConfiguration, KJvmCompilerImpl(defaultJvmScriptingHostConfiguration, pool)
+            )
+
+            fun compile(script: String) = runBlocking { compiler(script.toScriptSource(), compilationConfiguration) }
+
+            for (i in 1..3) {
+                val res = compile("val x = $i\nprintln(x)")
+                Assert.assertTrue(res is ResultWithDiagnostics.Success)
+                Assert.assertEquals(1, pool.idleEnvironmentsCount)
+            }
+
+            // diagnostics of a compilation are not reported to the following ones
+            val failed = compile("val x: Int = \"\"")
+            Assert.assertTrue(failed is ResultWithDiagnostics.Failure)
+            Assert.assertTrue(failed.reports.any { it.severity == ScriptDiagnostic.Severity.ERROR })
+            val succeeded = compile("val y = 1")
+            Assert.assertTrue(succeeded is ResultWithDiagnostics.Success)
+            Assert.assertTrue(succeeded.reports.none { it.severity == ScriptDiagnostic.Severity.ERROR })
+
+            val results = (1..4).map { i ->
+                val result = arrayOfNulls<ResultWithDiagnostics<*>>(1)
+                Thread { result[0] = compile("val x = $i\nprintln(x)") }.apply { start() } to result
+            }.map { (thread, result) ->
+                thread.join()
+                result[0]
+            }
+            Assert.assertTrue(results.all { it is ResultWithDiagnostics.Success })
+            Assert.assertTrue(pool.idleEnvironmentsCount in 1..4)
+        }
+    }
+
+    @Test
+    fun testBatchEvaluation() {
+        val scripts = (1..5).map { "val x = $it\nval y = x * 2".toScriptSource() }
+        val compilationConfiguration = createJvmCompilationConfigurationFromTemplate<SimpleScriptTemplate>()
+        val executor = Executors.newFixedThreadPool(3)
+        try {
+            val res = BasicJvmScriptingHost().evalBatch(scripts, compilationConfiguration, null, executor)
+            Assert.assertTrue(res is ResultWithDiagnostics.Success)
+
+            val instances = (res as ResultWithDiagnostics.Success).value.map {
+                val evaluationResult = (it as ResultWithDiagnostics.Success).value
+                (evaluationResult.returnValue as ResultValue.Value).scriptInstance!!
+            }
+            Assert.assertEquals(scripts.size, instances.map { it.javaClass.name }.distinct().size)
+            Assert.assertEquals(1, instances.map { it.javaClass.classLoader }.distinct().size)
+            Assert.assertTrue(instances.first().javaClass.classLoader is CompiledScriptClassLoader)
+            Assert.assertEquals((1..5).map { it * 2 }, instances.map { it.javaClass.getMethod("getY").invoke(it) })
+        } finally {
+            executor.shutdown()
+        }
+    }
+
     @Test
     fun testCompiledScriptClassLoader() {
         val script = "val x = 1"
@@ -255,6 +421,8 @@ fun ResultWithDiagnostics<*>.throwOnFailure(): ResultWithDiagnostics<*> = apply
     }
 }
 
+private val ScriptCompilationConfigurationKeys.opaqueTestValue by PropertiesCollection.key<Any>()
+
 private fun evalScript(script: String, host: BasicScriptingHost = BasicJvmScriptingHost()) {
     val compilationConfiguration = createJvmCompilationConfigurationFromTemplate<SimpleScriptTemplate>()
     host.eval(script.toScriptSource(), compilationConfiguration, null).throwOnFailure()
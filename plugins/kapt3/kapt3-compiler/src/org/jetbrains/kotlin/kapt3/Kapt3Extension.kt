@@ -54,6 +54,7 @@ import org.jetbrains.kotlin.kapt3.diagnostic.KaptError
 import org.jetbrains.kotlin.kapt3.stubs.ClassFileToSourceStubConverter
 import org.jetbrains.kotlin.kapt3.stubs.ClassFileToSourceStubConverter.KaptStub
 import org.jetbrains.kotlin.kapt3.util.MessageCollectorBackedKaptLogger
+import org.jetbrains.kotlin.kapt3.util.writeTextIfChanged
 import org.jetbrains.kotlin.modules.TargetId
 import org.jetbrains.kotlin.psi.KtFile
 import org.jetbrains.kotlin.resolve.BindingContext
@@ -295,6 +296,8 @@ abstract class AbstractKapt3Extension(
     }
 
     protected open fun saveStubs(kaptContext: KaptContext, stubs: List<KaptStub>) {
+        var unchangedStubs = 0
+
         for (kaptStub in stubs) {
             val stub = kaptStub.file
             val className = (stub.defs.first { it is JCTree.JCClassDecl } as JCTree.JCClassDecl).simpleName.toString()
@@ -304,10 +307,14 @@ abstract class AbstractKapt3Extension(
             packageDir.mkdirs()
 
             val sourceFile = File(packageDir, "$className.java")
-            sourceFile.writeText(stub.prettyPrint(kaptContext.context))
+            if (!sourceFile.writeTextIfChanged(stub.prettyPrint(kaptContext.context))) {
+                unchangedStubs++
+            }
 
             kaptStub.writeMetadataIfNeeded(forSource = sourceFile)
         }
+
+        logger.info { "Stubs written: ${stubs.size - unchangedStubs}, unchanged: $unchangedStubs" }
     }
 
     protected open fun saveIncrementalData(
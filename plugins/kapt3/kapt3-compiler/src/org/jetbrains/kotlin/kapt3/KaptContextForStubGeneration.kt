@@ -40,6 +40,17 @@ class KaptContextForStubGeneration(
 ) : KaptContext(options, withJdk, logger) {
     private val treeMaker = TreeMaker.instance(context)
 
+    // Classes are looked up by internal name for every nested class and type reference, so avoid scanning all compiled classes
+    val compiledClassesByName: Map<String, ClassNode> by lazy {
+        val result = HashMap<String, ClassNode>(compiledClasses.size)
+        for (classNode in compiledClasses) {
+            if (classNode.name !in result) {
+                result[classNode.name] = classNode
+            }
+        }
+        result
+    }
+
     override fun preregisterTreeMaker(context: Context) {
         KaptTreeMaker.preRegister(context, this)
     }
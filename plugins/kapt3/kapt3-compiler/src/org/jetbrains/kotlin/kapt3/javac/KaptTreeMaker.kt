@@ -80,7 +80,7 @@ class KaptTreeMaker(context: Context, kaptContext: KaptContextForStubGeneration)
         val kaptContext = this.kaptContext.get()
 
         // Maybe it's in our sources?
-        val classFromSources = kaptContext.compiledClasses.firstOrNull { it.name == internalName }
+        val classFromSources = kaptContext.compiledClassesByName[internalName]
         if (classFromSources != null) {
             // Get inner class node pointing to the outer class
             val innerClassNode = classFromSources.innerClasses.firstOrNull { it.name == classFromSources.name }
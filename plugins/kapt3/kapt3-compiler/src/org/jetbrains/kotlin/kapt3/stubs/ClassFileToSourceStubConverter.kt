@@ -120,6 +120,8 @@ class ClassFileToSourceStubConverter(val kaptContext: KaptContextForStubGenerati
 
     private var done = false
 
+    private fun findCompiledClass(internalName: String?): ClassNode? = internalName?.let { kaptContext.compiledClassesByName[it] }
+
     fun convert(): List<KaptStub> {
         if (done) error(ClassFileToSourceStubConverter::class.java.simpleName + " can convert classes only once")
         done = true
@@ -162,7 +164,7 @@ class ClassFileToSourceStubConverter(val kaptContext: KaptContextForStubGenerati
                 forSource.nameWithoutExtension + KaptStubLineInformation.KAPT_METADATA_EXTENSION
             )
 
-            metadataFile.writeBytes(kaptMetadata)
+            metadataFile.writeBytesIfChanged(kaptMetadata)
         }
     }
 
@@ -343,7 +345,7 @@ class ClassFileToSourceStubConverter(val kaptContext: KaptContextForStubGenerati
             for (innerClass in clazz.innerClasses) {
                 // Class should have the same name as enum value
                 if (innerClass.innerName != field.name) continue
-                val classNode = kaptContext.compiledClasses.firstOrNull { it.name == innerClass.name } ?: continue
+                val classNode = findCompiledClass(innerClass.name) ?: continue
 
                 // Super class name of the class should be our enum class
                 if (classNode.superName != clazz.name) continue
@@ -392,7 +394,7 @@ class ClassFileToSourceStubConverter(val kaptContext: KaptContextForStubGenerati
         val nestedClasses = mapJList<InnerClassNode, JCTree>(clazz.innerClasses) { innerClass ->
             if (enumValuesData.any { it.innerClass == innerClass }) return@mapJList null
             if (innerClass.outerName != clazz.name) return@mapJList null
-            val innerClassNode = kaptContext.compiledClasses.firstOrNull { it.name == innerClass.name } ?: return@mapJList null
+            val innerClassNode = findCompiledClass(innerClass.name) ?: return@mapJList null
             convertClass(innerClassNode, lineMappings, packageFqName, false)
         }
 
@@ -514,7 +516,7 @@ class ClassFileToSourceStubConverter(val kaptContext: KaptContextForStubGenerati
             return false
         }
 
-        val clazz = kaptContext.compiledClasses.firstOrNull { it.name == internalName } ?: return true
+        val clazz = findCompiledClass(internalName) ?: return true
 
         if (doesInnerClassNameConflictWithOuter(clazz)) {
             if (strictMode) {
@@ -533,7 +535,7 @@ class ClassFileToSourceStubConverter(val kaptContext: KaptContextForStubGenerati
 
     private fun findContainingClassNode(clazz: ClassNode): ClassNode? {
         val innerClassForOuter = clazz.innerClasses.firstOrNull { it.name == clazz.name } ?: return null
-        return kaptContext.compiledClasses.firstOrNull { it.name == innerClassForOuter.outerName }
+        return findCompiledClass(innerClassForOuter.outerName)
     }
 
     // Java forbids outer and inner class names to be the same. Check if the names are different
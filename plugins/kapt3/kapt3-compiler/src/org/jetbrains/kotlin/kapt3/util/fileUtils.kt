@@ -0,0 +1,25 @@
+/*
+ * Copyright 2010-2018 JetBrains s.r.o. Use of this source code is governed by the Apache 2.0 license
+ * that can be found in the license/LICENSE.txt file.
+ */
+
+package org.jetbrains.kotlin.kapt3.util
+
+import java.io.File
+
+/**
+ * Writes [bytes] to the file unless it already has exactly the same content.
+ * Unchanged files keep their timestamps, so annotation processors and javac don't treat them as modified.
+ *
+ * @return `true` if the file was written
+ */
+internal fun File.writeBytesIfChanged(bytes: ByteArray): Boolean {
+    if (isFile && length() == bytes.size.toLong() && readBytes().contentEquals(bytes)) {
+        return false
+    }
+
+    writeBytes(bytes)
+    return true
+}
+
+internal fun File.writeTextIfChanged(text: String): Boolean = writeBytesIfChanged(text.toByteArray(Charsets.UTF_8))